@@ -0,0 +1,148 @@
+package com.bibliotheque.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Base H2 en mémoire (mode MySQL) qui remplace le serveur MySQL pendant les benchmarks.
+ *
+ * {@link #preparer} doit être appelé avant tout accès à DatabaseConnection : l'URL de
+ * connexion est lue une seule fois, au chargement de cette classe. Le jeu de données est
+ * généré avec une graine fixe, identique d'une exécution à l'autre.
+ */
+final class BaseEmbarquee {
+
+    static final String URL = "jdbc:h2:mem:benchmarks;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+
+    private static final String[] MOTS = {
+        "Misérables", "Seigneur", "Anneaux", "Étranger", "Peste", "Germinal", "Nana", "Candide",
+        "Horla", "Bel", "Ami", "Rouge", "Noir", "Chartreuse", "Parme", "Comte", "Monte", "Cristo",
+        "Fleurs", "Mal", "Petit", "Prince", "Voyage", "Nuit", "Mémoires", "Outre", "Tombe", "Éducation"
+    };
+    private static final String[] NOMS = {
+        "Dupont", "Martin", "Bernard", "Thomas", "Petit", "Robert", "Richard", "Durand", "Dubois", "Moreau",
+        "Laurent", "Simon", "Michel", "Lefebvre", "Leroy", "Roux", "David", "Bertrand", "Morel", "Fournier"
+    };
+    private static final String[] PRENOMS = {
+        "Jean", "Marie", "Pierre", "Sophie", "Luc", "Claire", "Paul", "Julie", "Marc", "Anne",
+        "Louis", "Emma", "Hugo", "Léa", "Nathan", "Chloé", "Lucas", "Inès", "Jules", "Manon"
+    };
+
+    private static final int TAILLE_LOT = 1000;
+
+    private BaseEmbarquee() {
+    }
+
+    /**
+     * Recrée le schéma et le remplit.
+     *
+     * @param livres   nombre de livres
+     * @param membres  nombre de membres
+     * @param emprunts nombre d'emprunts, tous rendus (historique)
+     */
+    static void preparer(int livres, int membres, int emprunts) throws SQLException, IOException {
+        System.setProperty("bibliotheque.db.url", URL);
+        System.setProperty("bibliotheque.db.driver", "org.h2.Driver");
+        System.setProperty("bibliotheque.db.user", "sa");
+        System.setProperty("bibliotheque.db.password", "");
+
+        Random aleatoire = new Random(42);
+        try (Connection conn = DriverManager.getConnection(URL, "sa", "")) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String instruction : lireSchema().split(";")) {
+                    if (!instruction.isBlank()) {
+                        stmt.execute(instruction);
+                    }
+                }
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible) VALUES (?, ?, ?, ?, TRUE)")) {
+                for (int i = 0; i < livres; i++) {
+                    stmt.setString(1, isbn(i));
+                    stmt.setString(2, mot(aleatoire) + " " + mot(aleatoire) + " " + i);
+                    stmt.setString(3, PRENOMS[aleatoire.nextInt(PRENOMS.length)] + " "
+                            + NOMS[aleatoire.nextInt(NOMS.length)]);
+                    stmt.setInt(4, 1800 + aleatoire.nextInt(225));
+                    ajouter(stmt, conn, i);
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO membres (nom, prenom, email, actif, date_inscription) VALUES (?, ?, ?, TRUE, ?)")) {
+                for (int i = 0; i < membres; i++) {
+                    stmt.setString(1, NOMS[aleatoire.nextInt(NOMS.length)]);
+                    stmt.setString(2, PRENOMS[aleatoire.nextInt(PRENOMS.length)]);
+                    stmt.setString(3, email(i));
+                    stmt.setDate(4, Date.valueOf(LocalDate.of(2020, 1, 1).plusDays(i % 1500)));
+                    ajouter(stmt, conn, i);
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO emprunts (isbn, membre_id, date_emprunt, date_retour_prevue, date_retour_effective, "
+                            + "penalite, en_retard) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                LocalDate origine = LocalDate.now().minusYears(3);
+                for (int i = 0; i < emprunts; i++) {
+                    LocalDate debut = origine.plusDays(aleatoire.nextInt(1000));
+                    LocalDate prevue = debut.plusDays(14);
+                    int retard = aleatoire.nextInt(10) == 0 ? 1 + aleatoire.nextInt(10) : 0;
+                    stmt.setString(1, isbn(aleatoire.nextInt(livres)));
+                    stmt.setInt(2, 1 + aleatoire.nextInt(membres));
+                    stmt.setDate(3, Date.valueOf(debut));
+                    stmt.setDate(4, Date.valueOf(prevue));
+                    stmt.setDate(5, Date.valueOf(prevue.plusDays(retard - 3L)));
+                    stmt.setDouble(6, Math.max(0, retard - 3) * 2.0);
+                    stmt.setBoolean(7, retard > 3);
+                    ajouter(stmt, conn, i);
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    static String isbn(int i) {
+        return String.format("978-%010d", i);
+    }
+
+    static String email(int i) {
+        return "membre" + i + "@example.com";
+    }
+
+    private static String mot(Random aleatoire) {
+        return MOTS[aleatoire.nextInt(MOTS.length)];
+    }
+
+    private static void ajouter(PreparedStatement stmt, Connection conn, int i) throws SQLException {
+        stmt.addBatch();
+        if ((i + 1) % TAILLE_LOT == 0) {
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static String lireSchema() throws IOException {
+        try (InputStream in = BaseEmbarquee.class.getClassLoader().getResourceAsStream("schema-h2.sql")) {
+            if (in == null) {
+                throw new IOException("schema-h2.sql introuvable");
+            }
+            StringBuilder sansCommentaires = new StringBuilder();
+            for (String ligne : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\r?\n")) {
+                if (!ligne.trim().startsWith("--")) {
+                    sansCommentaires.append(ligne).append('\n');
+                }
+            }
+            return sansCommentaires.toString();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.Demarrage;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Démarrage jusqu'aux premières lignes affichables : construction des services, ouverture du
+ * pool, contrôle des migrations, puis comptage et première page de l'onglet Livres.
+ *
+ * Chaque mesure part d'un pool fermé. Le chargement des vues JavaFX n'est pas mesuré ici :
+ * l'application affiche au démarrage la durée de chacune de ses phases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class DemarrageBenchmark {
+
+    // Taille d'une page de la table des livres (ListePaginee.TAILLE_PAGE_DEFAUT).
+    private static final int TAILLE_PAGE = 100;
+
+    @Param({"10000"})
+    int livres;
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        BaseEmbarquee.preparer(livres, 1000, 0);
+        System.setProperty("bibliotheque.migrations", "db/migration-h2");
+    }
+
+    @TearDown(Level.Iteration)
+    public void fermer() throws Exception {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    @Benchmark
+    public List<Livre> premieresLignes() throws Exception {
+        Demarrage demarrage = new Demarrage();
+        demarrage.preparerBase();
+        BibliothequeService service = demarrage.getBibliothequeService();
+        service.compterLivres();
+        return service.getLivresFenetre(null, null, 0, TAILLE_PAGE);
+    }
+}
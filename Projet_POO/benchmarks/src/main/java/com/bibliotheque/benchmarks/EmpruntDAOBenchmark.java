@@ -0,0 +1,66 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement des emprunts avec leur livre et leur membre. Le temps doit croître
+ * linéairement avec le nombre d'emprunts (une seule requête, pas de N+1).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmpruntDAOBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    int emprunts;
+
+    private EmpruntDAOImpl dao;
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        BaseEmbarquee.preparer(5000, 1000, emprunts);
+        dao = new EmpruntDAOImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws Exception {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    @Benchmark
+    public List<Emprunt> findAll() throws Exception {
+        return dao.findAll();
+    }
+
+    @Benchmark
+    public List<Emprunt> findByMembre() throws Exception {
+        return dao.findByMembre(1 + ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    @Benchmark
+    public List<Emprunt> findEnRetard() throws Exception {
+        return dao.findEnRetard();
+    }
+}
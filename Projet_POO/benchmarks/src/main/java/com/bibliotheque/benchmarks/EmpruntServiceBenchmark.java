@@ -0,0 +1,83 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.dao.impl.LivreDAOCache;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.dao.impl.MembreDAOCache;
+import com.bibliotheque.dao.impl.MembreDAOImpl;
+import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
+import com.bibliotheque.exception.LivreIndisponibleException;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.service.EmpruntService;
+import com.bibliotheque.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit des emprunts concurrents : chaque opération emprunte un livre au hasard parmi un petit
+ * nombre (contention sur les verrous de ligne) puis le rend. Les refus (livre déjà emprunté,
+ * limite atteinte) sont comptés à part.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmpruntServiceBenchmark {
+
+    // Nombre de livres disputés : plus il est petit, plus la contention est forte.
+    @Param({"16", "1000"})
+    int livresDisputes;
+
+    private EmpruntService service;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Issues {
+        public long reussis;
+        public long refuses;
+    }
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        BaseEmbarquee.preparer(Math.max(livresDisputes, 1000), 1000, 0);
+        service = new EmpruntService(new EmpruntDAOImpl(), new LivreDAOCache(new LivreDAOImpl()),
+                new MembreDAOCache(new MembreDAOImpl()));
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws Exception {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    @Benchmark
+    public void emprunterEtRendre(Issues issues) throws Exception {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        String isbn = BaseEmbarquee.isbn(aleatoire.nextInt(livresDisputes));
+        try {
+            Emprunt emprunt = service.emprunterLivre(isbn, 1 + aleatoire.nextInt(1000));
+            service.retournerLivre(emprunt.getId());
+            issues.reussis++;
+        } catch (LivreIndisponibleException | LimiteEmpruntDepasseeException e) {
+            issues.refuses++;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bibliotheque.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée de benchmarks.jar : accepte les options habituelles de JMH
+ * (filtre de benchmarks, -f, -wi, -i, -p...) et écrit par défaut les résultats au format
+ * JSON dans {@code jmh-resultats.json}, pour comparer les versions entre elles.
+ */
+public final class Lanceur {
+
+    private Lanceur() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions ligne = new CommandLineOptions(args);
+        if (ligne.shouldHelp()) {
+            ligne.showHelp();
+            return;
+        }
+        if (ligne.shouldList()) {
+            new Runner(ligne).list();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(ligne);
+        if (!ligne.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!ligne.getResult().hasValue()) {
+            options.result("jmh-resultats.json");
+        }
+        new Runner(options.build()).run();
+    }
+}
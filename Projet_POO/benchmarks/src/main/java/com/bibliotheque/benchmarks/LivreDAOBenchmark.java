@@ -0,0 +1,62 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.dao.impl.LivreDAOCache;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture d'un livre par ISBN : accès direct à la base et décorateur avec cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LivreDAOBenchmark {
+
+    @Param({"10000"})
+    int livres;
+
+    private LivreDAOImpl dao;
+    private LivreDAOCache daoCache;
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        BaseEmbarquee.preparer(livres, 100, 0);
+        dao = new LivreDAOImpl();
+        daoCache = new LivreDAOCache(new LivreDAOImpl());
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws Exception {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    @Benchmark
+    public Livre findByISBN() throws Exception {
+        return dao.findByISBN(BaseEmbarquee.isbn(ThreadLocalRandom.current().nextInt(livres)));
+    }
+
+    @Benchmark
+    public Livre findByISBNAvecCache() throws Exception {
+        return daoCache.findByISBN(BaseEmbarquee.isbn(ThreadLocalRandom.current().nextInt(livres)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.dao.impl.LivreDAOCache;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.dao.impl.MembreDAOCache;
+import com.bibliotheque.dao.impl.MembreDAOImpl;
+import com.bibliotheque.dao.impl.StatistiquesDAOImpl;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.StatistiquesService;
+import com.bibliotheque.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de livres (base, index en mémoire) et de membres par le service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RechercheBenchmark {
+
+    @Param({"50000"})
+    int livres;
+
+    @Param({"Mis", "prince", "Hugo"})
+    String critere;
+
+    private BibliothequeService service;
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        BaseEmbarquee.preparer(livres, 20000, 0);
+        service = new BibliothequeService(new LivreDAOCache(new LivreDAOImpl()),
+                new MembreDAOCache(new MembreDAOImpl()), new StatistiquesService(new StatistiquesDAOImpl()));
+        service.construireIndexLivres();
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws Exception {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    @Benchmark
+    public List<Livre> rechercherLivres() throws Exception {
+        return service.rechercherLivres(critere);
+    }
+
+    @Benchmark
+    public List<Livre> rechercherLivresInstantane() throws Exception {
+        return service.rechercherLivresInstantane(critere, 100);
+    }
+
+    @Benchmark
+    public List<Membre> rechercherMembres() throws Exception {
+        return service.rechercherMembres(critere);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.dao.impl.LivreDAOCache;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.dao.impl.MembreDAOCache;
+import com.bibliotheque.dao.impl.MembreDAOImpl;
+import com.bibliotheque.dao.impl.StatistiquesDAOImpl;
+import com.bibliotheque.model.Statistiques;
+import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.StatistiquesService;
+import com.bibliotheque.util.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tableau de bord : compteurs en mémoire (cas courant) et requête d'agrégation (réconciliation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StatistiquesBenchmark {
+
+    @Param({"100000"})
+    int emprunts;
+
+    private StatistiquesDAOImpl dao;
+    private BibliothequeService service;
+
+    @Setup(Level.Trial)
+    public void preparer() throws Exception {
+        BaseEmbarquee.preparer(20000, 5000, emprunts);
+        dao = new StatistiquesDAOImpl();
+        service = new BibliothequeService(new LivreDAOCache(new LivreDAOImpl()),
+                new MembreDAOCache(new MembreDAOImpl()), new StatistiquesService(dao));
+    }
+
+    @TearDown(Level.Trial)
+    public void fermer() throws Exception {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    @Benchmark
+    public String getStatistiques() throws Exception {
+        return service.getStatistiques();
+    }
+
+    @Benchmark
+    public Statistiques calculerEnBase() throws Exception {
+        return dao.calculer();
+    }
+}
@@ -0,0 +1,61 @@
+package com.bibliotheque.benchmarks;
+
+import com.bibliotheque.exception.ValidationException;
+import com.bibliotheque.util.StringValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation des saisies (import de catalogue, formulaires), valeurs valides et invalides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StringValidatorBenchmark {
+
+    String isbnValide = "978-2070361563";
+    String isbnInvalide = "97820703615";
+    String emailValide = "jean.dupont@example.com";
+    String nom = "Dupont";
+    String prenom = "Jean";
+
+    @Benchmark
+    public boolean validerISBN() throws ValidationException {
+        StringValidator.validateISBN(isbnValide);
+        return true;
+    }
+
+    @Benchmark
+    public boolean validerISBNInvalide() {
+        try {
+            StringValidator.validateISBN(isbnInvalide);
+            return true;
+        } catch (ValidationException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean validerEmail() throws ValidationException {
+        StringValidator.validateEmail(emailValide);
+        return true;
+    }
+
+    @Benchmark
+    public boolean validerNomPrenom() throws ValidationException {
+        StringValidator.validateNomPrenom(nom, prenom);
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+-- Schéma de la base embarquée des benchmarks : tables et index de db/migration,
+-- traduits pour H2 (pas de FULLTEXT : LivreDAOImpl.rechercher passe par LIKE)
+
+DROP ALL OBJECTS;
+
+CREATE TABLE livres (
+    isbn VARCHAR(20) PRIMARY KEY,
+    titre VARCHAR(200) NOT NULL,
+    auteur VARCHAR(100) NOT NULL,
+    annee_publication INT NOT NULL,
+    disponible BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_livres_titre ON livres (titre);
+CREATE INDEX idx_livres_auteur ON livres (auteur);
+CREATE INDEX idx_livres_disponible ON livres (disponible, isbn, titre, auteur, annee_publication);
+
+CREATE TABLE membres (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    nom VARCHAR(50) NOT NULL,
+    prenom VARCHAR(50) NOT NULL,
+    email VARCHAR(100) UNIQUE NOT NULL,
+    actif BOOLEAN DEFAULT TRUE,
+    date_inscription DATE DEFAULT CURRENT_DATE
+);
+CREATE INDEX idx_membres_nom ON membres (nom, prenom);
+CREATE INDEX idx_membres_prenom ON membres (prenom);
+CREATE INDEX idx_membres_actif ON membres (actif, nom, prenom, email, date_inscription);
+
+CREATE TABLE emprunts (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    date_emprunt DATE NOT NULL,
+    date_retour_prevue DATE NOT NULL,
+    date_retour_effective DATE NULL,
+    penalite DOUBLE DEFAULT 0,
+    en_retard BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (isbn) REFERENCES livres(isbn) ON DELETE CASCADE,
+    FOREIGN KEY (membre_id) REFERENCES membres(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_emprunts_membre_en_cours ON emprunts (membre_id, date_retour_effective);
+CREATE INDEX idx_emprunts_en_cours ON emprunts (date_retour_effective, date_retour_prevue);
+CREATE INDEX idx_emprunts_en_retard ON emprunts (en_retard, date_retour_effective);
@@ -1,4 +1,6 @@
 -- Script de création de la base de données Bibliothèque
+-- L'application tient le schéma à jour au démarrage (src/main/resources/db/migration) :
+-- toute évolution du schéma passe par une nouvelle migration, reportée ici.
 
 -- Créer la base de données
 CREATE DATABASE IF NOT EXISTS bibliotheque;
@@ -11,8 +13,15 @@ CREATE TABLE IF NOT EXISTS livres (
     auteur VARCHAR(100) NOT NULL,
     annee_publication INT NOT NULL,
     disponible BOOLEAN DEFAULT TRUE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-);
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Recherche plein texte (titre, auteur) ; la collation _ai_ci rend la recherche insensible aux accents
+    FULLTEXT INDEX ft_livres_titre_auteur (titre, auteur),
+    -- Recherche par préfixe des mots courts
+    INDEX idx_livres_titre (titre),
+    INDEX idx_livres_auteur (auteur),
+    -- findDisponibles : index couvrant
+    INDEX idx_livres_disponible (disponible, isbn, titre, auteur, annee_publication)
+) DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
 
 -- Créer la table des membres
 CREATE TABLE IF NOT EXISTS membres (
@@ -21,8 +30,13 @@ CREATE TABLE IF NOT EXISTS membres (
     prenom VARCHAR(50) NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
     actif BOOLEAN DEFAULT TRUE,
-    date_inscription DATE DEFAULT (CURDATE())
-);
+    date_inscription DATE DEFAULT (CURDATE()),
+    -- Recherche par préfixe sur le nom, le prénom (l'email a déjà son index UNIQUE)
+    INDEX idx_membres_nom (nom, prenom),
+    INDEX idx_membres_prenom (prenom),
+    -- findActifs : index couvrant, trié par nom
+    INDEX idx_membres_actif (actif, nom, prenom, email, date_inscription)
+) DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
 
 -- Créer la table des emprunts
 CREATE TABLE IF NOT EXISTS emprunts (
@@ -33,16 +47,25 @@ CREATE TABLE IF NOT EXISTS emprunts (
     date_retour_prevue DATE NOT NULL,
     date_retour_effective DATE NULL,
     penalite DOUBLE DEFAULT 0,
+    -- Rendu en retard, ou en cours et échu (mis à jour chaque nuit)
+    en_retard BOOLEAN NOT NULL DEFAULT FALSE,
     FOREIGN KEY (isbn) REFERENCES livres(isbn) ON DELETE CASCADE,
     FOREIGN KEY (membre_id) REFERENCES membres(id) ON DELETE CASCADE,
-    INDEX idx_emprunt_en_cours (date_retour_effective)
+    -- Emprunts en cours d'un membre (sert aussi la clé étrangère)
+    INDEX idx_emprunts_membre_en_cours (membre_id, date_retour_effective),
+    -- Emprunts en cours, emprunts en retard
+    INDEX idx_emprunts_en_cours (date_retour_effective, date_retour_prevue),
+    -- Emprunts rendus en retard
+    INDEX idx_emprunts_en_retard (en_retard, date_retour_effective),
+    -- Affichage paginé trié par date d'emprunt
+    INDEX idx_emprunts_date_emprunt (date_emprunt)
 );
 
 -- Insérer quelques données de test
 INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible) VALUES
 ('978-2070361563', 'Le Seigneur des Anneaux', 'J.R.R. Tolkien', 1954, TRUE),
 ('978-2070368945', 'Harry Potter à l\'école des sorciers', 'J.K. Rowling', 1998, TRUE),
-('978-2253121138', 'Les Misérables', 'Victor Hugo', 1862, FALSE);
+('978-2253121138', 'Les Misérables', 'Victor Hugo', 1862, TRUE);
 
 INSERT INTO membres (nom, prenom, email, actif, date_inscription) VALUES
 ('Dupont', 'Jean', 'jean.dupont@example.com', TRUE, '2024-01-15'),
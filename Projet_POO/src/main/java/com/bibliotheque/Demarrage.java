@@ -0,0 +1,116 @@
+package com.bibliotheque;
+
+import com.bibliotheque.batch.PenalitesBatch;
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.dao.impl.LivreDAOCache;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.dao.impl.MembreDAOCache;
+import com.bibliotheque.dao.impl.MembreDAOImpl;
+import com.bibliotheque.dao.impl.StatistiquesDAOImpl;
+import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.EmpruntService;
+import com.bibliotheque.service.StatistiquesService;
+import com.bibliotheque.util.DatabaseConnection;
+import com.bibliotheque.util.MigrationRunner;
+import com.bibliotheque.util.PhasesDemarrage;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalTime;
+
+/**
+ * Mise en route de la partie données de l'application, indépendante de JavaFX.
+ *
+ * La construction des DAO et des services ne touche pas la base. {@link #preparerBase()}
+ * (ouverture du pool, migrations) est la seule étape dont dépend l'affichage des données :
+ * l'interface la lance hors du thread JavaFX pendant le chargement de ses vues.
+ * {@link #lancerPrechauffage()} démarre ensuite en tâche de fond ce qui peut attendre.
+ * Chaque étape est chronométrée dans {@link #getPhases()}.
+ */
+public class Demarrage {
+
+    private static final String MIGRATIONS = System.getProperty("bibliotheque.migrations",
+            MigrationRunner.EMPLACEMENT_DEFAUT);
+
+    private final PhasesDemarrage phases;
+    private final EmpruntDAOImpl empruntDAO;
+    private final StatistiquesService statistiquesService;
+    private final BibliothequeService bibliothequeService;
+    private final EmpruntService empruntService;
+
+    public Demarrage() {
+        this(new PhasesDemarrage());
+    }
+
+    /**
+     * @param phases le chronométrage commun à l'interface et aux données
+     */
+    public Demarrage(PhasesDemarrage phases) {
+        this.phases = phases;
+        var livreDAO = new LivreDAOCache(new LivreDAOImpl());
+        var membreDAO = new MembreDAOCache(new MembreDAOImpl());
+        this.empruntDAO = new EmpruntDAOImpl();
+
+        this.statistiquesService = new StatistiquesService(new StatistiquesDAOImpl());
+        this.bibliothequeService = new BibliothequeService(livreDAO, membreDAO, statistiquesService);
+        this.empruntService = new EmpruntService(empruntDAO, livreDAO, membreDAO);
+        empruntService.setCompteurs(statistiquesService.getCompteurs());
+        // Un seul bus : les écrans voient aussi les livres rendus indisponibles par un emprunt
+        empruntService.setBusChangements(bibliothequeService.getBusChangements());
+        empruntService.setEcouteurLivres(bibliothequeService::actualiserLivreIndexe);
+    }
+
+    /**
+     * Ouvre le pool de connexions (avec ses connexions minimales) puis met à jour le schéma
+     * (tables, index, données d'exemple).
+     *
+     * @return le nombre de migrations appliquées
+     * @throws SQLException si la base est injoignable ou si une migration échoue
+     */
+    public int preparerBase() throws SQLException {
+        DatabaseConnection base = phases.mesurer("ouverture du pool", DatabaseConnection::getInstance);
+        return phases.mesurer("migrations", () -> {
+            try (Connection connexion = base.getConnection()) {
+                return new MigrationRunner(MIGRATIONS).migrer(connexion);
+            }
+        });
+    }
+
+    /**
+     * Lance en tâche de fond ce qui n'est pas nécessaire au premier affichage : index de
+     * recherche instantanée, réconciliation des statistiques et calcul nocturne des pénalités.
+     */
+    public void lancerPrechauffage() {
+        statistiquesService.demarrerReconciliation();
+        new PenalitesBatch(empruntDAO, Paths.get(System.getProperty("bibliotheque.penalites.reprise",
+                "penalites.reprise"))).planifierChaqueJour(
+                LocalTime.parse(System.getProperty("bibliotheque.penalites.heure", "02:00")));
+
+        Thread indexation = new Thread(() -> {
+            try {
+                phases.mesurer("index de recherche", () -> {
+                    bibliothequeService.construireIndexLivres();
+                    return null;
+                });
+                System.out.println("Index de recherche construit en " + phases.getDureeMs("index de recherche") + " ms");
+            } catch (Exception e) {
+                System.err.println("Index de recherche indisponible : " + e.getMessage());
+            }
+        }, "indexation-livres");
+        indexation.setDaemon(true);
+        indexation.start();
+    }
+
+    public PhasesDemarrage getPhases() {
+        return phases;
+    }
+
+    public BibliothequeService getBibliothequeService() {
+        return bibliothequeService;
+    }
+
+    public EmpruntService getEmpruntService() {
+        return empruntService;
+    }
+}
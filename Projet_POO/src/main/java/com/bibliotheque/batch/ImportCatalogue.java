@@ -0,0 +1,388 @@
+package com.bibliotheque.batch;
+
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.exception.ValidationException;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.StringValidator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Import en masse du catalogue depuis un fichier plat, exécutable sans interface graphique.
+ *
+ * Format attendu, une ligne par livre : {@code isbn;titre;auteur;annee[;disponible]}.
+ * Une première ligne commençant par "isbn" est traitée comme un en-tête.
+ *
+ * Déroulement :
+ * - un thread lecteur découpe le fichier en lots et les confie aux validateurs ;
+ * - les lots sont validés en parallèle avec {@link StringValidator} ;
+ * - le thread appelant reprend les lots dans l'ordre du fichier, écarte les ISBN déjà en base
+ *   (une requête IN par lot) ou en double dans le fichier, persiste le lot avec saveAll
+ *   (un commit par lot) puis enregistre le point de reprise.
+ *
+ * La file des lots en attente est bornée : la lecture se suspend tant que la persistance
+ * ne suit pas. Les lignes refusées sont écrites dans {@code <fichier>.rejets.csv} ; après
+ * une interruption, un nouvel appel reprend après le dernier lot validé.
+ */
+public class ImportCatalogue {
+
+    private static final int TAILLE_LOT_DEFAUT = 1000;
+    private static final int LOTS_PAR_VALIDATEUR = 2;
+    private static final int INTERVALLE_PROGRESSION_LOTS = 10;
+
+    private final LivreDAO livreDAO;
+    private final Pattern separateur;
+    private final int tailleLot;
+    private final int parallelisme;
+
+    private final LongAdder lignesTraitees = new LongAdder();
+    // Lignes de données sautées par la reprise, comptées par le lecteur
+    private final LongAdder lignesIgnorees = new LongAdder();
+    private volatile long debutNanos;
+
+    public ImportCatalogue(LivreDAO livreDAO) {
+        this(livreDAO, ';', TAILLE_LOT_DEFAUT, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param livreDAO     le DAO des livres
+     * @param separateur   le séparateur de champs
+     * @param tailleLot    le nombre de lignes par lot (validation et transaction)
+     * @param parallelisme le nombre de threads de validation
+     */
+    public ImportCatalogue(LivreDAO livreDAO, char separateur, int tailleLot, int parallelisme) {
+        if (tailleLot <= 0 || parallelisme <= 0) {
+            throw new IllegalArgumentException("Taille de lot et parallélisme doivent être positifs");
+        }
+        this.livreDAO = livreDAO;
+        this.separateur = Pattern.compile(Pattern.quote(String.valueOf(separateur)));
+        this.tailleLot = tailleLot;
+        this.parallelisme = parallelisme;
+    }
+
+    /**
+     * Importe un fichier, en reprenant après le dernier lot validé s'il a déjà été partiellement importé.
+     *
+     * @param fichier le fichier à importer
+     * @return le bilan de l'import
+     * @throws IOException  si le fichier ne peut pas être lu
+     * @throws SQLException si la base devient indisponible (le point de reprise est conservé)
+     */
+    public RapportImport importer(Path fichier) throws IOException, SQLException {
+        PointDeReprise reprise = new PointDeReprise(fichier.resolveSibling(fichier.getFileName() + ".reprise"));
+        Path fichierRejets = fichier.resolveSibling(fichier.getFileName() + ".rejets.csv");
+        String position = reprise.lire();
+        long derniereLigneValidee = position == null ? 0 : Long.parseLong(position);
+
+        ExecutorService validateurs = Executors.newFixedThreadPool(parallelisme, r -> {
+            Thread t = new Thread(r, "import-validation");
+            t.setDaemon(true);
+            return t;
+        });
+        BlockingQueue<Future<Lot>> file = new ArrayBlockingQueue<>(parallelisme * LOTS_PAR_VALIDATEUR);
+        Thread lecteur = new Thread(() -> lire(fichier, derniereLigneValidee, validateurs, file), "import-lecture");
+        lecteur.setDaemon(true);
+
+        lignesTraitees.reset();
+        lignesIgnorees.reset();
+        debutNanos = System.nanoTime();
+        long importees = 0;
+        long rejetees = 0;
+        Set<String> isbnsVus = new HashSet<>();
+
+        boolean nouveauFichierRejets = !Files.exists(fichierRejets);
+        try (BufferedWriter rejets = Files.newBufferedWriter(fichierRejets, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (nouveauFichierRejets) {
+                rejets.write("ligne;motif;contenu");
+                rejets.newLine();
+            }
+            lecteur.start();
+            int lotsTraites = 0;
+            while (true) {
+                Lot lot = attendre(file.take());
+                if (lot == Lot.FIN) {
+                    break;
+                }
+                for (Rejet rejet : lot.rejets) {
+                    ecrireRejet(rejets, rejet.numero, rejet.motif, rejet.contenu);
+                }
+                rejetees += lot.rejets.size();
+
+                List<LigneValide> nouvelles = dedoublonner(lot.valides, isbnsVus, rejets);
+                rejetees += lot.valides.size() - nouvelles.size();
+                if (!nouvelles.isEmpty()) {
+                    List<Livre> livres = new ArrayList<>(nouvelles.size());
+                    nouvelles.forEach(l -> livres.add(l.livre));
+                    ResultatLot resultat = livreDAO.saveAll(livres, livres.size());
+                    for (ResultatLot.Echec echec : resultat.getEchecs()) {
+                        LigneValide ligne = nouvelles.get(echec.getIndex());
+                        ecrireRejet(rejets, ligne.numero, echec.getMessage(), ligne.livre.getIsbn());
+                    }
+                    importees += resultat.getNombreSucces();
+                    rejetees += resultat.getEchecs().size();
+                }
+
+                rejets.flush();
+                reprise.enregistrer(String.valueOf(lot.derniereLigne));
+                lignesTraitees.add(lot.nombreLignes);
+                if (++lotsTraites % INTERVALLE_PROGRESSION_LOTS == 0) {
+                    System.out.printf("Import : %d lignes traitées (%.0f lignes/s)%n",
+                            getLignesTraitees(), getDebitLignesParSeconde());
+                }
+            }
+            reprise.supprimer();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrompu", e);
+        } finally {
+            lecteur.interrupt();
+            validateurs.shutdownNow();
+        }
+
+        long dureeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debutNanos);
+        return new RapportImport(lignesTraitees.sum(), importees, rejetees, lignesIgnorees.sum(),
+                dureeMillis, fichierRejets);
+    }
+
+    /**
+     * Nombre de lignes traitées par l'import en cours (ou le dernier import).
+     */
+    public long getLignesTraitees() {
+        return lignesTraitees.sum();
+    }
+
+    /**
+     * Débit de l'import en cours, en lignes par seconde.
+     */
+    public double getDebitLignesParSeconde() {
+        long nanos = System.nanoTime() - debutNanos;
+        return nanos <= 0 ? 0 : lignesTraitees.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * Lit le fichier et soumet les lots aux validateurs. Bloque quand la file est pleine.
+     */
+    private void lire(Path fichier, long derniereLigneValidee, ExecutorService validateurs,
+                      BlockingQueue<Future<Lot>> file) {
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+                List<LigneBrute> lignes = new ArrayList<>(tailleLot);
+                long numero = 0;
+                String ligne;
+                while ((ligne = reader.readLine()) != null) {
+                    numero++;
+                    if (ligne.isBlank() || (numero == 1 && ligne.trim().toLowerCase(Locale.ROOT).startsWith("isbn"))) {
+                        continue;
+                    }
+                    if (numero <= derniereLigneValidee) {
+                        lignesIgnorees.increment();
+                        continue;
+                    }
+                    lignes.add(new LigneBrute(numero, ligne));
+                    if (lignes.size() == tailleLot) {
+                        soumettre(lignes, validateurs, file);
+                        lignes = new ArrayList<>(tailleLot);
+                    }
+                }
+                if (!lignes.isEmpty()) {
+                    soumettre(lignes, validateurs, file);
+                }
+            }
+            file.put(CompletableFuture.completedFuture(Lot.FIN));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            try {
+                file.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void soumettre(List<LigneBrute> lignes, ExecutorService validateurs,
+                           BlockingQueue<Future<Lot>> file) throws InterruptedException {
+        file.put(validateurs.submit(() -> valider(lignes)));
+    }
+
+    private Lot valider(List<LigneBrute> lignes) {
+        List<LigneValide> valides = new ArrayList<>(lignes.size());
+        List<Rejet> rejets = new ArrayList<>();
+        for (LigneBrute ligne : lignes) {
+            try {
+                valides.add(new LigneValide(ligne.numero, analyser(ligne.contenu)));
+            } catch (ValidationException e) {
+                rejets.add(new Rejet(ligne.numero, e.getMessage(), ligne.contenu));
+            }
+        }
+        return new Lot(valides, rejets, lignes.get(lignes.size() - 1).numero, lignes.size());
+    }
+
+    /**
+     * Convertit une ligne en livre en appliquant les règles de validation du service.
+     */
+    private Livre analyser(String contenu) throws ValidationException {
+        String[] champs = separateur.split(contenu, -1);
+        if (champs.length < 4 || champs.length > 5) {
+            throw new ValidationException("Nombre de champs invalide : " + champs.length + " (attendu : 4 ou 5)");
+        }
+        String isbn = champs[0].trim();
+        String titre = champs[1].trim();
+        String auteur = champs[2].trim();
+        int annee;
+        try {
+            annee = Integer.parseInt(champs[3].trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Année de publication invalide : " + champs[3].trim());
+        }
+        StringValidator.validateISBN(isbn);
+        StringValidator.validateTitre(titre);
+        StringValidator.validateNotEmpty(auteur, "L'auteur");
+        StringValidator.validateAnneePublication(annee);
+
+        boolean disponible = true;
+        if (champs.length == 5 && !champs[4].isBlank()) {
+            String valeur = champs[4].trim().toLowerCase(Locale.ROOT);
+            disponible = valeur.equals("true") || valeur.equals("1") || valeur.equals("oui");
+        }
+        return new Livre(isbn, titre, auteur, annee, disponible);
+    }
+
+    /**
+     * Écarte les ISBN déjà vus dans le fichier ou déjà présents en base (une requête par lot).
+     */
+    private List<LigneValide> dedoublonner(List<LigneValide> valides, Set<String> isbnsVus,
+                                           BufferedWriter rejets) throws SQLException, IOException {
+        List<String> isbns = new ArrayList<>(valides.size());
+        valides.forEach(l -> isbns.add(l.livre.getIsbn()));
+        Set<String> existants = livreDAO.findIsbnsExistants(isbns);
+
+        List<LigneValide> nouvelles = new ArrayList<>(valides.size());
+        for (LigneValide ligne : valides) {
+            String isbn = ligne.livre.getIsbn();
+            if (!isbnsVus.add(isbn)) {
+                ecrireRejet(rejets, ligne.numero, "ISBN en double dans le fichier", isbn);
+            } else if (existants.contains(isbn)) {
+                ecrireRejet(rejets, ligne.numero, "Un livre avec cet ISBN existe déjà", isbn);
+            } else {
+                nouvelles.add(ligne);
+            }
+        }
+        return nouvelles;
+    }
+
+    private void ecrireRejet(BufferedWriter rejets, long numero, String motif, String contenu) throws IOException {
+        rejets.write(numero + ";" + motif.replace(';', ',') + ";" + contenu);
+        rejets.newLine();
+    }
+
+    private Lot attendre(Future<Lot> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Erreur lors de la préparation d'un lot : " + cause.getMessage(), cause);
+        }
+    }
+
+    private static final class LigneBrute {
+        final long numero;
+        final String contenu;
+
+        LigneBrute(long numero, String contenu) {
+            this.numero = numero;
+            this.contenu = contenu;
+        }
+    }
+
+    private static final class LigneValide {
+        final long numero;
+        final Livre livre;
+
+        LigneValide(long numero, Livre livre) {
+            this.numero = numero;
+            this.livre = livre;
+        }
+    }
+
+    private static final class Rejet {
+        final long numero;
+        final String motif;
+        final String contenu;
+
+        Rejet(long numero, String motif, String contenu) {
+            this.numero = numero;
+            this.motif = motif;
+            this.contenu = contenu;
+        }
+    }
+
+    private static final class Lot {
+        static final Lot FIN = new Lot(List.of(), List.of(), -1, 0);
+
+        final List<LigneValide> valides;
+        final List<Rejet> rejets;
+        final long derniereLigne;
+        final int nombreLignes;
+
+        Lot(List<LigneValide> valides, List<Rejet> rejets, long derniereLigne, int nombreLignes) {
+            this.valides = valides;
+            this.rejets = rejets;
+            this.derniereLigne = derniereLigne;
+            this.nombreLignes = nombreLignes;
+        }
+    }
+
+    /**
+     * Point d'entrée en ligne de commande :
+     * {@code ImportCatalogue <fichier> [séparateur] [taille de lot] [threads]}.
+     *
+     * @param args les arguments de la ligne de commande
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage : ImportCatalogue <fichier> [séparateur] [taille de lot] [threads]");
+            System.exit(2);
+        }
+        try {
+            char separateur = args.length > 1 ? args[1].charAt(0) : ';';
+            int tailleLot = args.length > 2 ? Integer.parseInt(args[2]) : TAILLE_LOT_DEFAUT;
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            ImportCatalogue importCatalogue = new ImportCatalogue(new LivreDAOImpl(), separateur, tailleLot, threads);
+            RapportImport rapport = importCatalogue.importer(Paths.get(args[0]));
+            System.out.println(rapport);
+        } catch (IOException | SQLException e) {
+            System.err.println("Import interrompu : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.bibliotheque.batch;
+
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.model.Livre;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul nocturne des pénalités courues par les emprunts en cours et en retard. Le même passage
+ * marque ces emprunts en retard (colonne {@code en_retard}), que le retour met ensuite à jour.
+ *
+ * La table des emprunts est parcourue par plages consécutives d'identifiants ; chaque plage
+ * est traitée par une seule instruction UPDATE ensembliste (voir
+ * {@link EmpruntDAO#appliquerPenalitesRetard}) validée seule, puis la position est enregistrée
+ * dans un {@link PointDeReprise} sous la forme {@code date;dernierId}. Après une interruption,
+ * un nouvel appel le même jour reprend après la dernière plage validée ; un autre jour, le
+ * calcul repart du début avec la nouvelle date.
+ *
+ * La pénalité est recalculée à partir des dates (jours de retard × tarif journalier) et non
+ * incrémentée : le calcul est idempotent et peut être rejoué sans risque. Les emprunts portent
+ * tous sur des livres (seule table de documents), d'où le tarif {@link Livre#PENALITE_PAR_JOUR}.
+ */
+public class PenalitesBatch {
+
+    private static final int TAILLE_PLAGE_DEFAUT = 5000;
+    private static final int INTERVALLE_PROGRESSION_PLAGES = 20;
+
+    private final EmpruntDAO empruntDAO;
+    private final PointDeReprise reprise;
+    private final int taillePlage;
+
+    private ScheduledExecutorService planificateur;
+
+    public PenalitesBatch(EmpruntDAO empruntDAO, Path fichierReprise) {
+        this(empruntDAO, fichierReprise, TAILLE_PLAGE_DEFAUT);
+    }
+
+    /**
+     * @param empruntDAO     le DAO des emprunts
+     * @param fichierReprise le fichier du point de reprise
+     * @param taillePlage    le nombre d'identifiants traités par instruction (et par transaction)
+     */
+    public PenalitesBatch(EmpruntDAO empruntDAO, Path fichierReprise, int taillePlage) {
+        if (taillePlage <= 0) {
+            throw new IllegalArgumentException("La taille de plage doit être positive");
+        }
+        this.empruntDAO = empruntDAO;
+        this.reprise = new PointDeReprise(fichierReprise);
+        this.taillePlage = taillePlage;
+    }
+
+    /**
+     * Calcule les pénalités à la date du jour.
+     *
+     * @return le bilan du calcul
+     * @throws IOException  si le point de reprise ne peut pas être lu ou écrit
+     * @throws SQLException si la base devient indisponible (le point de reprise est conservé)
+     */
+    public RapportPenalites executer() throws IOException, SQLException {
+        return executer(LocalDate.now());
+    }
+
+    /**
+     * Calcule les pénalités courues à la date donnée.
+     *
+     * @param dateReference la date à laquelle les jours de retard sont comptés
+     * @return le bilan du calcul
+     * @throws IOException  si le point de reprise ne peut pas être lu ou écrit
+     * @throws SQLException si la base devient indisponible (le point de reprise est conservé)
+     */
+    public synchronized RapportPenalites executer(LocalDate dateReference) throws IOException, SQLException {
+        long debut = System.nanoTime();
+        int dernierId = lirePosition(dateReference);
+        boolean estReprise = dernierId > 0;
+        int idMax = empruntDAO.findIdMax();
+
+        long parcourus = 0;
+        long modifies = 0;
+        int plages = 0;
+        while (dernierId < idMax) {
+            int fin = (int) Math.min((long) dernierId + taillePlage, idMax);
+            modifies += empruntDAO.appliquerPenalitesRetard(dernierId, fin, dateReference, Livre.PENALITE_PAR_JOUR);
+            parcourus += fin - dernierId;
+            dernierId = fin;
+            reprise.enregistrer(dateReference + ";" + dernierId);
+            if (++plages % INTERVALLE_PROGRESSION_PLAGES == 0) {
+                System.out.printf("Pénalités : %d emprunts parcourus, %d modifiés%n", parcourus, modifies);
+            }
+        }
+        reprise.supprimer();
+
+        long dureeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debut);
+        return new RapportPenalites(dateReference, parcourus, modifies, estReprise, dureeMillis);
+    }
+
+    /**
+     * Dernier identifiant validé pour cette date, ou 0 (pas de reprise, ou reprise d'un autre jour).
+     */
+    private int lirePosition(LocalDate dateReference) throws IOException {
+        String position = reprise.lire();
+        if (position == null) {
+            return 0;
+        }
+        String[] champs = position.split(";");
+        if (champs.length != 2 || !champs[0].equals(dateReference.toString())) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(champs[1]);
+        } catch (NumberFormatException e) {
+            System.err.println("Point de reprise illisible, calcul repris du début : " + position);
+            return 0;
+        }
+    }
+
+    /**
+     * Planifie un calcul chaque jour à l'heure donnée, sur un thread démon.
+     *
+     * @param heure l'heure d'exécution quotidienne
+     */
+    public synchronized void planifierChaqueJour(LocalTime heure) {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "penalites-nocturnes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LocalDateTime maintenant = LocalDateTime.now();
+        LocalDateTime prochaine = maintenant.toLocalDate().atTime(heure);
+        if (!prochaine.isAfter(maintenant)) {
+            prochaine = prochaine.plusDays(1);
+        }
+        planificateur.scheduleAtFixedRate(() -> {
+            try {
+                System.out.println(executer());
+            } catch (IOException | SQLException e) {
+                System.err.println("Calcul des pénalités interrompu : " + e.getMessage());
+            }
+        }, Duration.between(maintenant, prochaine).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void arreterPlanification() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+
+    /**
+     * Point d'entrée en ligne de commande (tâche planifiée du système) :
+     * {@code PenalitesBatch [fichier de reprise] [taille de plage]}.
+     *
+     * @param args les arguments de la ligne de commande
+     */
+    public static void main(String[] args) {
+        try {
+            Path fichier = Paths.get(args.length > 0 ? args[0] : "penalites.reprise");
+            int taillePlage = args.length > 1 ? Integer.parseInt(args[1]) : TAILLE_PLAGE_DEFAUT;
+            PenalitesBatch batch = new PenalitesBatch(new EmpruntDAOImpl(), fichier, taillePlage);
+            System.out.println(batch.executer());
+        } catch (IOException | SQLException e) {
+            System.err.println("Calcul des pénalités interrompu : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bibliotheque.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Point de reprise persistant d'un traitement par lots.
+ *
+ * La position (numéro de ligne, dernière clé traitée...) est écrite dans un fichier
+ * via un fichier temporaire puis un renommage atomique : après un arrêt brutal, le
+ * fichier contient toujours la dernière position validée.
+ */
+public class PointDeReprise {
+    private final Path fichier;
+
+    public PointDeReprise(Path fichier) {
+        this.fichier = fichier;
+    }
+
+    /**
+     * Lit la dernière position enregistrée.
+     *
+     * @return la position, ou null si aucun point de reprise n'existe
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    public String lire() throws IOException {
+        if (!Files.exists(fichier)) {
+            return null;
+        }
+        String contenu = Files.readString(fichier, StandardCharsets.UTF_8).trim();
+        return contenu.isEmpty() ? null : contenu;
+    }
+
+    /**
+     * Enregistre une nouvelle position de façon atomique.
+     *
+     * @param position la position à enregistrer
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public void enregistrer(String position) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        Files.writeString(temporaire, position, StandardCharsets.UTF_8);
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Supprime le point de reprise une fois le traitement terminé.
+     *
+     * @throws IOException si le fichier ne peut pas être supprimé
+     */
+    public void supprimer() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    public Path getFichier() {
+        return fichier;
+    }
+}
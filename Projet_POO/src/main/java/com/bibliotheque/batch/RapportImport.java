@@ -0,0 +1,77 @@
+package com.bibliotheque.batch;
+
+import java.nio.file.Path;
+
+/**
+ * Bilan d'un import de catalogue.
+ */
+public class RapportImport {
+    private final long lignesLues;
+    private final long lignesImportees;
+    private final long lignesRejetees;
+    private final long lignesIgnorees;
+    private final long dureeMillis;
+    private final Path fichierRejets;
+
+    public RapportImport(long lignesLues, long lignesImportees, long lignesRejetees,
+                         long lignesIgnorees, long dureeMillis, Path fichierRejets) {
+        this.lignesLues = lignesLues;
+        this.lignesImportees = lignesImportees;
+        this.lignesRejetees = lignesRejetees;
+        this.lignesIgnorees = lignesIgnorees;
+        this.dureeMillis = dureeMillis;
+        this.fichierRejets = fichierRejets;
+    }
+
+    public long getLignesLues() {
+        return lignesLues;
+    }
+
+    public long getLignesImportees() {
+        return lignesImportees;
+    }
+
+    /**
+     * Lignes invalides, en double ou refusées par la base (détail dans le fichier de rejets).
+     */
+    public long getLignesRejetees() {
+        return lignesRejetees;
+    }
+
+    /**
+     * Lignes déjà traitées lors d'une exécution précédente (reprise).
+     */
+    public long getLignesIgnorees() {
+        return lignesIgnorees;
+    }
+
+    public long getDureeMillis() {
+        return dureeMillis;
+    }
+
+    public Path getFichierRejets() {
+        return fichierRejets;
+    }
+
+    /**
+     * Retourne le débit moyen de l'import.
+     *
+     * @return le nombre de lignes traitées par seconde
+     */
+    public double getDebitLignesParSeconde() {
+        return dureeMillis == 0 ? lignesLues : lignesLues * 1000.0 / dureeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RapportImport{" +
+                "lues=" + lignesLues +
+                ", importees=" + lignesImportees +
+                ", rejetees=" + lignesRejetees +
+                ", ignorees=" + lignesIgnorees +
+                ", dureeMs=" + dureeMillis +
+                ", debit=" + String.format("%.0f", getDebitLignesParSeconde()) + " lignes/s" +
+                ", rejets='" + fichierRejets + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.bibliotheque.batch;
+
+import java.time.LocalDate;
+
+/**
+ * Bilan d'un calcul des pénalités de retard.
+ */
+public class RapportPenalites {
+    private final LocalDate dateReference;
+    private final long empruntsParcourus;
+    private final long empruntsModifies;
+    private final boolean reprise;
+    private final long dureeMillis;
+
+    public RapportPenalites(LocalDate dateReference, long empruntsParcourus, long empruntsModifies,
+                            boolean reprise, long dureeMillis) {
+        this.dateReference = dateReference;
+        this.empruntsParcourus = empruntsParcourus;
+        this.empruntsModifies = empruntsModifies;
+        this.reprise = reprise;
+        this.dureeMillis = dureeMillis;
+    }
+
+    public LocalDate getDateReference() {
+        return dateReference;
+    }
+
+    /**
+     * Largeur de la plage d'identifiants parcourue (emprunts examinés, au plus).
+     */
+    public long getEmpruntsParcourus() {
+        return empruntsParcourus;
+    }
+
+    /**
+     * Emprunts dont la pénalité a changé.
+     */
+    public long getEmpruntsModifies() {
+        return empruntsModifies;
+    }
+
+    /**
+     * Indique si le calcul a repris après une exécution interrompue.
+     */
+    public boolean isReprise() {
+        return reprise;
+    }
+
+    public long getDureeMillis() {
+        return dureeMillis;
+    }
+
+    /**
+     * Retourne le débit moyen du calcul.
+     *
+     * @return le nombre d'emprunts parcourus par seconde
+     */
+    public double getDebitLignesParSeconde() {
+        return dureeMillis == 0 ? empruntsParcourus : empruntsParcourus * 1000.0 / dureeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RapportPenalites{" +
+                "date=" + dateReference +
+                ", parcourus=" + empruntsParcourus +
+                ", modifies=" + empruntsModifies +
+                ", reprise=" + reprise +
+                ", dureeMs=" + dureeMillis +
+                ", debit=" + String.format("%.0f", getDebitLignesParSeconde()) + " lignes/s" +
+                '}';
+    }
+}
@@ -0,0 +1,178 @@
+package com.bibliotheque.controller;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Exécute les accès aux données des contrôleurs hors du thread JavaFX.
+ *
+ * Les tâches tournent sur un nombre borné de threads (propriété
+ * {@code bibliotheque.chargement.threads}, 4 par défaut, à garder sous la taille du pool de
+ * connexions) ; le résultat ou l'erreur est transmis au thread JavaFX.
+ *
+ * Chaque chargement porte une clé (par exemple "livres.liste") : un nouveau chargement
+ * remplace celui de même clé encore en attente ou en cours, dont le résultat est ignoré.
+ * {@link #chargerApres} attend en plus un court délai avant de lancer la requête, ce qui
+ * regroupe les demandes rapprochées (saisie, changements d'onglet) en une seule.
+ * Les modifications ({@link #executer}) ne sont jamais annulées.
+ *
+ * Les méthodes publiques sont appelées depuis le thread JavaFX.
+ */
+public class ChargeurDonnees {
+
+    // Une tâche d'accès aux données, exécutée hors du thread JavaFX.
+
+    @FunctionalInterface
+    public interface Tache<T> {
+        T executer() throws Exception;
+    }
+
+    private static final int THREADS = Integer.getInteger("bibliotheque.chargement.threads", 4);
+
+    private final ScheduledThreadPoolExecutor executeur;
+    private final Map<String, Requete<?>> enCours = new ConcurrentHashMap<>();
+
+    public ChargeurDonnees() {
+        this(THREADS);
+    }
+
+    /**
+     * @param threads nombre maximal de tâches exécutées simultanément
+     */
+    public ChargeurDonnees(int threads) {
+        AtomicInteger numero = new AtomicInteger();
+        ThreadFactory fabrique = r -> {
+            Thread thread = new Thread(r, "chargement-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executeur = new ScheduledThreadPoolExecutor(Math.max(1, threads), fabrique);
+        // Les requêtes remplacées quittent la file au lieu d'y attendre leur tour
+        this.executeur.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Lance un chargement, en remplaçant le chargement de même clé.
+     *
+     * @param cle    identifie le contenu chargé (une table, un combo)
+     * @param tache  l'accès aux données
+     * @param succes reçoit le résultat sur le thread JavaFX, si la requête n'a pas été remplacée
+     * @param echec  reçoit l'erreur sur le thread JavaFX
+     */
+    public <T> void charger(String cle, Tache<T> tache, Consumer<? super T> succes, Consumer<Exception> echec) {
+        chargerApres(cle, 0, tache, succes, echec);
+    }
+
+    /**
+     * Comme {@link #charger}, après un délai pendant lequel une nouvelle demande de même clé
+     * remplace celle-ci sans qu'aucune requête ne soit exécutée.
+     *
+     * @param delaiMs délai d'attente en millisecondes
+     */
+    public <T> void chargerApres(String cle, long delaiMs, Tache<T> tache, Consumer<? super T> succes,
+                                 Consumer<Exception> echec) {
+        Requete<T> requete = new Requete<>(cle, tache, succes, echec);
+        Requete<?> precedente = enCours.put(cle, requete);
+        if (precedente != null) {
+            precedente.annuler();
+        }
+        requete.future = executeur.schedule(requete, delaiMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exécute une modification ; elle n'est jamais annulée ni remplacée.
+     *
+     * @param tache  la modification
+     * @param succes reçoit le résultat sur le thread JavaFX
+     * @param echec  reçoit l'erreur sur le thread JavaFX
+     */
+    public <T> void executer(Tache<T> tache, Consumer<? super T> succes, Consumer<Exception> echec) {
+        Requete<T> requete = new Requete<>(null, tache, succes, echec);
+        requete.future = executeur.submit(requete);
+    }
+
+    /**
+     * Annule le chargement de clé donnée, s'il est en attente ou en cours.
+     */
+    public void annuler(String cle) {
+        Requete<?> requete = enCours.remove(cle);
+        if (requete != null) {
+            requete.annuler();
+        }
+    }
+
+    /**
+     * Arrête les threads ; les tâches en attente sont abandonnées.
+     */
+    public void arreter() {
+        enCours.values().forEach(Requete::annuler);
+        enCours.clear();
+        executeur.shutdownNow();
+    }
+
+    private final class Requete<T> implements Runnable {
+        private final String cle;
+        private final Tache<T> tache;
+        private final Consumer<? super T> succes;
+        private final Consumer<Exception> echec;
+        private volatile boolean annulee;
+        private volatile Future<?> future;
+
+        Requete(String cle, Tache<T> tache, Consumer<? super T> succes, Consumer<Exception> echec) {
+            this.cle = cle;
+            this.tache = tache;
+            this.succes = succes;
+            this.echec = echec;
+        }
+
+        /**
+         * Le thread n'est pas interrompu : une requête JDBC interrompue peut rendre sa connexion
+         * inutilisable. Une requête déjà partie va à son terme et son résultat est ignoré.
+         */
+        void annuler() {
+            annulee = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (annulee) {
+                return;
+            }
+            try {
+                T resultat = tache.executer();
+                Platform.runLater(() -> {
+                    if (estActuelle()) {
+                        succes.accept(resultat);
+                    }
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (estActuelle()) {
+                        echec.accept(e);
+                    }
+                });
+            }
+        }
+
+        // Sur le thread JavaFX : vrai si la requête n'a pas été remplacée entre-temps.
+
+        private boolean estActuelle() {
+            if (cle == null) {
+                return true;
+            }
+            return !annulee && enCours.remove(cle, this);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.bibliotheque.controller;
+
+import com.bibliotheque.service.Changement;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Abonné du BusChangements qui corrige une table sur place au lieu de la recharger.
+ *
+ * Pour chaque changement d'une ligne, seule cette ligne est relue (et seulement si elle est
+ * affichée ou vient d'être créée), puis remplacée, ajoutée ou retirée dans la
+ * {@link ListePaginee} et, si la table affiche des résultats de recherche, dans cette liste.
+ * Un changement global recompte la liste paginée. Les résultats de recherche ne reçoivent
+ * pas les lignes créées : ils restent ceux de la recherche lancée.
+ *
+ * @param <T> le type des lignes
+ */
+public class CorrecteurTable<T> implements Consumer<Changement> {
+
+    // Relecture d'une ligne par sa clé (hors du thread JavaFX) ; null si elle n'existe plus.
+
+    @FunctionalInterface
+    public interface Lecteur<T> {
+        T lire(String cle) throws Exception;
+    }
+
+    private final Changement.Entite entite;
+    private final TableView<T> table;
+    private final ListePaginee<T> liste;
+    private final Function<T, String> cle;
+    private final Lecteur<T> lecteur;
+    private final ChargeurDonnees chargeur;
+    private final String nom;
+
+    /**
+     * @param nom      préfixe des clés de chargement (unique par table)
+     * @param entite   l'entité affichée par la table
+     * @param table    la table
+     * @param liste    la liste paginée de toutes les lignes (qui connaît la clé d'une ligne)
+     * @param lecteur  relit une ligne
+     * @param chargeur exécute les relectures hors du thread JavaFX
+     */
+    public CorrecteurTable(String nom, Changement.Entite entite, TableView<T> table, ListePaginee<T> liste,
+                           Lecteur<T> lecteur, ChargeurDonnees chargeur) {
+        this.nom = nom;
+        this.entite = entite;
+        this.table = table;
+        this.liste = liste;
+        this.cle = liste.getCle();
+        this.lecteur = lecteur;
+        this.chargeur = chargeur;
+    }
+
+    /**
+     * Reçoit un changement sur le thread qui l'a publié et le traite sur le thread JavaFX.
+     */
+    @Override
+    public void accept(Changement changement) {
+        if (changement.getEntite() == entite) {
+            Platform.runLater(() -> appliquer(changement));
+        }
+    }
+
+    private void appliquer(Changement changement) {
+        if (changement.estGlobal()) {
+            liste.rafraichir();
+            return;
+        }
+        String valeurCle = changement.getCle();
+        switch (changement.getType()) {
+            case SUPPRIME:
+                liste.retirer(valeurCle);
+                List<T> resultats = resultatsAffiches();
+                if (resultats != null) {
+                    resultats.removeIf(ligne -> ligne != null && valeurCle.equals(cle.apply(ligne)));
+                }
+                break;
+            case CREE:
+                if (liste.ajoutEnFin()) {
+                    relire(valeurCle, true);
+                } else {
+                    liste.rafraichir();
+                }
+                break;
+            default:
+                List<T> affiches = resultatsAffiches();
+                if (liste.estEnMemoire(valeurCle) || (affiches != null && position(affiches, valeurCle) >= 0)) {
+                    relire(valeurCle, false);
+                }
+                break;
+        }
+    }
+
+    private void relire(String valeurCle, boolean creation) {
+        // Clés distinctes : une modification rapprochée ne remplace pas la lecture d'une création
+        String chargement = nom + (creation ? ".creation." : ".ligne.") + valeurCle;
+        chargeur.charger(chargement, () -> lecteur.lire(valeurCle), ligne -> {
+            if (ligne == null) {
+                // Supprimée entre-temps : son propre changement la retire
+                return;
+            }
+            if (creation) {
+                liste.ajouter(ligne);
+            } else {
+                liste.remplacer(ligne);
+            }
+            List<T> resultats = resultatsAffiches();
+            if (resultats != null) {
+                int index = position(resultats, valeurCle);
+                if (index >= 0) {
+                    resultats.set(index, ligne);
+                }
+            }
+        }, e -> System.err.println("Relecture impossible (" + chargement + ") : " + e.getMessage()));
+    }
+
+    /**
+     * @return les résultats de recherche affichés à la place de la liste paginée, ou null
+     */
+    private List<T> resultatsAffiches() {
+        ObservableList<T> affiches = table.getItems();
+        return affiches == liste ? null : affiches;
+    }
+
+    private int position(List<T> lignes, String valeurCle) {
+        for (int i = 0; i < lignes.size(); i++) {
+            T ligne = lignes.get(i);
+            if (ligne != null && valeurCle.equals(cle.apply(ligne))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
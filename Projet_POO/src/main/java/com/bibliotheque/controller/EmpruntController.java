@@ -1,19 +1,23 @@
 package com.bibliotheque.controller;
 
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
 import com.bibliotheque.exception.LivreIndisponibleException;
 import com.bibliotheque.exception.MembreInactifException;
 import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
 import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.Changement;
 import com.bibliotheque.service.EmpruntService;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 
 public class EmpruntController {
@@ -36,9 +40,9 @@ public class EmpruntController {
     private TableColumn<Emprunt, Double> colPenalite;
 
     @FXML
-    private ComboBox<String> comboLivres;
+    private ComboBox<Livre> comboLivres;
     @FXML
-    private ComboBox<String> comboMembres;
+    private ComboBox<Membre> comboMembres;
     @FXML
     private javafx.scene.control.DatePicker dpDateRetourPrevue;
     @FXML
@@ -54,6 +58,23 @@ public class EmpruntController {
 
     private BibliothequeService bibliothequeService;
     private EmpruntService empruntService;
+    private ChargeurDonnees chargeur;
+    // Tous les emprunts, lus page par page au fil du défilement
+    private ListePaginee<Emprunt> emprunts;
+    // Livre et membre choisis par recherche au fil de la saisie
+    private SelecteurRecherche<Livre> selecteurLivres;
+    private SelecteurRecherche<Membre> selecteurMembres;
+
+    // Clés des chargements : afficher les emprunts en retard remplace l'affichage de tous, etc.
+    private static final String CHARGEMENT_EMPRUNTS = "emprunts.liste";
+    private static final String CHARGEMENT_LIVRES = "emprunts.livres";
+    private static final String CHARGEMENT_MEMBRES = "emprunts.membres";
+
+    // Délai de regroupement des rafraîchissements rapprochés (changements d'onglet).
+    private static final int DELAI_REGROUPEMENT_MS = 150;
+
+    // Nombre maximal de livres ou de membres proposés pendant la saisie.
+    private static final int LIMITE_PROPOSITIONS = 20;
 
     @FXML
     public void initialize() {
@@ -76,6 +97,24 @@ public class EmpruntController {
         colDateRetourPrevue.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("dateRetourPrevue"));
         colDateRetourEffective.setCellValueFactory(new javafx.scene.control.cell.PropertyValueFactory<>("dateRetourEffective"));
         colPenalite.setCellValueFactory(cell -> new javafx.beans.property.ReadOnlyObjectWrapper<>(cell.getValue() != null ? cell.getValue().getPenalite() : 0.0));
+
+        // Tri par la base quand la table affiche tous les emprunts (date de retour effective, nullable : non triable)
+        ListePaginee.installerTri(tableViewEmprunts, Map.of(
+                colId, "id",
+                colLivre, "livre",
+                colMembre, "membre",
+                colDateEmprunt, "date_emprunt",
+                colDateRetourPrevue, "date_retour_prevue",
+                colPenalite, "penalite"));
+    }
+
+    /**
+     * Définit le chargeur de données (à appeler avant setServices).
+     *
+     * @param chargeur le chargeur partagé par les contrôleurs
+     */
+    public void setChargeur(ChargeurDonnees chargeur) {
+        this.chargeur = chargeur;
     }
 
     /**
@@ -87,6 +126,28 @@ public class EmpruntController {
     public void setServices(BibliothequeService bibliothequeService, EmpruntService empruntService) {
         this.bibliothequeService = bibliothequeService;
         this.empruntService = empruntService;
+        this.emprunts = new ListePaginee<>("emprunts.paginee", new ListePaginee.Source<>() {
+            @Override
+            public int compter() throws SQLException {
+                return empruntService.compterEmprunts();
+            }
+
+            @Override
+            public List<Emprunt> lire(Tri tri, Emprunt apres, int debut, int taille) throws SQLException {
+                return empruntService.getEmpruntsFenetre(tri, apres, debut, taille);
+            }
+        }, emprunt -> String.valueOf(emprunt.getId()), true, chargeur);
+        // Un emprunt ou un retour ne relit que sa ligne
+        bibliothequeService.getBusChangements().abonner(new CorrecteurTable<>("emprunts.correction",
+                Changement.Entite.EMPRUNT, tableViewEmprunts, emprunts,
+                cle -> empruntService.getEmprunt(Integer.parseInt(cle)), chargeur));
+        // Index en mémoire des livres, ou la base (avec limite) tant qu'il est en construction
+        selecteurLivres = new SelecteurRecherche<>(CHARGEMENT_LIVRES, comboLivres,
+                livre -> livre.getIsbn() + " - " + livre.getTitre(),
+                bibliothequeService::rechercherLivresInstantane, LIMITE_PROPOSITIONS, chargeur);
+        selecteurMembres = new SelecteurRecherche<>(CHARGEMENT_MEMBRES, comboMembres,
+                membre -> membre.getId() + " - " + membre.getNomComplet(),
+                bibliothequeService::rechercherMembres, LIMITE_PROPOSITIONS, chargeur);
         chargerDonnees();
     }
 
@@ -94,49 +155,48 @@ public class EmpruntController {
      * Refresh data from service (public entrypoint for external triggers).
      */
     public void refreshData() {
-        chargerDonnees();
+        chargerDonnees(DELAI_REGROUPEMENT_MS);
     }
 
     /**
-     * Charge tous les emprunts et les données des combos.
+     * Charge tous les emprunts (les combos se remplissent à la saisie).
      */
     private void chargerDonnees() {
-        try {
-            chargerLivres();
-            chargerMembres();
-            chargerEmprunts();
-        } catch (SQLException e) {
-            afficherErreur("Erreur de chargement", e.getMessage());
-        }
+        chargerDonnees(0);
     }
 
     /**
-     * Charge les livres dans le combo.
+     * Lance en tâche de fond le chargement des emprunts, après un délai de regroupement.
+     *
+     * @param delaiMs délai en millisecondes
      */
-    private void chargerLivres() throws SQLException {
-        var livres = bibliothequeService.getTousLesLivres();
-        ObservableList<String> items = FXCollections.observableArrayList();
-        livres.forEach(l -> items.add(l.getIsbn() + " - " + l.getTitre()));
-        comboLivres.setItems(items);
+    private void chargerDonnees(long delaiMs) {
+        afficherTousLesEmprunts(delaiMs);
     }
 
     /**
-     * Charge les membres dans le combo.
+     * Affiche tous les emprunts, lus page par page en tâche de fond.
+     *
+     * @param delaiMs délai de regroupement en millisecondes
      */
-    private void chargerMembres() throws SQLException {
-        var membres = bibliothequeService.getTousLesMembres();
-        ObservableList<String> items = FXCollections.observableArrayList();
-        membres.forEach(m -> items.add(m.getId() + " - " + m.getNomComplet()));
-        comboMembres.setItems(items);
+    private void afficherTousLesEmprunts(long delaiMs) {
+        chargeur.annuler(CHARGEMENT_EMPRUNTS);
+        if (tableViewEmprunts.getItems() != emprunts) {
+            tableViewEmprunts.setItems(emprunts);
+        }
+        emprunts.rafraichirApres(delaiMs);
     }
 
     /**
-     * Charge tous les emprunts dans le tableau.
+     * Affiche dans le tableau les emprunts fournis par la requête, en remplaçant l'affichage en cours de chargement.
+     *
+     * @param requete la requête (en cours, en retard)
      */
-    private void chargerEmprunts() throws SQLException {
-        var emprunts = empruntService.getTousLesEmprunts();
-        ObservableList<Emprunt> data = FXCollections.observableArrayList(emprunts);
-        tableViewEmprunts.setItems(data);
+    private void afficherEmprunts(ChargeurDonnees.Tache<List<Emprunt>> requete) {
+        chargeur.charger(CHARGEMENT_EMPRUNTS,
+                () -> FXCollections.observableArrayList(requete.executer()),
+                tableViewEmprunts::setItems,
+                e -> afficherErreur("Erreur", e.getMessage()));
     }
 
     /**
@@ -144,37 +204,31 @@ public class EmpruntController {
      */
     @FXML
     public void handleEmprunter() {
-        try {
-            String livreStr = comboLivres.getValue();
-            String membreStr = comboMembres.getValue();
+        Livre livre = selecteurLivres.getSelection();
+        Membre membre = selecteurMembres.getSelection();
 
-            if (livreStr == null || membreStr == null) {
-                afficherErreur("Erreur", "Veuillez sélectionner un livre et un membre");
-                return;
-            }
+        if (livre == null || membre == null) {
+            afficherErreur("Erreur", "Veuillez sélectionner un livre et un membre");
+            return;
+        }
 
-            String isbn = livreStr.split(" - ")[0];
-            int membreId = Integer.parseInt(membreStr.split(" - ")[0]);
+        String isbn = livre.getIsbn();
+        int membreId = membre.getId();
 
-            java.time.LocalDate dateRetour = null;
-            if (dpDateRetourPrevue != null) {
-                dateRetour = dpDateRetourPrevue.getValue();
-            }
+        java.time.LocalDate dateRetour = null;
+        if (dpDateRetourPrevue != null) {
+            dateRetour = dpDateRetourPrevue.getValue();
+        }
 
-            Emprunt emprunt;
-            if (dateRetour != null) {
-                emprunt = empruntService.emprunterLivre(isbn, membreId, dateRetour);
-            } else {
-                emprunt = empruntService.emprunterLivre(isbn, membreId);
+        LocalDate retourPrevu = dateRetour;
+        chargeur.executer(() -> {
+            if (retourPrevu != null) {
+                return empruntService.emprunterLivre(isbn, membreId, retourPrevu);
             }
+            return empruntService.emprunterLivre(isbn, membreId);
+        }, emprunt -> {
             afficherSucces("Succès", "Livre emprunté avec succès!");
-            chargerEmprunts();
-            chargerLivres();
-        } catch (MembreInactifException | LivreIndisponibleException | LimiteEmpruntDepasseeException e) {
-            afficherErreur("Erreur", e.getMessage());
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
 
     /**
@@ -188,50 +242,44 @@ public class EmpruntController {
             return;
         }
 
-        try {
-            empruntService.retournerLivre(selected.getId());
+        int empruntId = selected.getId();
+        chargeur.executer(() -> {
+            empruntService.retournerLivre(empruntId);
+            return empruntId;
+        }, retourne -> {
             afficherSucces("Succès", "Livre retourné avec succès!");
-            chargerEmprunts();
-            chargerLivres();
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
 
     // Affiche les emprunts en cours.
      
     @FXML
     public void handleAfficherEnCours() {
-        try {
-            var emprunts = empruntService.getEmpruntsEnCours();
-            ObservableList<Emprunt> data = FXCollections.observableArrayList(emprunts);
-            tableViewEmprunts.setItems(data);
-        } catch (SQLException e) {
-            afficherErreur("Erreur", e.getMessage());
-        }
+        afficherEmprunts(empruntService::getEmpruntsEnCours);
     }
 
     // Affiche les emprunts en retard.
      
     @FXML
     public void handleAfficherEnRetard() {
-        try {
-            var emprunts = empruntService.getEmpruntsEnRetard();
-            ObservableList<Emprunt> data = FXCollections.observableArrayList(emprunts);
-            tableViewEmprunts.setItems(data);
-        } catch (SQLException e) {
-            afficherErreur("Erreur", e.getMessage());
-        }
+        afficherEmprunts(empruntService::getEmpruntsEnRetard);
     }
 
     // Affiche tous les emprunts.
     
     @FXML
     public void handleAfficherTous() {
-        try {
-            chargerEmprunts();
-        } catch (SQLException e) {
+        afficherTousLesEmprunts(0);
+    }
+
+    // Affiche l'erreur d'un emprunt ou d'un retour : refus métier ou erreur de base.
+
+    private void afficherEchecModification(Exception e) {
+        if (e instanceof MembreInactifException || e instanceof LivreIndisponibleException
+                || e instanceof LimiteEmpruntDepasseeException) {
             afficherErreur("Erreur", e.getMessage());
+        } else {
+            afficherErreur("Erreur de base de données", e.getMessage());
         }
     }
 
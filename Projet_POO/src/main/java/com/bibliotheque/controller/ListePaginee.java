@@ -0,0 +1,414 @@
+package com.bibliotheque.controller;
+
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.Tri;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Liste observable chargée à la demande, page par page, pour les tables volumineuses.
+ *
+ * Seul le nombre de lignes est lu à l'ouverture : la TableView ne demande que les lignes
+ * visibles, et une ligne pas encore chargée vaut null (cellule vide) le temps que sa page
+ * soit lue en tâche de fond par le {@link ChargeurDonnees}. Les pages lues sont gardées dans
+ * un cache LRU borné : la mémoire reste constante quelle que soit la taille de la table.
+ *
+ * Une page qui suit une page en mémoire est lue par clé, à la suite de son dernier élément ;
+ * un saut direct (barre de défilement) passe par une lecture à position (OFFSET). Le tri est
+ * fait par la base ({@link #installerTri}) ; la liste n'est pas modifiable par la table.
+ *
+ * Après une modification des données, la liste se corrige sur place : {@link #remplacer},
+ * {@link #retirer} et {@link #ajouter} ne touchent que la ligne concernée, sans recompter ni
+ * relire les pages. Une ligne remplacée garde sa place jusqu'au prochain rafraîchissement,
+ * même si sa nouvelle valeur la classerait ailleurs dans le tri courant.
+ *
+ * Toutes les méthodes s'exécutent sur le thread JavaFX.
+ *
+ * @param <T> le type des lignes
+ */
+public class ListePaginee<T> extends ObservableListBase<T> {
+
+    // Source des lignes : nombre total et fenêtres triées (appelés hors du thread JavaFX).
+
+    public interface Source<T> {
+        int compter() throws Exception;
+
+        List<T> lire(Tri tri, T apres, int debut, int taille) throws Exception;
+    }
+
+    public static final int TAILLE_PAGE_DEFAUT = 100;
+    public static final int PAGES_MAX_DEFAUT = 20;
+
+    // Délai de regroupement des demandes de pages pendant un défilement rapide.
+    private static final int DELAI_DEFILEMENT_MS = 40;
+
+    // Nombre de pages lues par chargement : les dernières demandées, c'est-à-dire les pages visibles.
+    private static final int PAGES_PAR_CHARGEMENT = 3;
+
+    private final String nom;
+    private final Source<T> source;
+    private final Function<T, String> cle;
+    private final boolean clesCroissantes;
+    private final ChargeurDonnees chargeur;
+    private final int taillePage;
+    private final LinkedHashMap<Integer, List<T>> pages;
+    private final LinkedHashSet<Integer> demandees = new LinkedHashSet<>();
+
+    private int taille;
+    private Tri tri;
+    // Incrémentées à chaque abandon des pages / à chaque comptage : les réponses périmées sont ignorées.
+    private int generation;
+    private int comptage;
+
+    /**
+     * Crée la liste et lance le comptage des lignes.
+     *
+     * @param nom             préfixe des clés de chargement (unique par liste)
+     * @param source          la source des lignes
+     * @param cle             la clé primaire d'une ligne (celle des événements de changement)
+     * @param clesCroissantes true si une ligne créée a la plus grande clé (identifiant auto-incrémenté)
+     * @param chargeur        exécute les lectures hors du thread JavaFX
+     */
+    public ListePaginee(String nom, Source<T> source, Function<T, String> cle, boolean clesCroissantes,
+                        ChargeurDonnees chargeur) {
+        this(nom, source, cle, clesCroissantes, chargeur, TAILLE_PAGE_DEFAUT, PAGES_MAX_DEFAUT);
+    }
+
+    /**
+     * @param taillePage nombre de lignes par page (au plus Page.TAILLE_MAX)
+     * @param pagesMax   nombre de pages gardées en mémoire
+     */
+    public ListePaginee(String nom, Source<T> source, Function<T, String> cle, boolean clesCroissantes,
+                        ChargeurDonnees chargeur, int taillePage, int pagesMax) {
+        this.nom = nom;
+        this.source = source;
+        this.cle = cle;
+        this.clesCroissantes = clesCroissantes;
+        this.chargeur = chargeur;
+        this.taillePage = Page.bornerTaille(taillePage);
+        int capacite = Math.max(PAGES_PAR_CHARGEMENT, pagesMax);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > capacite;
+            }
+        };
+        rafraichir();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Index " + index + " hors de [0, " + taille + ")");
+        }
+        int numero = index / taillePage;
+        List<T> page = pages.get(numero);
+        int position = index % taillePage;
+        // Une page raccourcie par retirer() est relue pour sa dernière ligne
+        if (page == null || position >= page.size()) {
+            demander(numero);
+            return null;
+        }
+        return page.get(position);
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    /**
+     * @return la clé primaire d'une ligne
+     */
+    public Function<T, String> getCle() {
+        return cle;
+    }
+
+    /**
+     * @return le tri courant, ou null pour l'ordre de la clé primaire
+     */
+    public Tri getTri() {
+        return tri;
+    }
+
+    /**
+     * Change le tri : les pages en mémoire sont abandonnées et les lignes visibles relues.
+     *
+     * @param nouveau le tri, ou null pour l'ordre de la clé primaire
+     */
+    public void trier(Tri nouveau) {
+        if (Objects.equals(tri, nouveau)) {
+            return;
+        }
+        tri = nouveau;
+        oublierPages();
+        if (taille > 0) {
+            beginChange();
+            nextReplace(0, taille, Collections.nCopies(taille, null));
+            endChange();
+        }
+    }
+
+    /**
+     * Recompte les lignes et abandonne les pages en mémoire (après une modification des données).
+     */
+    public void rafraichir() {
+        rafraichirApres(0);
+    }
+
+    /**
+     * Comme {@link #rafraichir()}, après un délai qui regroupe les demandes rapprochées.
+     *
+     * @param delaiMs délai en millisecondes
+     */
+    public void rafraichirApres(long delaiMs) {
+        int attendu = ++comptage;
+        chargeur.chargerApres(nom + ".taille", delaiMs, source::compter, nombre -> {
+            if (attendu != comptage) {
+                return;
+            }
+            oublierPages();
+            int ancienne = taille;
+            taille = nombre;
+            beginChange();
+            int communes = Math.min(ancienne, nombre);
+            if (communes > 0) {
+                nextReplace(0, communes, Collections.nCopies(communes, null));
+            }
+            if (nombre > ancienne) {
+                nextAdd(ancienne, nombre);
+            } else if (nombre < ancienne) {
+                nextRemove(nombre, Collections.nCopies(ancienne - nombre, null));
+            }
+            endChange();
+        }, e -> System.err.println("Comptage impossible (" + nom + ") : " + e.getMessage()));
+    }
+
+    /**
+     * @param valeurCle la clé d'une ligne
+     * @return true si la ligne est dans une page en mémoire, donc susceptible d'être affichée
+     */
+    public boolean estEnMemoire(String valeurCle) {
+        return trouver(valeurCle) >= 0;
+    }
+
+    /**
+     * Remplace sur place la ligne de même clé, si elle est en mémoire (sinon elle sera lue à jour).
+     *
+     * @param ligne la nouvelle version de la ligne
+     */
+    public void remplacer(T ligne) {
+        int index = trouver(cle.apply(ligne));
+        if (index < 0) {
+            return;
+        }
+        T ancienne = pages.get(index / taillePage).set(index % taillePage, ligne);
+        beginChange();
+        nextSet(index, ancienne);
+        endChange();
+    }
+
+    /**
+     * Retire la ligne de clé donnée. Les lignes suivantes remontent d'un rang : les pages
+     * d'après sont abandonnées et relues à la demande. Une ligne qui n'est pas en mémoire
+     * a une position inconnue : la liste est alors rafraîchie.
+     *
+     * @param valeurCle la clé de la ligne supprimée
+     */
+    public void retirer(String valeurCle) {
+        int index = trouver(valeurCle);
+        if (index < 0) {
+            rafraichir();
+            return;
+        }
+        int numero = index / taillePage;
+        T retiree = pages.get(numero).remove(index % taillePage);
+        pages.keySet().removeIf(page -> page > numero);
+        // Une page en cours de lecture a pu être lue avant la suppression
+        generation++;
+        demandees.clear();
+        chargeur.annuler(nom + ".pages");
+        taille--;
+        beginChange();
+        nextRemove(index, retiree);
+        endChange();
+    }
+
+    /**
+     * Ajoute une ligne créée. Dans l'ordre de la clé primaire, une clé croissante place la
+     * ligne en fin de liste ; sinon sa position dépend du tri et la liste est rafraîchie.
+     *
+     * @param ligne la ligne créée
+     */
+    public void ajouter(T ligne) {
+        if (!ajoutEnFin()) {
+            rafraichir();
+            return;
+        }
+        if (trouver(cle.apply(ligne)) >= 0) {
+            // Déjà comptée par un rafraîchissement plus récent que la création
+            remplacer(ligne);
+            return;
+        }
+        int index = taille;
+        List<T> derniere = pages.get(index / taillePage);
+        if (derniere != null && derniere.size() == index % taillePage) {
+            derniere.add(ligne);
+        }
+        taille++;
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    /**
+     * @return true si {@link #ajouter} place la ligne sans rafraîchir la liste
+     */
+    public boolean ajoutEnFin() {
+        return tri == null && clesCroissantes;
+    }
+
+    /**
+     * Position de la ligne de clé donnée parmi les pages en mémoire, ou -1.
+     */
+    private int trouver(String valeurCle) {
+        for (Map.Entry<Integer, List<T>> entree : pages.entrySet()) {
+            List<T> page = entree.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                if (valeurCle.equals(cle.apply(page.get(i)))) {
+                    return entree.getKey() * taillePage + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void oublierPages() {
+        generation++;
+        pages.clear();
+        demandees.clear();
+        chargeur.annuler(nom + ".pages");
+    }
+
+    /**
+     * Note la page demandée et (re)programme la lecture des dernières pages demandées.
+     * Une page déjà attendue ne relance rien : la TableView la demande pour chacune de ses lignes.
+     */
+    private void demander(int numero) {
+        if (demandees.contains(numero)) {
+            return;
+        }
+        demandees.add(numero);
+        while (demandees.size() > PAGES_PAR_CHARGEMENT) {
+            Iterator<Integer> plusAncienne = demandees.iterator();
+            plusAncienne.next();
+            plusAncienne.remove();
+        }
+
+        List<Integer> aLire = new ArrayList<>(demandees);
+        Collections.sort(aLire);
+        Map<Integer, T> reprises = new HashMap<>();
+        for (int page : aLire) {
+            List<T> precedente = pages.get(page - 1);
+            if (precedente != null && precedente.size() == taillePage) {
+                reprises.put(page, precedente.get(taillePage - 1));
+            }
+        }
+        Tri triCourant = tri;
+        int attendue = generation;
+        chargeur.chargerApres(nom + ".pages", DELAI_DEFILEMENT_MS,
+                () -> lirePages(aLire, reprises, triCourant),
+                lues -> recevoir(lues, attendue),
+                e -> {
+                    // Les pages seront redemandées au prochain affichage
+                    demandees.clear();
+                    System.err.println("Chargement de page impossible (" + nom + ") : " + e.getMessage());
+                });
+    }
+
+    /**
+     * Hors du thread JavaFX : lit les pages, chacune reprenant par clé après la précédente si elle est connue.
+     */
+    private Map<Integer, List<T>> lirePages(List<Integer> numeros, Map<Integer, T> reprises, Tri triCourant)
+            throws Exception {
+        Map<Integer, List<T>> lues = new LinkedHashMap<>();
+        for (int numero : numeros) {
+            T apres = reprises.get(numero);
+            List<T> precedente = lues.get(numero - 1);
+            if (apres == null && precedente != null && precedente.size() == taillePage) {
+                apres = precedente.get(taillePage - 1);
+            }
+            lues.put(numero, source.lire(triCourant, apres, numero * taillePage, taillePage));
+        }
+        return lues;
+    }
+
+    private void recevoir(Map<Integer, List<T>> lues, int attendue) {
+        if (attendue != generation) {
+            return;
+        }
+        beginChange();
+        for (Map.Entry<Integer, List<T>> entree : lues.entrySet()) {
+            int numero = entree.getKey();
+            // Copie modifiable : remplacer() et retirer() corrigent la page sur place
+            pages.put(numero, new ArrayList<>(entree.getValue()));
+            demandees.remove(numero);
+            int debut = numero * taillePage;
+            int fin = Math.min(taille, debut + taillePage);
+            if (debut < fin) {
+                nextReplace(debut, fin, Collections.nCopies(fin - debut, null));
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * Remplace le tri de la table par un tri en base quand elle affiche une ListePaginee ;
+     * les autres listes (résultats de recherche) gardent le tri en mémoire par défaut.
+     * Les colonnes absentes de la correspondance ne sont pas triables.
+     *
+     * @param table    la table
+     * @param colonnes colonne de la table vers nom de colonne de tri du DAO
+     */
+    public static <S> void installerTri(TableView<S> table, Map<TableColumn<S, ?>, String> colonnes) {
+        for (TableColumn<S, ?> colonne : table.getColumns()) {
+            colonne.setSortable(colonnes.containsKey(colonne));
+        }
+        table.setSortPolicy(t -> {
+            ObservableList<S> items = t.getItems();
+            if (!(items instanceof ListePaginee)) {
+                return TableView.DEFAULT_SORT_POLICY.call(t);
+            }
+            Tri nouveau = null;
+            if (!t.getSortOrder().isEmpty()) {
+                TableColumn<S, ?> colonne = t.getSortOrder().get(0);
+                String nomColonne = colonnes.get(colonne);
+                if (nomColonne != null) {
+                    nouveau = new Tri(nomColonne, colonne.getSortType() == TableColumn.SortType.ASCENDING);
+                }
+            }
+            ((ListePaginee<?>) items).trier(nouveau);
+            return true;
+        });
+    }
+
+    /**
+     * @return le nombre de pages en mémoire (supervision)
+     */
+    public int getPagesEnMemoire() {
+        return pages.size();
+    }
+}
@@ -1,17 +1,23 @@
 package com.bibliotheque.controller;
 
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.exception.ValidationException;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.Changement;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
+import javafx.util.Duration;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 // Contrôleur pour la gestion des livres.
  
@@ -53,6 +59,24 @@ public class LivreController {
     private Button btnRechercher;
 
     private BibliothequeService service;
+    private ChargeurDonnees chargeur;
+    // Tous les livres, lus page par page au fil du défilement
+    private ListePaginee<Livre> livres;
+
+    // Clé des chargements de la table : une recherche remplace le chargement en cours.
+    private static final String CHARGEMENT_LIVRES = "livres.liste";
+
+    // Délai de regroupement des demandes rapprochées (saisie, changements d'onglet).
+    private static final int DELAI_REGROUPEMENT_MS = 150;
+
+    // Nombre maximal de livres affichés pendant la saisie.
+    private static final int LIMITE_SAISIE = 100;
+
+    // Intervalle de rafraîchissement de la fenêtre de statistiques.
+    private static final int RAFRAICHISSEMENT_STATISTIQUES_MS = 500;
+
+    // Clé du recalcul des statistiques quand les compteurs en mémoire ont été invalidés.
+    private static final String CHARGEMENT_STATISTIQUES = "livres.statistiques";
 
     // Initialise le contrôleur.
      
@@ -78,6 +102,37 @@ public class LivreController {
                 handleRechercher();
             }
         });
+
+        // Tri par la base quand la table affiche tous les livres
+        ListePaginee.installerTri(tableViewLivres, Map.of(
+                colISBN, "isbn",
+                colTitre, "titre",
+                colAuteur, "auteur",
+                colAnnee, "annee_publication",
+                colDisponible, "disponible"));
+
+        // Recherche au fil de la saisie, servie par l'index en mémoire une fois construit
+        tfRecherche.textProperty().addListener((obs, ancien, critere) -> rechercherInstantane(critere));
+    }
+
+    private void rechercherInstantane(String critere) {
+        if (service == null || !service.isIndexLivresPret()) {
+            return;
+        }
+        if (critere == null || critere.isBlank()) {
+            chargerLivresApres(DELAI_REGROUPEMENT_MS);
+            return;
+        }
+        chargeur.chargerApres(CHARGEMENT_LIVRES, DELAI_REGROUPEMENT_MS,
+                () -> FXCollections.observableArrayList(service.rechercherLivresInstantane(critere, LIMITE_SAISIE)),
+                tableViewLivres::setItems,
+                e -> afficherErreur("Erreur de recherche", e.getMessage()));
+    }
+
+    // Définit le chargeur de données (à appeler avant setService).
+
+    public void setChargeur(ChargeurDonnees chargeur) {
+        this.chargeur = chargeur;
     }
 
     // Définit le service.
@@ -87,6 +142,20 @@ public class LivreController {
         this.service = service;
         // Charger les données APRÈS que le service soit initialisé
         if (service != null) {
+            livres = new ListePaginee<>("livres.paginee", new ListePaginee.Source<>() {
+                @Override
+                public int compter() throws SQLException {
+                    return service.compterLivres();
+                }
+
+                @Override
+                public List<Livre> lire(Tri tri, Livre apres, int debut, int taille) throws SQLException {
+                    return service.getLivresFenetre(tri, apres, debut, taille);
+                }
+            }, Livre::getIsbn, false, chargeur);
+            // Après une modification, seule la ligne concernée est relue
+            service.getBusChangements().abonner(new CorrecteurTable<>("livres.correction",
+                    Changement.Entite.LIVRE, tableViewLivres, livres, service::getLivre, chargeur));
             chargerLivres();
         } else {
             System.err.println("DEBUG: setService() called with null service!");
@@ -96,12 +165,18 @@ public class LivreController {
     // Refresh data from service (public entrypoint for external triggers).
      
     public void refreshData() {
-        chargerLivres();
+        chargerLivresApres(DELAI_REGROUPEMENT_MS);
     }
 
     // Charge tous les livres dans le tableau.
      
     private void chargerLivres() {
+        chargerLivresApres(0);
+    }
+
+    // Affiche tous les livres (lus page par page en tâche de fond), après un délai de regroupement.
+
+    private void chargerLivresApres(long delaiMs) {
         if (service == null) {
             System.err.println("DEBUG: chargerLivres() called but service is null!");
             return;
@@ -110,45 +185,32 @@ public class LivreController {
             System.err.println("DEBUG: chargerLivres() called but tableViewLivres is null!");
             return;
         }
-        try {
-            List<Livre> livres = service.getTousLesLivres();
-            System.out.println("DEBUG: chargerLivres() retrieved " + livres.size() + " books from service");
-            for (int i = 0; i < Math.min(5, livres.size()); i++) {
-                System.out.println("DEBUG: livre[" + i + "] = " + livres.get(i));
-            }
-            ObservableList<Livre> data = FXCollections.observableArrayList(livres);
-            // S'assurer que l'update UI se fasse sur le thread JavaFX
-            javafx.application.Platform.runLater(() -> {
-                tableViewLivres.setItems(data);
-                System.out.println("DEBUG: chargerLivres() set " + data.size() + " books to tableView (UI thread)");
-            });
-        } catch (SQLException e) {
-            afficherErreur("Erreur de chargement", "Impossible de charger les livres : " + e.getMessage());
+        // Une recherche encore en cours n'écrasera pas la liste complète
+        chargeur.annuler(CHARGEMENT_LIVRES);
+        if (tableViewLivres.getItems() != livres) {
+            tableViewLivres.setItems(livres);
         }
+        livres.rafraichirApres(delaiMs);
     }
 
     // Ajoute un nouveau livre.
      
     @FXML
     public void handleAjouter() {
-        try {
-            String isbn = tfISBN.getText();
-            String titre = tfTitre.getText();
-            String auteur = tfAuteur.getText();
-            int annee = spinnerAnnee.getValue();
-            boolean disponible = cbDisponible.isSelected();
-
-            Livre livre = new Livre(isbn, titre, auteur, annee, disponible);
-            service.ajouterLivre(livre);
+        String isbn = tfISBN.getText();
+        String titre = tfTitre.getText();
+        String auteur = tfAuteur.getText();
+        int annee = spinnerAnnee.getValue();
+        boolean disponible = cbDisponible.isSelected();
 
+        Livre livre = new Livre(isbn, titre, auteur, annee, disponible);
+        chargeur.executer(() -> {
+            service.ajouterLivre(livre);
+            return livre;
+        }, ajoute -> {
             afficherSucces("Succès", "Livre ajouté avec succès!");
             nettoyerFormulaire();
-            chargerLivres();
-        } catch (ValidationException e) {
-            afficherErreur("Erreur de validation", e.getMessage());
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
 
     // Modifie le livre sélectionné.
@@ -161,22 +223,18 @@ public class LivreController {
             return;
         }
 
-        try {
-            selected.setTitre(tfTitre.getText());
-            selected.setAuteur(tfAuteur.getText());
-            selected.setAnneePublication(spinnerAnnee.getValue());
-            selected.setDisponible(cbDisponible.isSelected());
+        selected.setTitre(tfTitre.getText());
+        selected.setAuteur(tfAuteur.getText());
+        selected.setAnneePublication(spinnerAnnee.getValue());
+        selected.setDisponible(cbDisponible.isSelected());
 
+        chargeur.executer(() -> {
             service.modifierLivre(selected);
-
+            return selected;
+        }, modifie -> {
             afficherSucces("Succès", "Livre modifié avec succès!");
             nettoyerFormulaire();
-            chargerLivres();
-        } catch (ValidationException e) {
-            afficherErreur("Erreur de validation", e.getMessage());
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
 
     // Supprime le livre sélectionné.
@@ -189,14 +247,14 @@ public class LivreController {
             return;
         }
 
-        try {
-            service.supprimerLivre(selected.getIsbn());
+        String isbn = selected.getIsbn();
+        chargeur.executer(() -> {
+            service.supprimerLivre(isbn);
+            return isbn;
+        }, supprime -> {
             afficherSucces("Succès", "Livre supprimé avec succès!");
             nettoyerFormulaire();
-            chargerLivres();
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
 
     //Recherche des livres.
@@ -209,24 +267,45 @@ public class LivreController {
             return;
         }
 
-        try {
-            List<Livre> livres = service.rechercherLivres(critere);
-            ObservableList<Livre> data = FXCollections.observableArrayList(livres);
-            tableViewLivres.setItems(data);
-        } catch (SQLException e) {
-            afficherErreur("Erreur de recherche", e.getMessage());
-        }
+        chargeur.charger(CHARGEMENT_LIVRES,
+                () -> FXCollections.observableArrayList(service.rechercherLivres(critere)),
+                tableViewLivres::setItems,
+                e -> afficherErreur("Erreur de recherche", e.getMessage()));
     }
 
-    //Affiche les statistiques de la bibliothèque.
+    //Affiche les statistiques de la bibliothèque, rafraîchies en direct tant que la fenêtre est ouverte.
     @FXML
     public void handleStatistiques() {
-        try {
-            String stats = service.getStatistiques();
-            afficherSucces("Statistiques", stats);
-        } catch (SQLException e) {
-            afficherErreur("Erreur", "Impossible de charger les statistiques : " + e.getMessage());
-        }
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Statistiques");
+        alert.setContentText("Calcul des statistiques...");
+        // Lues dans les compteurs en mémoire ; après une invalidation, le recalcul en base se fait
+        // hors du thread JavaFX et la fenêtre garde la dernière valeur affichée en attendant
+        boolean[] recalculEnCours = {false};
+        Runnable actualiser = () -> {
+            String stats = service.getStatistiquesEnMemoire();
+            if (stats != null) {
+                alert.setContentText(stats);
+            } else if (!recalculEnCours[0]) {
+                // Un seul recalcul à la fois : une nouvelle demande remplacerait celle en cours
+                recalculEnCours[0] = true;
+                chargeur.charger(CHARGEMENT_STATISTIQUES, service::getStatistiques, recalculees -> {
+                    recalculEnCours[0] = false;
+                    alert.setContentText(recalculees);
+                }, ex -> {
+                    recalculEnCours[0] = false;
+                    System.err.println("Rafraîchissement des statistiques impossible : " + ex.getMessage());
+                });
+            }
+        };
+        actualiser.run();
+        Timeline rafraichissement = new Timeline(new KeyFrame(Duration.millis(RAFRAICHISSEMENT_STATISTIQUES_MS),
+                e -> actualiser.run()));
+        rafraichissement.setCycleCount(Animation.INDEFINITE);
+        rafraichissement.play();
+        alert.showAndWait();
+        rafraichissement.stop();
+        chargeur.annuler(CHARGEMENT_STATISTIQUES);
     }
 
     //Remplit le formulaire avec les données d'un livre sélectionné.
@@ -248,6 +327,16 @@ public class LivreController {
         cbDisponible.setSelected(true);
     }
 
+    // Affiche l'erreur d'un ajout, d'une modification ou d'une suppression.
+
+    private void afficherEchecModification(Exception e) {
+        if (e instanceof ValidationException) {
+            afficherErreur("Erreur de validation", e.getMessage());
+        } else {
+            afficherErreur("Erreur de base de données", e.getMessage());
+        }
+    }
+
     // Affiche une alerte d'erreur.
      
     private void afficherErreur(String titre, String message) {
@@ -1,22 +1,27 @@
 package com.bibliotheque.controller;
 
-import com.bibliotheque.dao.impl.LivreDAOImpl;
-import com.bibliotheque.dao.impl.MembreDAOImpl;
-import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.Demarrage;
 import com.bibliotheque.service.BibliothequeService;
 import com.bibliotheque.service.EmpruntService;
-import com.bibliotheque.util.DatabaseConnection;
-import com.bibliotheque.util.DatabaseSeeder;
+import com.bibliotheque.util.PhasesDemarrage;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.Alert;
 
 import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Contrôleur principal de l'application JavaFX.
+ *
+ * Au démarrage, la base (pool de connexions, migrations) est préparée sur un thread de fond
+ * pendant que la vue de l'onglet affiché est chargée ; ses données sont demandées dès que la
+ * base est prête. Les autres onglets ne sont chargés qu'à leur première sélection. Les
+ * durées des phases sont affichées sur la sortie standard ({@link PhasesDemarrage}).
  */
 public class MainController {
 
@@ -29,34 +34,40 @@ public class MainController {
     private MembreController membreController;
     private EmpruntController empruntController;
 
+    // Accès aux données des onglets hors du thread JavaFX, partagé par les contrôleurs enfants
+    private final ChargeurDonnees chargeur = new ChargeurDonnees();
+
+    private final PhasesDemarrage phases = new PhasesDemarrage();
+    private Demarrage demarrage;
+    // Terminée quand la préparation de la base est finie (même en échec : l'erreur est déjà signalée)
+    private final CompletableFuture<Void> basePrete = new CompletableFuture<>();
+    // Onglets dont la vue est chargée (Livres, Membres, Emprunts)
+    private final boolean[] ongletsCharges = new boolean[3];
+    private boolean premierOngletPret;
+
     /**
-     * Initialise le contrôleur et charge les données.
+     * Initialise le contrôleur et lance le démarrage.
      */
     @FXML
     public void initialize() {
         try {
-            var livreDAO = new LivreDAOImpl();
-            var membreDAO = new MembreDAOImpl();
-            var empruntDAO = new EmpruntDAOImpl(livreDAO, membreDAO);
-
-            // Seed de la base si nécessaire (insert données exemples si table vide)
-            try {
-                int total = DatabaseSeeder.seedIfEmpty(DatabaseConnection.getInstance().getConnection());
-                if (total == 0) {
-                    afficherErreur("Base vide", "La table `livres` est vide et le seed n'a pas pu insérer d'exemples.");
-                } else {
-                    afficherSucces("Base initialisée", "La table `livres` contient maintenant " + total + " ligne(s).");
-                }
-            } catch (Exception se) {
-                // Affiche une alerte pour aider au debug (connexion, permissions, absence de table...)
-                afficherErreur("Warning: Database seeding failed", se.getMessage());
-            }
+            demarrage = new Demarrage(phases);
+            bibliothequeService = demarrage.getBibliothequeService();
+            empruntService = demarrage.getEmpruntService();
 
-            bibliothequeService = new BibliothequeService(livreDAO, membreDAO);
-            empruntService = new EmpruntService(empruntDAO, livreDAO, membreDAO);
+            // Pool et migrations en parallèle du chargement des vues
+            Thread preparation = new Thread(this::preparerBase, "demarrage-base");
+            preparation.setDaemon(true);
+            preparation.start();
 
-            // Charger et injecter contrôleurs enfants après que la scène soit visible
-            Platform.runLater(this::chargerControleurs);
+            // Vue de l'onglet affiché chargée une fois la fenêtre visible ; les autres à leur première sélection
+            tabPane.getSelectionModel().selectedIndexProperty().addListener((obs, oldIndex, newIndex) -> {
+                try {
+                    afficherOnglet(newIndex.intValue());
+                } catch (Exception ignored) {
+                }
+            });
+            Platform.runLater(() -> chargerOnglet(tabPane.getSelectionModel().getSelectedIndex()));
 
         } catch (Exception e) {
             afficherErreur("Erreur d'initialisation", "Impossible d'initialiser l'application : " + e.getMessage());
@@ -64,62 +75,95 @@ public class MainController {
     }
 
     /**
-     * Charge les contrôleurs enfants et les services.
+     * Sur le thread "demarrage-base" : ouvre le pool, applique les migrations, puis lance le préchauffage.
      */
-    private void chargerControleurs() {
+    private void preparerBase() {
         try {
-            System.out.println("DEBUG: Starting chargerControleurs()");
-            // Charger Livre Controller
-            FXMLLoader loaderLivres = new FXMLLoader(getClass().getResource("/fxml/livres.fxml"));
-            var rootLivres = loaderLivres.<javafx.scene.Node>load();
-            this.livreController = loaderLivres.getController();
-            System.out.println("DEBUG: Loaded livreController, calling setService()");
-            this.livreController.setService(bibliothequeService);
-            if (tabPane.getTabs().size() > 0) {
-                tabPane.getTabs().get(0).setContent(rootLivres);
+            int appliquees = demarrage.preparerBase();
+            if (appliquees > 0) {
+                System.out.println(appliquees + " migration(s) de schéma appliquée(s)");
             }
+            // Sans base prête, la réconciliation et l'indexation échoueraient
+            demarrage.lancerPrechauffage();
+        } catch (SQLException se) {
+            // Affiche une alerte pour aider au debug (connexion, permissions...)
+            Platform.runLater(() -> afficherErreur("Préparation de la base impossible", se.getMessage()));
+        } finally {
+            basePrete.complete(null);
+        }
+    }
 
-            // Charger Membre Controller
-            FXMLLoader loaderMembres = new FXMLLoader(getClass().getResource("/fxml/membres.fxml"));
-            var rootMembres = loaderMembres.<javafx.scene.Node>load();
-            this.membreController = loaderMembres.getController();
-            System.out.println("DEBUG: Loaded membreController, calling setService()");
-            this.membreController.setService(bibliothequeService);
-            if (tabPane.getTabs().size() > 1) {
-                tabPane.getTabs().get(1).setContent(rootMembres);
-            }
+    /**
+     * Charge l'onglet à sa première sélection, sinon rafraîchit ses données
+     * (en tâche de fond ; des changements d'onglet rapprochés ne déclenchent qu'un chargement).
+     */
+    private void afficherOnglet(int index) {
+        if (index < 0 || index >= ongletsCharges.length) {
+            return;
+        }
+        if (!ongletsCharges[index]) {
+            chargerOnglet(index);
+        } else if (index == 0) {
+            this.livreController.refreshData();
+        } else if (index == 1) {
+            this.membreController.refreshData();
+        } else {
+            this.empruntController.refreshData();
+        }
+    }
 
-            // Charger Emprunt Controller
-            FXMLLoader loaderEmprunts = new FXMLLoader(getClass().getResource("/fxml/emprunts.fxml"));
-            var rootEmprunts = loaderEmprunts.<javafx.scene.Node>load();
-            this.empruntController = loaderEmprunts.getController();
-            System.out.println("DEBUG: Loaded empruntController, calling setServices()");
-            this.empruntController.setServices(bibliothequeService, empruntService);
-            if (tabPane.getTabs().size() > 2) {
-                tabPane.getTabs().get(2).setContent(rootEmprunts);
+    /**
+     * Charge la vue d'un onglet et son contrôleur ; les services lui sont donnés quand la base est prête.
+     */
+    private void chargerOnglet(int index) {
+        if (index < 0 || index >= ongletsCharges.length || index >= tabPane.getTabs().size() || ongletsCharges[index]) {
+            return;
+        }
+        try {
+            if (index == 0) {
+                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/livres.fxml"));
+                Node racine = phases.mesurer("vue livres", () -> loader.<Node>load());
+                this.livreController = loader.getController();
+                this.livreController.setChargeur(chargeur);
+                tabPane.getTabs().get(0).setContent(racine);
+                quandBasePrete("livres", () -> this.livreController.setService(bibliothequeService));
+            } else if (index == 1) {
+                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/membres.fxml"));
+                Node racine = phases.mesurer("vue membres", () -> loader.<Node>load());
+                this.membreController = loader.getController();
+                this.membreController.setChargeur(chargeur);
+                tabPane.getTabs().get(1).setContent(racine);
+                quandBasePrete("membres", () -> this.membreController.setService(bibliothequeService));
+            } else {
+                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/emprunts.fxml"));
+                Node racine = phases.mesurer("vue emprunts", () -> loader.<Node>load());
+                this.empruntController = loader.getController();
+                this.empruntController.setChargeur(chargeur);
+                tabPane.getTabs().get(2).setContent(racine);
+                quandBasePrete("emprunts",
+                        () -> this.empruntController.setServices(bibliothequeService, empruntService));
             }
-
-            // Refresh relevant controller data when user switches tabs
-            tabPane.getSelectionModel().selectedIndexProperty().addListener((obs, oldIndex, newIndex) -> {
-                try {
-                    int idx = newIndex.intValue();
-                    if (idx == 0 && this.livreController != null) {
-                        this.livreController.refreshData();
-                    } else if (idx == 1 && this.membreController != null) {
-                        this.membreController.refreshData();
-                    } else if (idx == 2 && this.empruntController != null) {
-                        this.empruntController.refreshData();
-                    }
-                } catch (Exception ignored) {
-                }
-            });
-            System.out.println("DEBUG: chargerControleurs() completed");
-
+            ongletsCharges[index] = true;
         } catch (IOException e) {
-            afficherErreur("Erreur de chargement", "Impossible de charger les contrôleurs : " + e.getMessage());
+            afficherErreur("Erreur de chargement", "Impossible de charger l'onglet : " + e.getMessage());
         }
     }
 
+    /**
+     * Donne ses services à un onglet dès que la base est prête (immédiatement si elle l'est déjà).
+     * Le premier onglet servi marque la fin du démarrage : les durées des phases sont affichées.
+     */
+    private void quandBasePrete(String onglet, Runnable injection) {
+        basePrete.thenRun(() -> Platform.runLater(() -> {
+            injection.run();
+            if (!premierOngletPret) {
+                premierOngletPret = true;
+                phases.jalon("onglet " + onglet + " prêt");
+                System.out.println(phases.rapport());
+            }
+        }));
+    }
+
     /**
      * Affiche une alerte d'erreur.
      *
@@ -1,16 +1,20 @@
 package com.bibliotheque.controller;
 
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.exception.ValidationException;
 import com.bibliotheque.model.Membre;
 import com.bibliotheque.service.BibliothequeService;
+import com.bibliotheque.service.Changement;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 
 public class MembreController {
@@ -51,6 +55,15 @@ public class MembreController {
     private Button btnRechercher;
 
     private BibliothequeService service;
+    private ChargeurDonnees chargeur;
+    // Tous les membres, lus page par page au fil du défilement
+    private ListePaginee<Membre> membres;
+
+    // Clé des chargements de la table : une recherche remplace le chargement en cours.
+    private static final String CHARGEMENT_MEMBRES = "membres.liste";
+
+    // Délai de regroupement des rafraîchissements rapprochés (changements d'onglet).
+    private static final int DELAI_REGROUPEMENT_MS = 150;
 
     @FXML
     public void initialize() {
@@ -60,13 +73,41 @@ public class MembreController {
         colEmail.setCellValueFactory(cell -> new javafx.beans.property.ReadOnlyStringWrapper(cell.getValue() != null ? cell.getValue().getEmail() : ""));
         colActif.setCellValueFactory(cell -> new javafx.beans.property.ReadOnlyObjectWrapper<>(cell.getValue() != null ? cell.getValue().isActif() : null));
         colDateInscription.setCellValueFactory(cell -> new javafx.beans.property.ReadOnlyObjectWrapper<>(cell.getValue() != null ? cell.getValue().getDateInscription() : null));
+        tableViewMembres.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        ListePaginee.installerTri(tableViewMembres, Map.of(
+                colId, "id",
+                colNom, "nom",
+                colPrenom, "prenom",
+                colEmail, "email",
+                colActif, "actif",
+                colDateInscription, "date_inscription"));
+    }
+
+    // Définit le chargeur de données (à appeler avant setService).
+
+    public void setChargeur(ChargeurDonnees chargeur) {
+        this.chargeur = chargeur;
     }
 
-    
     public void setService(BibliothequeService service) {
         System.out.println("DEBUG: setService() called in MembreController");
         this.service = service;
         if (service != null) {
+            membres = new ListePaginee<>("membres.paginee", new ListePaginee.Source<>() {
+                @Override
+                public int compter() throws SQLException {
+                    return service.compterMembres();
+                }
+
+                @Override
+                public List<Membre> lire(Tri tri, Membre apres, int debut, int taille) throws SQLException {
+                    return service.getMembresFenetre(tri, apres, debut, taille);
+                }
+            }, membre -> String.valueOf(membre.getId()), true, chargeur);
+            // Après une modification, seule la ligne concernée est relue
+            service.getBusChangements().abonner(new CorrecteurTable<>("membres.correction",
+                    Changement.Entite.MEMBRE, tableViewMembres, membres,
+                    cle -> service.getMembre(Integer.parseInt(cle)), chargeur));
             chargerMembres();
         } else {
             System.err.println("DEBUG: setService() called with null service in MembreController!");
@@ -75,9 +116,14 @@ public class MembreController {
 
     
     public void refreshData() {
-        chargerMembres();
+        chargerMembresApres(DELAI_REGROUPEMENT_MS);
     }
+
     private void chargerMembres() {
+        chargerMembresApres(0);
+    }
+
+    private void chargerMembresApres(long delaiMs) {
         if (service == null) {
             System.err.println("DEBUG: chargerMembres() called but service is null!");
             return;
@@ -86,41 +132,28 @@ public class MembreController {
             System.err.println("DEBUG: chargerMembres() called but tableViewMembres is null!");
             return;
         }
-        try {
-            List<Membre> membres = service.getTousLesMembres();
-            System.out.println("DEBUG: chargerMembres() retrieved " + membres.size() + " members from service");
-            for (int i = 0; i < Math.min(5, membres.size()); i++) {
-                System.out.println("DEBUG: membre[" + i + "] = " + membres.get(i));
-            }
-            ObservableList<Membre> data = FXCollections.observableArrayList(membres);
-            javafx.application.Platform.runLater(() -> {
-                tableViewMembres.setItems(data);
-                System.out.println("DEBUG: chargerMembres() set " + data.size() + " members to tableView (UI thread)");
-            });
-        } catch (SQLException e) {
-            afficherErreur("Erreur de chargement", "Impossible de charger les membres : " + e.getMessage());
+        chargeur.annuler(CHARGEMENT_MEMBRES);
+        if (tableViewMembres.getItems() != membres) {
+            tableViewMembres.setItems(membres);
         }
+        membres.rafraichirApres(delaiMs);
     }
 
     @FXML
     public void handleAjouter() {
-        try {
-            String nom = tfNom.getText();
-            String prenom = tfPrenom.getText();
-            String email = tfEmail.getText();
-            boolean actif = cbActif.isSelected();
+        String nom = tfNom.getText();
+        String prenom = tfPrenom.getText();
+        String email = tfEmail.getText();
+        boolean actif = cbActif.isSelected();
 
-            Membre membre = new Membre(nom, prenom, email, actif, LocalDate.now());
+        Membre membre = new Membre(nom, prenom, email, actif, LocalDate.now());
+        chargeur.executer(() -> {
             service.ajouterMembre(membre);
-
+            return membre;
+        }, ajoute -> {
             afficherSucces("Succès", "Membre ajouté avec succès!");
             nettoyerFormulaire();
-            chargerMembres();
-        } catch (ValidationException e) {
-            afficherErreur("Erreur de validation", e.getMessage());
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
     @FXML
     public void handleModifier() {
@@ -130,42 +163,51 @@ public class MembreController {
             return;
         }
 
-        try {
-            selected.setNom(tfNom.getText());
-            selected.setPrenom(tfPrenom.getText());
-            selected.setEmail(tfEmail.getText());
-            selected.setActif(cbActif.isSelected());
+        selected.setNom(tfNom.getText());
+        selected.setPrenom(tfPrenom.getText());
+        selected.setEmail(tfEmail.getText());
+        selected.setActif(cbActif.isSelected());
 
+        chargeur.executer(() -> {
             service.modifierMembre(selected);
-
+            return selected;
+        }, modifie -> {
             afficherSucces("Succès", "Membre modifié avec succès!");
             nettoyerFormulaire();
-            chargerMembres();
-        } catch (ValidationException e) {
-            afficherErreur("Erreur de validation", e.getMessage());
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
-        }
+        }, this::afficherEchecModification);
     }
 
     @FXML
     public void handleSupprimer() {
-        Membre selected = tableViewMembres.getSelectionModel().getSelectedItem();
-        if (selected == null) {
+        List<Membre> selection = tableViewMembres.getSelectionModel().getSelectedItems();
+        if (selection.isEmpty()) {
             afficherErreur("Erreur", "Veuillez sélectionner un membre");
             return;
         }
 
-        try {
-            // Dans une vraie application, on pourrait avoir une méthode supprimant le membre
-            // Pour l'instant, on le désactive
-            service.activerDesactiverMembre(selected.getId(), false);
-            afficherSucces("Succès", "Membre désactivé avec succès!");
-            nettoyerFormulaire();
-            chargerMembres();
-        } catch (SQLException e) {
-            afficherErreur("Erreur de base de données", e.getMessage());
+        // Dans une vraie application, on pourrait avoir une méthode supprimant le membre
+        // Pour l'instant, on le désactive (plusieurs membres : une seule transaction)
+        List<Integer> ids = new ArrayList<>();
+        for (Membre membre : selection) {
+            // Ligne sélectionnée dont la page n'est pas encore chargée
+            if (membre != null) {
+                ids.add(membre.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
         }
+        chargeur.executer(() -> {
+            if (ids.size() == 1) {
+                service.activerDesactiverMembre(ids.get(0), false);
+                return "Membre désactivé avec succès!";
+            }
+            ResultatLot resultat = service.activerDesactiverMembres(ids, false);
+            return resultat.getNombreSucces() + " membre(s) désactivé(s)";
+        }, message -> {
+            afficherSucces("Succès", message);
+            nettoyerFormulaire();
+        }, this::afficherEchecModification);
     }
 
 
@@ -177,13 +219,10 @@ public class MembreController {
             return;
         }
 
-        try {
-            List<Membre> membres = service.rechercherMembres(critere);
-            ObservableList<Membre> data = FXCollections.observableArrayList(membres);
-            tableViewMembres.setItems(data);
-        } catch (SQLException e) {
-            afficherErreur("Erreur de recherche", e.getMessage());
-        }
+        chargeur.charger(CHARGEMENT_MEMBRES,
+                () -> FXCollections.observableArrayList(service.rechercherMembres(critere)),
+                tableViewMembres::setItems,
+                e -> afficherErreur("Erreur de recherche", e.getMessage()));
     }
 
     
@@ -210,7 +249,14 @@ public class MembreController {
         cbActif.setSelected(true);
     }
 
-    
+    private void afficherEchecModification(Exception e) {
+        if (e instanceof ValidationException) {
+            afficherErreur("Erreur de validation", e.getMessage());
+        } else {
+            afficherErreur("Erreur de base de données", e.getMessage());
+        }
+    }
+
     private void afficherErreur(String titre, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(titre);
@@ -0,0 +1,141 @@
+package com.bibliotheque.controller;
+
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
+import javafx.util.StringConverter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Choix d'une entité dans un ComboBox éditable, par recherche au fil de la saisie.
+ *
+ * Le combo ne contient que les résultats de la dernière recherche (au plus {@code limite}),
+ * lancée par le {@link ChargeurDonnees} après un court délai qui regroupe les frappes ; rien
+ * n'est chargé tant que rien n'est saisi. La valeur choisie est l'entité elle-même : aucune
+ * clé n'est à extraire du libellé.
+ *
+ * Toutes les méthodes s'exécutent sur le thread JavaFX.
+ *
+ * @param <T> le type des entités proposées
+ */
+public class SelecteurRecherche<T> {
+
+    // Recherche des entités correspondant au texte saisi (appelée hors du thread JavaFX).
+
+    @FunctionalInterface
+    public interface Recherche<T> {
+        List<T> rechercher(String critere, int limite) throws Exception;
+    }
+
+    // Délai de regroupement des frappes.
+    private static final int DELAI_SAISIE_MS = 150;
+
+    private final String nom;
+    private final ComboBox<T> combo;
+    private final Function<T, String> libelle;
+    private final Recherche<T> recherche;
+    private final int limite;
+    private final ChargeurDonnees chargeur;
+    // Vrai pendant le remplacement des propositions : le texte restauré ne relance pas de recherche
+    private boolean miseAJour;
+
+    /**
+     * @param nom       clé des chargements (unique par sélecteur)
+     * @param combo     le combo, rendu éditable
+     * @param libelle   le texte affiché pour une entité (unique parmi les propositions)
+     * @param recherche la recherche par texte saisi
+     * @param limite    nombre maximal de propositions
+     * @param chargeur  exécute les recherches hors du thread JavaFX
+     */
+    public SelecteurRecherche(String nom, ComboBox<T> combo, Function<T, String> libelle,
+                              Recherche<T> recherche, int limite, ChargeurDonnees chargeur) {
+        this.nom = nom;
+        this.combo = combo;
+        this.libelle = libelle;
+        this.recherche = recherche;
+        this.limite = limite;
+        this.chargeur = chargeur;
+
+        combo.setEditable(true);
+        combo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(T entite) {
+                return entite == null ? "" : libelle.apply(entite);
+            }
+
+            @Override
+            public T fromString(String texte) {
+                return parmiPropositions(texte);
+            }
+        });
+        combo.getEditor().textProperty().addListener((obs, ancien, texte) -> saisir(texte));
+    }
+
+    /**
+     * @return l'entité choisie, ou null si le texte saisi ne correspond à aucune proposition
+     */
+    public T getSelection() {
+        String texte = combo.getEditor().getText();
+        T valeur = combo.getValue();
+        if (valeur != null && libelle.apply(valeur).equals(texte)) {
+            return valeur;
+        }
+        return parmiPropositions(texte);
+    }
+
+    private void saisir(String texte) {
+        if (miseAJour) {
+            return;
+        }
+        T valeur = combo.getValue();
+        if (valeur != null && libelle.apply(valeur).equals(texte)) {
+            // Texte posé par le choix d'une proposition
+            return;
+        }
+        if (texte == null || texte.isBlank()) {
+            chargeur.annuler(nom);
+            proposer(List.of());
+            return;
+        }
+        String critere = texte.trim();
+        chargeur.chargerApres(nom, DELAI_SAISIE_MS, () -> recherche.rechercher(critere, limite), this::proposer,
+                e -> System.err.println("Recherche impossible (" + nom + ") : " + e.getMessage()));
+    }
+
+    /**
+     * Remplace les propositions. Le combo efface le texte quand la valeur choisie disparaît
+     * de la liste : le texte en cours de saisie est restauré.
+     */
+    private void proposer(List<T> propositions) {
+        TextField editeur = combo.getEditor();
+        String texte = editeur.getText();
+        miseAJour = true;
+        try {
+            combo.getItems().setAll(propositions);
+            if (!texte.equals(editeur.getText())) {
+                editeur.setText(texte);
+                editeur.positionCaret(texte.length());
+            }
+        } finally {
+            miseAJour = false;
+        }
+        if (propositions.isEmpty()) {
+            combo.hide();
+        } else if (combo.isFocused() || editeur.isFocused()) {
+            combo.show();
+        }
+    }
+
+    private T parmiPropositions(String texte) {
+        if (texte == null) {
+            return null;
+        }
+        for (T entite : combo.getItems()) {
+            if (libelle.apply(entite).equals(texte)) {
+                return entite;
+            }
+        }
+        return null;
+    }
+}
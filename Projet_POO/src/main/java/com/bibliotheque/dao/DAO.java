@@ -1,19 +1,62 @@
 package com.bibliotheque.dao;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface DAO<T> {
+
+    // Nombre de lignes par transaction pour saveAll/updateAll (-Dbibliotheque.batch.tailleLot=...).
+
+    int TAILLE_LOT_DEFAUT = Integer.getInteger("bibliotheque.batch.tailleLot", 1000);
   
     void save(T entity) throws SQLException;
 
+    // Insère les entités par lots JDBC, un commit par tranche de tailleLot lignes ; comme save(),
+    // les identifiants générés sont reportés sur les entités insérées.
+
+    ResultatLot saveAll(Collection<T> entities, int tailleLot) throws SQLException;
+
+    default ResultatLot saveAll(Collection<T> entities) throws SQLException {
+        return saveAll(entities, TAILLE_LOT_DEFAUT);
+    }
+
     
     T findById(String id) throws SQLException;
 
     List<T> findAll() throws SQLException;
 
+    // Récupère une page triée par clé primaire, après la clé donnée (null pour la première page).
+    // La taille est bornée à Page.TAILLE_MAX.
+
+    Page<T> findPage(String apresCle, int taille) throws SQLException;
+
+    // Nombre total de lignes.
+
+    int count() throws SQLException;
+
+    // Fenêtre de lignes selon le tri donné (null : clé primaire croissante), ex aequo départagés par la clé primaire.
+    // Reprend juste après l'élément apres s'il est donné (dernier élément de la fenêtre précédente),
+    // sinon à la position debut. La taille est bornée à Page.TAILLE_MAX.
+
+    List<T> findFenetre(Tri tri, T apres, int debut, int taille) throws SQLException;
+
+    // Parcourt toutes les lignes sans les charger en mémoire (exports, traitements de nuit).
+    // Le Stream garde une connexion ouverte : il doit être fermé (try-with-resources).
+
+    Stream<T> streamAll() throws SQLException;
+
     void update(T entity) throws SQLException;
 
+    // Met à jour les entités par lots JDBC ; une ligne absente est signalée en échec.
+
+    ResultatLot updateAll(Collection<T> entities, int tailleLot) throws SQLException;
+
+    default ResultatLot updateAll(Collection<T> entities) throws SQLException {
+        return updateAll(entities, TAILLE_LOT_DEFAUT);
+    }
+
    
     void delete(String id) throws SQLException;
 }
@@ -2,6 +2,7 @@ package com.bibliotheque.dao;
 
 import com.bibliotheque.model.Emprunt;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 // Interface DAO pour les emprunts.
@@ -15,12 +16,27 @@ public interface EmpruntDAO extends DAO<Emprunt> {
      
     List<Emprunt> findEnCours() throws SQLException;
 
-    // Récupère tous les emprunts en retard.
+    // Récupère tous les emprunts en retard : en cours et échus, ou rendus après la date prévue.
      
     List<Emprunt> findEnRetard() throws SQLException;
 
     // Compte le nombre d'emprunts en cours pour un membre.
      
     int countEmpruntsEnCours(int membreId) throws SQLException;
+
+    // Enregistre la date de retour et la pénalité si l'emprunt est encore en cours ; retourne false sinon.
+
+    boolean enregistrerRetour(Emprunt emprunt) throws SQLException;
+
+    // Plus grand identifiant d'emprunt (0 si la table est vide).
+
+    int findIdMax() throws SQLException;
+
+    // Fixe la pénalité courue des emprunts en cours et en retard dont l'id est dans ]apresId, jusquaId],
+    // à dateReference : jours de retard × penaliteParJour, et les marque en retard. Retourne le nombre
+    // d'emprunts modifiés.
+
+    int appliquerPenalitesRetard(int apresId, int jusquaId, LocalDate dateReference, double penaliteParJour)
+            throws SQLException;
 }
 
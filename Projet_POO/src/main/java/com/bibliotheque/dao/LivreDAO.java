@@ -2,7 +2,9 @@ package com.bibliotheque.dao;
 
 import com.bibliotheque.model.Livre;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 // Interface DAO pour les livres.
  
@@ -14,6 +16,11 @@ public interface LivreDAO extends DAO<Livre> {
      
     List<Livre> findByTitre(String titre) throws SQLException;
 
+    // Recherche plein texte sur le titre et l'auteur, par pertinence décroissante, au plus limite résultats.
+    // Insensible à la casse et aux accents ; chaque mot est cherché comme préfixe.
+
+    List<Livre> rechercher(String critere, int limite) throws SQLException;
+
     // Récupère tous les livres disponibles.
      
     List<Livre> findDisponibles() throws SQLException;
@@ -22,9 +29,25 @@ public interface LivreDAO extends DAO<Livre> {
 
     Livre findByISBN(String isbn) throws SQLException;
 
+    // Recherche un livre par ISBN en verrouillant sa ligne jusqu'à la fin de la transaction (SELECT ... FOR UPDATE).
+
+    Livre findByISBNPourMiseAJour(String isbn) throws SQLException;
+
+    // Marque le livre emprunté s'il est encore disponible ; retourne false sinon.
+
+    boolean marquerEmprunte(String isbn) throws SQLException;
+
+    // Marque le livre disponible ; retourne false s'il l'était déjà.
+
+    boolean marquerDisponible(String isbn) throws SQLException;
+
     //Vérifie si un livre avec cet ISBN existe déjà
   
     boolean existsByISBN(String isbn) throws SQLException;
+
+    // Retourne, parmi les ISBN donnés, ceux déjà présents (requêtes IN par tranches).
+
+    Set<String> findIsbnsExistants(Collection<String> isbns) throws SQLException;
 }
 
 
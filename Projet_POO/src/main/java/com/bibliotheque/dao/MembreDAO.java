@@ -2,16 +2,31 @@ package com.bibliotheque.dao;
 
 import com.bibliotheque.model.Membre;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 public interface MembreDAO extends DAO<Membre> {
    
-    void save(Membre membre) throws SQLException();
-    void update(Membre membre) throws SQLException();
-    void delete(int id) throws SQLException();
+    // Recherche un membre par son identifiant numérique.
+
+    Membre findByIntId(int id) throws SQLException;
+
+    // Recherche un membre par id en verrouillant sa ligne jusqu'à la fin de la transaction (SELECT ... FOR UPDATE).
+
+    Membre findByIntIdPourMiseAJour(int id) throws SQLException;
+
+    void delete(int id) throws SQLException;
+
+    // Active ou désactive les membres donnés par lots, sans les relire.
+
+    ResultatLot changerStatut(Collection<Integer> ids, boolean actif) throws SQLException;
 
     Membre findByEmail(String email) throws SQLException;
 
+    // Recherche par préfixe sur le nom, le prénom ou l'email (ou "prénom nom"), triée par nom, au plus limite membres.
+
+    List<Membre> rechercher(String critere, int limite) throws SQLException;
+
     /**
      * Récupère tous les membres actifs.
      * return une liste de membres actifs
@@ -0,0 +1,71 @@
+package com.bibliotheque.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page de résultats d'une pagination par clé (keyset).
+ *
+ * La page suivante se demande avec {@link #getCleSuivante()} : le DAO reprend
+ * juste après cette clé au lieu de sauter un OFFSET, le coût d'une page reste
+ * donc constant quelle que soit sa position dans la table.
+ *
+ * @param <T> le type des éléments
+ */
+public class Page<T> {
+    /** Taille maximale d'une page, quelle que soit la taille demandée. */
+    public static final int TAILLE_MAX = 500;
+
+    private final List<T> elements;
+    private final String cleSuivante;
+
+    public Page(List<T> elements, String cleSuivante) {
+        this.elements = Collections.unmodifiableList(elements);
+        this.cleSuivante = cleSuivante;
+    }
+
+    /**
+     * Construit une page à partir de lignes lues avec une limite de {@code taille + 1} :
+     * la ligne supplémentaire indique seulement qu'une page suivante existe.
+     *
+     * @param lignes les lignes lues (au plus taille + 1)
+     * @param taille la taille de page demandée
+     * @param cle    extrait la clé de pagination d'un élément
+     * @return la page
+     */
+    public static <T> Page<T> depuis(List<T> lignes, int taille, Function<T, String> cle) {
+        if (lignes.size() <= taille) {
+            return new Page<>(lignes, null);
+        }
+        List<T> elements = lignes.subList(0, taille);
+        return new Page<>(elements, cle.apply(elements.get(taille - 1)));
+    }
+
+    /**
+     * Ramène une taille demandée dans l'intervalle [1, TAILLE_MAX].
+     *
+     * @param taille la taille demandée
+     * @return la taille effective
+     */
+    public static int bornerTaille(int taille) {
+        return Math.max(1, Math.min(TAILLE_MAX, taille));
+    }
+
+    public List<T> getElements() {
+        return elements;
+    }
+
+    /**
+     * Retourne la clé à passer pour obtenir la page suivante.
+     *
+     * @return la clé de continuation, ou null s'il s'agit de la dernière page
+     */
+    public String getCleSuivante() {
+        return cleSuivante;
+    }
+
+    public boolean aSuivante() {
+        return cleSuivante != null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.bibliotheque.dao;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Résultat ligne par ligne d'une écriture par lots (saveAll / updateAll).
+ * Les indices correspondent à l'ordre d'itération de la collection fournie.
+ */
+public class ResultatLot {
+
+    /**
+     * Échec d'une ligne du lot.
+     */
+    public static class Echec {
+        private final int index;
+        private final String message;
+
+        public Echec(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "ligne " + index + " : " + message;
+        }
+    }
+
+    private final int total;
+    private final BitSet enEchec = new BitSet();
+    private final List<Echec> echecs = new ArrayList<>();
+
+    public ResultatLot(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Enregistre l'échec d'une ligne.
+     *
+     * @param index   l'indice de la ligne dans la collection
+     * @param message la raison de l'échec
+     */
+    public void ajouterEchec(int index, String message) {
+        if (!enEchec.get(index)) {
+            enEchec.set(index);
+            echecs.add(new Echec(index, message));
+        }
+    }
+
+    public boolean estReussie(int index) {
+        return index >= 0 && index < total && !enEchec.get(index);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getNombreSucces() {
+        return total - echecs.size();
+    }
+
+    public List<Echec> getEchecs() {
+        return Collections.unmodifiableList(echecs);
+    }
+
+    @Override
+    public String toString() {
+        return "ResultatLot{total=" + total + ", succes=" + getNombreSucces() + ", echecs=" + echecs.size() + '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.bibliotheque.dao;
+
+import com.bibliotheque.model.Statistiques;
+import java.sql.SQLException;
+
+// Interface DAO pour les statistiques agrégées de la bibliothèque.
+
+public interface StatistiquesDAO {
+    // Calcule tous les compteurs en une seule requête d'agrégation, sans charger de lignes.
+
+    Statistiques calculer() throws SQLException;
+}
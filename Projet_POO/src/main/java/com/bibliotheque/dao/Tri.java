@@ -0,0 +1,48 @@
+package com.bibliotheque.dao;
+
+import java.util.Objects;
+
+/**
+ * Ordre de tri d'une fenêtre de résultats ({@link DAO#findFenetre}) : une colonne, désignée
+ * par un nom propre à chaque DAO, et un sens. Les ex aequo sont départagés par la clé
+ * primaire, dans le même sens, ce qui rend l'ordre total et la reprise par clé possible.
+ */
+public final class Tri {
+    private final String colonne;
+    private final boolean croissant;
+
+    public Tri(String colonne, boolean croissant) {
+        this.colonne = Objects.requireNonNull(colonne, "colonne");
+        this.croissant = croissant;
+    }
+
+    public String getColonne() {
+        return colonne;
+    }
+
+    public boolean isCroissant() {
+        return croissant;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Tri)) {
+            return false;
+        }
+        Tri autre = (Tri) o;
+        return croissant == autre.croissant && colonne.equals(autre.colonne);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(colonne, croissant);
+    }
+
+    @Override
+    public String toString() {
+        return colonne + (croissant ? " ASC" : " DESC");
+    }
+}
@@ -0,0 +1,172 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.util.DatabaseConnection;
+import com.bibliotheque.util.TransactionManager;
+import com.bibliotheque.util.TransactionManager.Propagation;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exécute une requête d'écriture sur une collection d'entités par lots JDBC.
+ *
+ * Chaque tranche de {@code tailleLot} lignes est envoyée avec addBatch/executeBatch dans
+ * une transaction NESTED ({@link TransactionManager}) : hors transaction, un commit par tranche ;
+ * dans une transaction ouverte par l'appelant, un point de sauvegarde par tranche et un seul
+ * commit, celui de l'appelant. Avec rewriteBatchedStatements=true, Connector/J regroupe les
+ * INSERT d'une tranche en un INSERT multi-lignes.
+ *
+ * Si une tranche échoue, elle est annulée puis rejouée ligne par ligne (chaque ligne dans sa
+ * propre transaction NESTED) afin d'identifier précisément les lignes en erreur ; les autres
+ * lignes de la tranche sont conservées.
+ *
+ * Pour un INSERT, les identifiants générés peuvent être reportés sur les entités, comme le fait
+ * un save() unitaire : par position dans la tranche, ou ligne par ligne lors du rejeu.
+ */
+final class BatchExecutor {
+
+    private BatchExecutor() {}
+
+    /**
+     * Lie les paramètres d'une entité au statement.
+     */
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement stmt, T entite) throws SQLException;
+    }
+
+    /**
+     * Reporte sur une entité insérée l'identifiant généré par la base.
+     */
+    @FunctionalInterface
+    interface ReceveurCle<T> {
+        void recevoir(T entite, int cle);
+    }
+
+    /**
+     * Exécute la requête pour chaque entité, par tranches transactionnelles.
+     *
+     * @param sql                 la requête paramétrée (INSERT ou UPDATE)
+     * @param entites             les entités à écrire
+     * @param tailleLot           le nombre de lignes par tranche
+     * @param binder              la liaison entité → paramètres
+     * @param ligneAttendue       true si chaque exécution doit affecter une ligne (UPDATE par clé)
+     * @return le résultat ligne par ligne
+     * @throws SQLException en cas d'erreur de connexion ou de transaction
+     */
+    static <T> ResultatLot executer(String sql, Collection<T> entites, int tailleLot,
+                                    Binder<T> binder, boolean ligneAttendue) throws SQLException {
+        return executer(sql, entites, tailleLot, binder, ligneAttendue, null);
+    }
+
+    /**
+     * Comme {@link #executer(String, Collection, int, Binder, boolean)}, en reportant les
+     * identifiants générés sur les entités insérées.
+     *
+     * @param receveurCle reçoit l'identifiant généré de chaque ligne insérée, ou null
+     */
+    static <T> ResultatLot executer(String sql, Collection<T> entites, int tailleLot, Binder<T> binder,
+                                    boolean ligneAttendue, ReceveurCle<T> receveurCle) throws SQLException {
+        if (tailleLot <= 0) {
+            throw new IllegalArgumentException("La taille de lot doit être positive : " + tailleLot);
+        }
+        ResultatLot resultat = new ResultatLot(entites.size());
+        List<T> tranche = new ArrayList<>(Math.min(tailleLot, entites.size()));
+        int debut = 0;
+        for (T entite : entites) {
+            tranche.add(entite);
+            if (tranche.size() == tailleLot) {
+                executerTranche(sql, tranche, debut, binder, ligneAttendue, receveurCle, resultat);
+                debut += tranche.size();
+                tranche.clear();
+            }
+        }
+        if (!tranche.isEmpty()) {
+            executerTranche(sql, tranche, debut, binder, ligneAttendue, receveurCle, resultat);
+        }
+        return resultat;
+    }
+
+    private static <T> void executerTranche(String sql, List<T> tranche, int debut, Binder<T> binder,
+                                            boolean ligneAttendue, ReceveurCle<T> receveurCle,
+                                            ResultatLot resultat) throws SQLException {
+        int[] comptes;
+        try (TransactionManager.Transaction tx = TransactionManager.debuter(Propagation.NESTED);
+             Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = preparer(conn, sql, receveurCle)) {
+            for (T entite : tranche) {
+                binder.bind(stmt, entite);
+                stmt.addBatch();
+            }
+            comptes = stmt.executeBatch();
+            if (receveurCle != null) {
+                // Une clé par ligne insérée, dans l'ordre de la tranche
+                try (ResultSet cles = stmt.getGeneratedKeys()) {
+                    for (int i = 0; i < tranche.size() && cles.next(); i++) {
+                        receveurCle.recevoir(tranche.get(i), cles.getInt(1));
+                    }
+                }
+            }
+            tx.valider();
+        } catch (BatchUpdateException e) {
+            rejouerLigneParLigne(sql, tranche, debut, binder, ligneAttendue, receveurCle, resultat);
+            return;
+        }
+        for (int i = 0; i < comptes.length; i++) {
+            verifierCompte(comptes[i], debut + i, ligneAttendue, resultat);
+        }
+    }
+
+    /**
+     * Rejoue une tranche en échec ligne par ligne, chaque ligne étant validée isolément.
+     */
+    private static <T> void rejouerLigneParLigne(String sql, List<T> tranche, int debut,
+                                                 Binder<T> binder, boolean ligneAttendue,
+                                                 ReceveurCle<T> receveurCle,
+                                                 ResultatLot resultat) throws SQLException {
+        for (int i = 0; i < tranche.size(); i++) {
+            try (TransactionManager.Transaction tx = TransactionManager.debuter(Propagation.NESTED);
+                 Connection conn = DatabaseConnection.getInstance().getConnection();
+                 PreparedStatement stmt = preparer(conn, sql, receveurCle)) {
+                binder.bind(stmt, tranche.get(i));
+                int compte = stmt.executeUpdate();
+                if (receveurCle != null) {
+                    try (ResultSet cles = stmt.getGeneratedKeys()) {
+                        if (cles.next()) {
+                            receveurCle.recevoir(tranche.get(i), cles.getInt(1));
+                        }
+                    }
+                }
+                tx.valider();
+                verifierCompte(compte, debut + i, ligneAttendue, resultat);
+            } catch (SQLException e) {
+                if (TransactionManager.estReessayable(e)) {
+                    throw e;
+                }
+                resultat.ajouterEchec(debut + i, e.getMessage());
+            }
+        }
+    }
+
+    private static <T> PreparedStatement preparer(Connection conn, String sql, ReceveurCle<T> receveurCle)
+            throws SQLException {
+        return receveurCle == null ? conn.prepareStatement(sql)
+                : conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private static void verifierCompte(int compte, int index, boolean ligneAttendue, ResultatLot resultat) {
+        if (compte == Statement.EXECUTE_FAILED) {
+            resultat.ajouterEchec(index, "Échec de l'exécution");
+        } else if (ligneAttendue && compte == 0) {
+            resultat.ajouterEchec(index, "Aucune ligne correspondante");
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.bibliotheque.dao.impl;
 
 import com.bibliotheque.dao.EmpruntDAO;
-import com.bibliotheque.dao.LivreDAO;
-import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.model.Emprunt;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.model.Membre;
@@ -11,37 +12,100 @@ import com.bibliotheque.util.DatabaseConnection;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Implémentation DAO pour les emprunts avec MySQL.
+ *
+ * Les lectures chargent l'emprunt, son livre et son membre en une seule requête
+ * (jointure emprunts ⋈ livres ⋈ membres) : une liste d'emprunts coûte un seul aller-retour
+ * au lieu de 1 + 2N. Au sein d'un même résultat, un livre ou un membre présent sur plusieurs
+ * lignes n'est instancié qu'une fois.
  */
 public class EmpruntDAOImpl implements EmpruntDAO {
 
-    private final LivreDAO livreDAO;
-    private final MembreDAO membreDAO;
+    private static final String SELECT_JOINTURE =
+            "SELECT e.id, e.isbn, e.membre_id, e.date_emprunt, e.date_retour_prevue, " +
+            "e.date_retour_effective, e.penalite, " +
+            "l.titre, l.auteur, l.annee_publication, l.disponible, " +
+            "m.nom, m.prenom, m.email, m.actif, m.date_inscription " +
+            "FROM emprunts e " +
+            "JOIN livres l ON l.isbn = e.isbn " +
+            "JOIN membres m ON m.id = e.membre_id";
 
-    /**
-     * Constructeur avec injection des dépendances.
-     *
-     * @param livreDAO   le DAO des livres
-     * @param membreDAO  le DAO des membres
-     */
-    public EmpruntDAOImpl(LivreDAO livreDAO, MembreDAO membreDAO) {
-        this.livreDAO = livreDAO;
-        this.membreDAO = membreDAO;
-    }
+    private static final String INSERT_SQL =
+            "INSERT INTO emprunts (isbn, membre_id, date_emprunt, date_retour_prevue, date_retour_effective, penalite, " +
+            "en_retard) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE emprunts SET isbn = ?, membre_id = ?, date_emprunt = ?, date_retour_prevue = ?, " +
+            "date_retour_effective = ?, penalite = ?, en_retard = ? WHERE id = ?";
+
+    // Requêtes fréquentes, dont le plan est contrôlé par VerificationPlans.
+    static final String FIND_BY_MEMBRE_SQL = SELECT_JOINTURE + " WHERE e.membre_id = ?";
+    static final String FIND_EN_COURS_SQL = SELECT_JOINTURE + " WHERE e.date_retour_effective IS NULL";
+    // Deux parcours d'index disjoints au lieu d'un OR entre colonnes (parcours complet) :
+    // emprunts en cours échus (idx_emprunts_en_cours), emprunts rendus en retard (idx_emprunts_en_retard).
+    static final String FIND_EN_RETARD_SQL =
+            SELECT_JOINTURE + " WHERE e.date_retour_effective IS NULL AND e.date_retour_prevue < CURDATE() " +
+            "UNION ALL " +
+            SELECT_JOINTURE + " WHERE e.en_retard = TRUE AND e.date_retour_effective IS NOT NULL";
+    static final String COUNT_EN_COURS_SQL =
+            "SELECT COUNT(*) FROM emprunts WHERE membre_id = ? AND date_retour_effective IS NULL";
+
+    // Colonnes triables des fenêtres (findFenetre) ; date_retour_effective, nullable, ne l'est pas.
+    private static final Map<String, String> COLONNES_TRI = Map.of(
+            "id", "e.id",
+            "livre", "l.titre",
+            "membre", "m.nom",
+            "date_emprunt", "e.date_emprunt",
+            "date_retour_prevue", "e.date_retour_prevue",
+            "penalite", "e.penalite");
+
+    /** Nombre maximal de livres/membres gardés en mémoire pour le partage d'instances en streaming. */
+    private static final int IDENTITE_MAX_STREAMING = 1024;
 
     /**
-     * Mappe un ResultSet à un objet Emprunt.
+     * Mappe une ligne de la jointure à un objet Emprunt.
+     * Les livres et membres déjà rencontrés dans le même résultat sont réutilisés.
      *
-     * @param rs le ResultSet
+     * @param rs      le ResultSet positionné sur la ligne
+     * @param livres  les livres déjà instanciés, par ISBN
+     * @param membres les membres déjà instanciés, par id
      * @return l'objet Emprunt
      * @throws SQLException si une erreur SQL survient
      */
-    private Emprunt mapResultSetToEntity(ResultSet rs) throws SQLException {
-        Livre livre = livreDAO.findByISBN(rs.getString("isbn"));
-        Membre membre = membreDAO.findByIntId(rs.getInt("membre_id"));
+    private Emprunt mapResultSetToEntity(ResultSet rs, Map<String, Livre> livres, Map<Integer, Membre> membres)
+            throws SQLException {
+        String isbn = rs.getString("isbn");
+        Livre livre = livres.get(isbn);
+        if (livre == null) {
+            livre = new Livre(
+                    isbn,
+                    rs.getString("titre"),
+                    rs.getString("auteur"),
+                    rs.getInt("annee_publication"),
+                    rs.getBoolean("disponible")
+            );
+            livres.put(isbn, livre);
+        }
+
+        int membreId = rs.getInt("membre_id");
+        Membre membre = membres.get(membreId);
+        if (membre == null) {
+            membre = new Membre(
+                    membreId,
+                    rs.getString("nom"),
+                    rs.getString("prenom"),
+                    rs.getString("email"),
+                    rs.getBoolean("actif"),
+                    rs.getDate("date_inscription").toLocalDate()
+            );
+            membres.put(membreId, membre);
+        }
 
         LocalDate dateRetourEffective = null;
         Date dateRetourEffectiveSQL = rs.getDate("date_retour_effective");
@@ -60,37 +124,76 @@ public class EmpruntDAOImpl implements EmpruntDAO {
         );
     }
 
+    /**
+     * Parcourt un ResultSet de jointure et construit la liste d'emprunts.
+     *
+     * @param rs le ResultSet
+     * @return la liste des emprunts
+     * @throws SQLException si une erreur SQL survient
+     */
+    private List<Emprunt> mapResultSet(ResultSet rs) throws SQLException {
+        List<Emprunt> emprunts = new ArrayList<>();
+        Map<String, Livre> livres = new HashMap<>();
+        Map<Integer, Membre> membres = new HashMap<>();
+        while (rs.next()) {
+            emprunts.add(mapResultSetToEntity(rs, livres, membres));
+        }
+        return emprunts;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Emprunt emprunt) throws SQLException {
+        stmt.setString(1, emprunt.getLivre().getIsbn());
+        stmt.setInt(2, emprunt.getMembre().getId());
+        stmt.setDate(3, Date.valueOf(emprunt.getDateEmprunt()));
+        stmt.setDate(4, Date.valueOf(emprunt.getDateRetourPrevue()));
+
+        if (emprunt.getDateRetourEffective() != null) {
+            stmt.setDate(5, Date.valueOf(emprunt.getDateRetourEffective()));
+        } else {
+            stmt.setNull(5, Types.DATE);
+        }
+
+        stmt.setDouble(6, emprunt.getPenalite());
+        stmt.setBoolean(7, emprunt.estEnRetard());
+    }
+
+    private void bindUpdate(PreparedStatement stmt, Emprunt emprunt) throws SQLException {
+        bindInsert(stmt, emprunt);
+        stmt.setInt(8, emprunt.getId());
+    }
+
     @Override
     public void save(Emprunt emprunt) throws SQLException {
-        String sql = "INSERT INTO emprunts (isbn, membre_id, date_emprunt, date_retour_prevue, date_retour_effective, penalite) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, emprunt.getLivre().getIsbn());
-            stmt.setInt(2, emprunt.getMembre().getId());
-            stmt.setDate(3, Date.valueOf(emprunt.getDateEmprunt()));
-            stmt.setDate(4, Date.valueOf(emprunt.getDateRetourPrevue()));
-
-            if (emprunt.getDateRetourEffective() != null) {
-                stmt.setDate(5, Date.valueOf(emprunt.getDateRetourEffective()));
-            } else {
-                stmt.setNull(5, Types.DATE);
-            }
-
-            stmt.setDouble(6, emprunt.getPenalite());
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, emprunt);
             stmt.executeUpdate();
+            // Identifiant généré reporté sur l'objet
+            try (ResultSet cles = stmt.getGeneratedKeys()) {
+                if (cles.next()) {
+                    emprunt.setId(cles.getInt(1));
+                }
+            }
         }
     }
 
+    @Override
+    public ResultatLot saveAll(Collection<Emprunt> emprunts, int tailleLot) throws SQLException {
+        return BatchExecutor.executer(INSERT_SQL, emprunts, tailleLot, this::bindInsert, false, Emprunt::setId);
+    }
+
     @Override
     public Emprunt findById(String id) throws SQLException {
         try {
             int idInt = Integer.parseInt(id);
-            String sql = "SELECT * FROM emprunts WHERE id = ?";
-            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            String sql = SELECT_JOINTURE + " WHERE e.id = ?";
+            try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, idInt);
                 try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        return mapResultSetToEntity(rs);
+                    List<Emprunt> emprunts = mapResultSet(rs);
+                    if (!emprunts.isEmpty()) {
+                        return emprunts.get(0);
                     }
                 }
             }
@@ -102,63 +205,127 @@ public class EmpruntDAOImpl implements EmpruntDAO {
 
     @Override
     public List<Emprunt> findAll() throws SQLException {
-        List<Emprunt> emprunts = new ArrayList<>();
-        String sql = "SELECT * FROM emprunts";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        String sql = SELECT_JOINTURE;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                emprunts.add(mapResultSetToEntity(rs));
+            return mapResultSet(rs);
+        }
+    }
+
+    @Override
+    public Stream<Emprunt> streamAll() throws SQLException {
+        // Table d'identité bornée : le flux garde une empreinte mémoire fixe.
+        Map<String, Livre> livres = new HashMap<>();
+        Map<Integer, Membre> membres = new HashMap<>();
+        return ResultSetStream.of(SELECT_JOINTURE, rs -> {
+            if (livres.size() > IDENTITE_MAX_STREAMING || membres.size() > IDENTITE_MAX_STREAMING) {
+                livres.clear();
+                membres.clear();
+            }
+            return mapResultSetToEntity(rs, livres, membres);
+        });
+    }
+
+    @Override
+    public Page<Emprunt> findPage(String apresCle, int taille) throws SQLException {
+        int limite = Page.bornerTaille(taille);
+        String sql = apresCle == null
+                ? SELECT_JOINTURE + " ORDER BY e.id LIMIT ?"
+                : SELECT_JOINTURE + " WHERE e.id > ? ORDER BY e.id LIMIT ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (apresCle != null) {
+                stmt.setInt(index++, parseCle(apresCle));
+            }
+            stmt.setInt(index, limite + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return Page.depuis(mapResultSet(rs), limite, e -> String.valueOf(e.getId()));
             }
         }
-        return emprunts;
+    }
+
+    @Override
+    public int count() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM emprunts")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Emprunt> findFenetre(Tri tri, Emprunt apres, int debut, int taille) throws SQLException {
+        FenetreSQL fenetre = new FenetreSQL(COLONNES_TRI, tri, "id");
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_JOINTURE + fenetre.clauses(apres != null))) {
+            fenetre.lier(stmt, apres == null ? null : valeurTri(apres, fenetre.getNomColonne()),
+                    apres == null ? null : apres.getId(), debut, taille);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return mapResultSet(rs);
+            }
+        }
+    }
+
+    private Object valeurTri(Emprunt emprunt, String colonne) {
+        switch (colonne) {
+            case "livre":
+                return emprunt.getLivre().getTitre();
+            case "membre":
+                return emprunt.getMembre().getNom();
+            case "date_emprunt":
+                return Date.valueOf(emprunt.getDateEmprunt());
+            case "date_retour_prevue":
+                return Date.valueOf(emprunt.getDateRetourPrevue());
+            case "penalite":
+                return emprunt.getPenalite();
+            default:
+                return emprunt.getId();
+        }
+    }
+
+    private int parseCle(String cle) throws SQLException {
+        try {
+            return Integer.parseInt(cle);
+        } catch (NumberFormatException e) {
+            throw new SQLException("Clé de pagination invalide : " + cle);
+        }
     }
 
     @Override
     public List<Emprunt> findByMembre(int membreId) throws SQLException {
-        List<Emprunt> emprunts = new ArrayList<>();
-        String sql = "SELECT * FROM emprunts WHERE membre_id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_MEMBRE_SQL)) {
             stmt.setInt(1, membreId);
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    emprunts.add(mapResultSetToEntity(rs));
-                }
+                return mapResultSet(rs);
             }
         }
-        return emprunts;
     }
 
     @Override
     public List<Emprunt> findEnCours() throws SQLException {
-        List<Emprunt> emprunts = new ArrayList<>();
-        String sql = "SELECT * FROM emprunts WHERE date_retour_effective IS NULL";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_EN_COURS_SQL);
              ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                emprunts.add(mapResultSetToEntity(rs));
-            }
+            return mapResultSet(rs);
         }
-        return emprunts;
     }
 
     @Override
     public List<Emprunt> findEnRetard() throws SQLException {
-        List<Emprunt> emprunts = new ArrayList<>();
-        String sql = "SELECT * FROM emprunts WHERE date_retour_effective > date_retour_prevue " +
-                "OR (date_retour_effective IS NULL AND date_retour_prevue < CURDATE())";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_EN_RETARD_SQL);
              ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                emprunts.add(mapResultSetToEntity(rs));
-            }
+            return mapResultSet(rs);
         }
-        return emprunts;
     }
 
     @Override
     public int countEmpruntsEnCours(int membreId) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM emprunts WHERE membre_id = ? AND date_retour_effective IS NULL";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_EN_COURS_SQL)) {
             stmt.setInt(1, membreId);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -170,33 +337,77 @@ public class EmpruntDAOImpl implements EmpruntDAO {
     }
 
     @Override
-    public void update(Emprunt emprunt) throws SQLException {
-        String sql = "UPDATE emprunts SET isbn = ?, membre_id = ?, date_emprunt = ?, date_retour_prevue = ?, " +
-                "date_retour_effective = ?, penalite = ? WHERE id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, emprunt.getLivre().getIsbn());
-            stmt.setInt(2, emprunt.getMembre().getId());
-            stmt.setDate(3, Date.valueOf(emprunt.getDateEmprunt()));
-            stmt.setDate(4, Date.valueOf(emprunt.getDateRetourPrevue()));
-
-            if (emprunt.getDateRetourEffective() != null) {
-                stmt.setDate(5, Date.valueOf(emprunt.getDateRetourEffective()));
-            } else {
-                stmt.setNull(5, Types.DATE);
-            }
+    public boolean enregistrerRetour(Emprunt emprunt) throws SQLException {
+        String sql = "UPDATE emprunts SET date_retour_effective = ?, penalite = ?, en_retard = ? " +
+                "WHERE id = ? AND date_retour_effective IS NULL";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(emprunt.getDateRetourEffective()));
+            stmt.setDouble(2, emprunt.getPenalite());
+            stmt.setBoolean(3, emprunt.estEnRetard());
+            stmt.setInt(4, emprunt.getId());
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
+    @Override
+    public int findIdMax() throws SQLException {
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM emprunts";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
 
-            stmt.setDouble(6, emprunt.getPenalite());
-            stmt.setInt(7, emprunt.getId());
+    /**
+     * Une seule instruction ensembliste par plage d'identifiants (parcours de la clé primaire).
+     * La pénalité est recalculée à partir des dates, pas incrémentée : rejouer la même plage à la
+     * même date ne change rien, et les lignes déjà à jour ne sont pas réécrites.
+     * Le passage quotidien marque aussi les emprunts devenus en retard (colonne en_retard).
+     */
+    @Override
+    public int appliquerPenalitesRetard(int apresId, int jusquaId, LocalDate dateReference, double penaliteParJour)
+            throws SQLException {
+        String sql = "UPDATE emprunts SET penalite = (TO_DAYS(?) - TO_DAYS(date_retour_prevue)) * ?, " +
+                "en_retard = TRUE " +
+                "WHERE id > ? AND id <= ? AND date_retour_effective IS NULL AND date_retour_prevue < ? " +
+                "AND (penalite <> (TO_DAYS(?) - TO_DAYS(date_retour_prevue)) * ? OR en_retard = FALSE)";
+        Date reference = Date.valueOf(dateReference);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, reference);
+            stmt.setDouble(2, penaliteParJour);
+            stmt.setInt(3, apresId);
+            stmt.setInt(4, jusquaId);
+            stmt.setDate(5, reference);
+            stmt.setDate(6, reference);
+            stmt.setDouble(7, penaliteParJour);
+            return stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public void update(Emprunt emprunt) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(stmt, emprunt);
             stmt.executeUpdate();
         }
     }
 
+    @Override
+    public ResultatLot updateAll(Collection<Emprunt> emprunts, int tailleLot) throws SQLException {
+        return BatchExecutor.executer(UPDATE_SQL, emprunts, tailleLot, this::bindUpdate, true);
+    }
+
     @Override
     public void delete(String id) throws SQLException {
         try {
             int idInt = Integer.parseInt(id);
             String sql = "DELETE FROM emprunts WHERE id = ?";
-            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, idInt);
                 stmt.executeUpdate();
             }
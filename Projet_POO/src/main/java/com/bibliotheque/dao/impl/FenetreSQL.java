@@ -0,0 +1,94 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.Tri;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Fin de requête (WHERE, ORDER BY, LIMIT) d'une fenêtre triée, commune aux DAO.
+ *
+ * À la suite d'une fenêtre déjà lue, la lecture reprend après son dernier élément
+ * (pagination par clé : {@code WHERE col > ? OR (col = ? AND cle > ?)}), au coût d'une
+ * page quelle que soit sa position. Sans élément de reprise (saut direct à une position),
+ * elle utilise OFFSET. Les colonnes triables sont listées par chaque DAO, qui ne transmet
+ * jamais de nom de colonne fourni par l'appelant.
+ */
+final class FenetreSQL {
+    private final String colonne;
+    private final String cle;
+    private final String nomColonne;
+    private final boolean croissant;
+
+    /**
+     * @param colonnes les colonnes triables : nom logique vers expression SQL (non nulle)
+     * @param tri      le tri demandé, ou null pour la clé primaire croissante
+     * @param cle      le nom logique de la clé primaire (présent dans colonnes)
+     * @throws SQLException si la colonne de tri n'est pas triable
+     */
+    FenetreSQL(Map<String, String> colonnes, Tri tri, String cle) throws SQLException {
+        this.nomColonne = tri == null ? cle : tri.getColonne();
+        this.colonne = colonnes.get(nomColonne);
+        if (colonne == null) {
+            throw new SQLException("Colonne de tri inconnue : " + nomColonne);
+        }
+        this.cle = colonnes.get(cle);
+        this.croissant = tri == null || tri.isCroissant();
+    }
+
+    /**
+     * @return le nom logique de la colonne de tri
+     */
+    String getNomColonne() {
+        return nomColonne;
+    }
+
+    /**
+     * @param reprise true si la lecture reprend après un élément connu
+     * @return la fin de requête, à ajouter à un SELECT sans WHERE
+     */
+    String clauses(boolean reprise) {
+        String sens = croissant ? " ASC" : " DESC";
+        String comparaison = croissant ? " > ?" : " < ?";
+        StringBuilder sql = new StringBuilder();
+        if (reprise) {
+            if (colonne.equals(cle)) {
+                sql.append(" WHERE ").append(cle).append(comparaison);
+            } else {
+                sql.append(" WHERE (").append(colonne).append(comparaison)
+                        .append(" OR (").append(colonne).append(" = ? AND ").append(cle).append(comparaison).append("))");
+            }
+        }
+        sql.append(" ORDER BY ").append(colonne).append(sens);
+        if (!colonne.equals(cle)) {
+            sql.append(", ").append(cle).append(sens);
+        }
+        sql.append(reprise ? " LIMIT ?" : " LIMIT ? OFFSET ?");
+        return sql.toString();
+    }
+
+    /**
+     * Lie les paramètres de {@link #clauses(boolean)}.
+     *
+     * @param valeurTri la valeur de la colonne de tri de l'élément de reprise (ignorée sans reprise)
+     * @param valeurCle la clé primaire de l'élément de reprise, ou null sans reprise
+     * @param debut     la position de départ, utilisée sans reprise
+     * @param taille    la taille de la fenêtre, bornée à Page.TAILLE_MAX
+     */
+    void lier(PreparedStatement stmt, Object valeurTri, Object valeurCle, int debut, int taille) throws SQLException {
+        int index = 1;
+        if (valeurCle != null) {
+            if (!colonne.equals(cle)) {
+                stmt.setObject(index++, valeurTri);
+                stmt.setObject(index++, valeurTri);
+            }
+            stmt.setObject(index++, valeurCle);
+            stmt.setInt(index, Page.bornerTaille(taille));
+        } else {
+            stmt.setInt(index++, Page.bornerTaille(taille));
+            stmt.setInt(index, Math.max(0, debut));
+        }
+    }
+}
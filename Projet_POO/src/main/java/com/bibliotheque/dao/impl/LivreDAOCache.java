@@ -0,0 +1,237 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.Tri;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.util.CacheLRU;
+import com.bibliotheque.util.TransactionManager;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur de {@link LivreDAO} avec un cache des livres par ISBN (lecture traversante).
+ *
+ * Seules les recherches par ISBN passent par le cache ; les listes et recherches sont
+ * déléguées telles quelles. Cohérence :
+ * - toute écriture (save, update, delete, lots, changement de disponibilité) invalide l'ISBN
+ *   concerné une fois exécutée, puis de nouveau à la fin de la transaction éventuelle, quand
+ *   l'écriture devient visible des autres connexions ;
+ * - dans une transaction, le cache n'est ni lu ni alimenté : la transaction voit ses propres
+ *   écritures et ses verrous (FOR UPDATE) ;
+ * - une lecture concurrente d'une invalidation n'est pas insérée (voir {@link CacheLRU}) ;
+ * - les instances retournées sont des copies : les modifier n'altère pas le cache.
+ *
+ * Taille et durée de vie : -Dbibliotheque.cache.livres.taille (10000 par défaut) et
+ * -Dbibliotheque.cache.livres.ttlMs (5 minutes par défaut, 0 = sans expiration), la durée
+ * de vie bornant l'écart avec des écritures faites hors de l'application.
+ */
+public class LivreDAOCache implements LivreDAO {
+    private static final int TAILLE_DEFAUT = Integer.getInteger("bibliotheque.cache.livres.taille", 10_000);
+    private static final long TTL_DEFAUT_MS = Long.getLong("bibliotheque.cache.livres.ttlMs", 300_000L);
+
+    private final LivreDAO delegue;
+    private final CacheLRU<String, Livre> cache;
+
+    public LivreDAOCache(LivreDAO delegue) {
+        this(delegue, TAILLE_DEFAUT, TTL_DEFAUT_MS);
+    }
+
+    /**
+     * @param delegue  le DAO interrogé en cas de défaut de cache
+     * @param capacite le nombre maximal de livres en cache
+     * @param ttlMs    la durée de vie d'une entrée (0 = sans expiration)
+     */
+    public LivreDAOCache(LivreDAO delegue, int capacite, long ttlMs) {
+        this.delegue = delegue;
+        this.cache = new CacheLRU<>("livres", capacite, ttlMs);
+    }
+
+    /**
+     * Retourne le cache (statistiques, vidage manuel).
+     */
+    public CacheLRU<String, Livre> getCache() {
+        return cache;
+    }
+
+    private static Livre copier(Livre livre) {
+        return new Livre(livre.getIsbn(), livre.getTitre(), livre.getAuteur(),
+                livre.getAnneePublication(), livre.isDisponible());
+    }
+
+    private void invalider(String isbn) {
+        cache.invalider(isbn);
+        if (TransactionManager.estActive()) {
+            TransactionManager.apresTerminaison(() -> cache.invalider(isbn));
+        }
+    }
+
+    private void invaliderTous(Collection<Livre> livres) {
+        for (Livre livre : livres) {
+            invalider(livre.getIsbn());
+        }
+    }
+
+    @Override
+    public Livre findByISBN(String isbn) throws SQLException {
+        if (isbn == null || TransactionManager.estActive()) {
+            return delegue.findByISBN(isbn);
+        }
+        Livre enCache = cache.get(isbn);
+        if (enCache != null) {
+            return copier(enCache);
+        }
+        long version = cache.version();
+        long debut = System.nanoTime();
+        Livre livre = delegue.findByISBN(isbn);
+        cache.getCompteurs().chargement(System.nanoTime() - debut);
+        if (livre != null) {
+            cache.mettreSiInchange(isbn, copier(livre), version);
+        }
+        return livre;
+    }
+
+    @Override
+    public Livre findById(String isbn) throws SQLException {
+        return findByISBN(isbn);
+    }
+
+    @Override
+    public boolean existsByISBN(String isbn) throws SQLException {
+        return findByISBN(isbn) != null;
+    }
+
+    @Override
+    public Set<String> findIsbnsExistants(Collection<String> isbns) throws SQLException {
+        if (TransactionManager.estActive()) {
+            return delegue.findIsbnsExistants(isbns);
+        }
+        List<String> inconnus = new ArrayList<>();
+        List<String> connus = new ArrayList<>();
+        for (String isbn : isbns) {
+            (cache.contient(isbn) ? connus : inconnus).add(isbn);
+        }
+        Set<String> existants = delegue.findIsbnsExistants(inconnus);
+        existants.addAll(connus);
+        return existants;
+    }
+
+    @Override
+    public Livre findByISBNPourMiseAJour(String isbn) throws SQLException {
+        return delegue.findByISBNPourMiseAJour(isbn);
+    }
+
+    @Override
+    public boolean marquerEmprunte(String isbn) throws SQLException {
+        try {
+            return delegue.marquerEmprunte(isbn);
+        } finally {
+            invalider(isbn);
+        }
+    }
+
+    @Override
+    public boolean marquerDisponible(String isbn) throws SQLException {
+        try {
+            return delegue.marquerDisponible(isbn);
+        } finally {
+            invalider(isbn);
+        }
+    }
+
+    @Override
+    public void save(Livre livre) throws SQLException {
+        try {
+            delegue.save(livre);
+        } finally {
+            invalider(livre.getIsbn());
+        }
+    }
+
+    @Override
+    public ResultatLot saveAll(Collection<Livre> livres, int tailleLot) throws SQLException {
+        try {
+            return delegue.saveAll(livres, tailleLot);
+        } finally {
+            invaliderTous(livres);
+        }
+    }
+
+    @Override
+    public void update(Livre livre) throws SQLException {
+        try {
+            delegue.update(livre);
+        } finally {
+            invalider(livre.getIsbn());
+        }
+    }
+
+    @Override
+    public ResultatLot updateAll(Collection<Livre> livres, int tailleLot) throws SQLException {
+        try {
+            return delegue.updateAll(livres, tailleLot);
+        } finally {
+            invaliderTous(livres);
+        }
+    }
+
+    @Override
+    public void delete(String isbn) throws SQLException {
+        try {
+            delegue.delete(isbn);
+        } finally {
+            invalider(isbn);
+        }
+    }
+
+    @Override
+    public List<Livre> findAll() throws SQLException {
+        return delegue.findAll();
+    }
+
+    @Override
+    public Page<Livre> findPage(String apresCle, int taille) throws SQLException {
+        return delegue.findPage(apresCle, taille);
+    }
+
+    @Override
+    public int count() throws SQLException {
+        return delegue.count();
+    }
+
+    @Override
+    public List<Livre> findFenetre(Tri tri, Livre apres, int debut, int taille) throws SQLException {
+        return delegue.findFenetre(tri, apres, debut, taille);
+    }
+
+    @Override
+    public Stream<Livre> streamAll() throws SQLException {
+        return delegue.streamAll();
+    }
+
+    @Override
+    public List<Livre> findByAuteur(String auteur) throws SQLException {
+        return delegue.findByAuteur(auteur);
+    }
+
+    @Override
+    public List<Livre> findByTitre(String titre) throws SQLException {
+        return delegue.findByTitre(titre);
+    }
+
+    @Override
+    public List<Livre> rechercher(String critere, int limite) throws SQLException {
+        return delegue.rechercher(critere, limite);
+    }
+
+    @Override
+    public List<Livre> findDisponibles() throws SQLException {
+        return delegue.findDisponibles();
+    }
+}
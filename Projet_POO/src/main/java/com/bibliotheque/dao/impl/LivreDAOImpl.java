@@ -1,18 +1,65 @@
 package com.bibliotheque.dao.impl;
 
 import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Implémentation DAO pour les livres avec MySQL.
  */
 public class LivreDAOImpl implements LivreDAO {
 
+    private static final String INSERT_SQL =
+            "INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE livres SET titre = ?, auteur = ?, annee_publication = ?, disponible = ? WHERE isbn = ?";
+    private static final int TAILLE_IN_MAX = 1000;
+
+    // Colonnes triables des fenêtres (findFenetre) : nom logique vers colonne SQL.
+    private static final Map<String, String> COLONNES_TRI = Map.of(
+            "isbn", "isbn",
+            "titre", "titre",
+            "auteur", "auteur",
+            "annee_publication", "annee_publication",
+            "disponible", "disponible");
+
+    // Requêtes fréquentes, dont le plan est contrôlé par VerificationPlans.
+    static final String FIND_BY_ISBN_SQL = "SELECT * FROM livres WHERE isbn = ?";
+    // Colonnes toutes présentes dans idx_livres_disponible : lecture de l'index seul.
+    static final String FIND_DISPONIBLES_SQL =
+            "SELECT isbn, titre, auteur, annee_publication, disponible FROM livres " +
+            "WHERE disponible = true ORDER BY isbn";
+
+    /** Longueur minimale d'un mot indexé par FULLTEXT (innodb_ft_min_token_size). */
+    private static final int LONGUEUR_MOT_FULLTEXT = Integer.getInteger("bibliotheque.recherche.longueurMinMot", 3);
+    private static final Pattern MOT = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int ERREUR_MYSQL_SANS_INDEX_FULLTEXT = 1191;
+
+    /** Délai avant de retenter l'index FULLTEXT après une erreur 1191 (index absent, ajouté par une migration). */
+    private static final long DELAI_NOUVEL_ESSAI_FULLTEXT_NANOS =
+            TimeUnit.MINUTES.toNanos(Integer.getInteger("bibliotheque.recherche.delaiFulltextMinutes", 10));
+
+    /** true si la base est H2 (pas de MATCH ... AGAINST), lu une fois ; null tant qu'inconnu. */
+    private static volatile Boolean baseH2;
+    /** Instant (System.nanoTime) à partir duquel l'index FULLTEXT peut être utilisé. */
+    private static volatile long prochainEssaiFulltext = System.nanoTime();
+
     /**
      * Mappe un ResultSet à un objet Livre.
      *
@@ -30,19 +77,36 @@ public class LivreDAOImpl implements LivreDAO {
         );
     }
 
+    private void bindInsert(PreparedStatement stmt, Livre livre) throws SQLException {
+        stmt.setString(1, livre.getIsbn());
+        stmt.setString(2, livre.getTitre());
+        stmt.setString(3, livre.getAuteur());
+        stmt.setInt(4, livre.getAnneePublication());
+        stmt.setBoolean(5, livre.isDisponible());
+    }
+
+    private void bindUpdate(PreparedStatement stmt, Livre livre) throws SQLException {
+        stmt.setString(1, livre.getTitre());
+        stmt.setString(2, livre.getAuteur());
+        stmt.setInt(3, livre.getAnneePublication());
+        stmt.setBoolean(4, livre.isDisponible());
+        stmt.setString(5, livre.getIsbn());
+    }
+
     @Override
     public void save(Livre livre) throws SQLException {
-        String sql = "INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, livre.getIsbn());
-            stmt.setString(2, livre.getTitre());
-            stmt.setString(3, livre.getAuteur());
-            stmt.setInt(4, livre.getAnneePublication());
-            stmt.setBoolean(5, livre.isDisponible());
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            bindInsert(stmt, livre);
             stmt.executeUpdate();
         }
     }
 
+    @Override
+    public ResultatLot saveAll(Collection<Livre> livres, int tailleLot) throws SQLException {
+        return BatchExecutor.executer(INSERT_SQL, livres, tailleLot, this::bindInsert, false);
+    }
+
     @Override
     public Livre findById(String isbn) throws SQLException {
         return findByISBN(isbn);
@@ -50,8 +114,23 @@ public class LivreDAOImpl implements LivreDAO {
 
     @Override
     public Livre findByISBN(String isbn) throws SQLException {
-        String sql = "SELECT * FROM livres WHERE isbn = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ISBN_SQL)) {
+            stmt.setString(1, isbn);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToEntity(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Livre findByISBNPourMiseAJour(String isbn) throws SQLException {
+        String sql = "SELECT * FROM livres WHERE isbn = ? FOR UPDATE";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, isbn);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -62,11 +141,37 @@ public class LivreDAOImpl implements LivreDAO {
         return null;
     }
 
+    @Override
+    public boolean marquerEmprunte(String isbn) throws SQLException {
+        return changerDisponibilite(isbn, false);
+    }
+
+    @Override
+    public boolean marquerDisponible(String isbn) throws SQLException {
+        return changerDisponibilite(isbn, true);
+    }
+
+    /**
+     * Mise à jour conditionnelle : ne modifie la ligne que si la disponibilité change,
+     * ce qui empêche deux emprunts concurrents du même exemplaire.
+     */
+    private boolean changerDisponibilite(String isbn, boolean disponible) throws SQLException {
+        String sql = "UPDATE livres SET disponible = ? WHERE isbn = ? AND disponible = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBoolean(1, disponible);
+            stmt.setString(2, isbn);
+            stmt.setBoolean(3, !disponible);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+
     @Override
     public List<Livre> findAll() throws SQLException {
         List<Livre> livres = new ArrayList<>();
         String sql = "SELECT * FROM livres";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 livres.add(mapResultSetToEntity(rs));
@@ -75,11 +180,81 @@ public class LivreDAOImpl implements LivreDAO {
         return livres;
     }
 
+    @Override
+    public Stream<Livre> streamAll() throws SQLException {
+        return ResultSetStream.of("SELECT * FROM livres", this::mapResultSetToEntity);
+    }
+
+    @Override
+    public Page<Livre> findPage(String apresCle, int taille) throws SQLException {
+        int limite = Page.bornerTaille(taille);
+        String sql = apresCle == null
+                ? "SELECT * FROM livres ORDER BY isbn LIMIT ?"
+                : "SELECT * FROM livres WHERE isbn > ? ORDER BY isbn LIMIT ?";
+        List<Livre> livres = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (apresCle != null) {
+                stmt.setString(index++, apresCle);
+            }
+            stmt.setInt(index, limite + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    livres.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        return Page.depuis(livres, limite, Livre::getIsbn);
+    }
+
+    @Override
+    public int count() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM livres")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Livre> findFenetre(Tri tri, Livre apres, int debut, int taille) throws SQLException {
+        FenetreSQL fenetre = new FenetreSQL(COLONNES_TRI, tri, "isbn");
+        List<Livre> livres = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM livres" + fenetre.clauses(apres != null))) {
+            fenetre.lier(stmt, apres == null ? null : valeurTri(apres, fenetre.getNomColonne()),
+                    apres == null ? null : apres.getIsbn(), debut, taille);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    livres.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        return livres;
+    }
+
+    private Object valeurTri(Livre livre, String colonne) {
+        switch (colonne) {
+            case "titre":
+                return livre.getTitre();
+            case "auteur":
+                return livre.getAuteur();
+            case "annee_publication":
+                return livre.getAnneePublication();
+            case "disponible":
+                return livre.isDisponible();
+            default:
+                return livre.getIsbn();
+        }
+    }
+
     @Override
     public List<Livre> findByAuteur(String auteur) throws SQLException {
         List<Livre> livres = new ArrayList<>();
         String sql = "SELECT * FROM livres WHERE auteur LIKE ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + auteur + "%");
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -94,7 +269,8 @@ public class LivreDAOImpl implements LivreDAO {
     public List<Livre> findByTitre(String titre) throws SQLException {
         List<Livre> livres = new ArrayList<>();
         String sql = "SELECT * FROM livres WHERE titre LIKE ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, "%" + titre + "%");
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -105,11 +281,105 @@ public class LivreDAOImpl implements LivreDAO {
         return livres;
     }
 
+    /**
+     * Recherche plein texte en une requête.
+     *
+     * Les mots d'au moins {@value #LONGUEUR_MOT_FULLTEXT} caractères sont combinés en mode booléen
+     * ({@code +mot*} : tous requis, en préfixe) sur l'index FULLTEXT (titre, auteur) et triés par
+     * pertinence. Si le critère ne contient que des mots plus courts, que l'index ne les
+     * verrait pas, la recherche se fait par préfixe (LIKE 'x%') sur le titre et l'auteur.
+     * L'insensibilité aux accents vient de la collation utf8mb4_0900_ai_ci de la table.
+     *
+     * Sur H2, ou pendant {@link #DELAI_NOUVEL_ESSAI_FULLTEXT_NANOS} après une erreur MySQL 1191
+     * (pas d'index FULLTEXT), la recherche se fait par sous-chaîne (LIKE '%x%'). Toute autre
+     * erreur est remontée.
+     */
+    @Override
+    public List<Livre> rechercher(String critere, int limite) throws SQLException {
+        List<Livre> livres = new ArrayList<>();
+        if (critere == null || critere.isBlank() || limite <= 0) {
+            return livres;
+        }
+        StringBuilder booleen = new StringBuilder();
+        Matcher mot = MOT.matcher(critere);
+        while (mot.find()) {
+            if (mot.group().length() >= LONGUEUR_MOT_FULLTEXT) {
+                booleen.append(booleen.length() == 0 ? "+" : " +").append(mot.group()).append('*');
+            }
+        }
+        if (booleen.length() == 0) {
+            return rechercherParLike(critere.trim(), false, limite);
+        }
+        String sql = "SELECT *, MATCH(titre, auteur) AGAINST (? IN BOOLEAN MODE) AS pertinence " +
+                "FROM livres WHERE MATCH(titre, auteur) AGAINST (? IN BOOLEAN MODE) " +
+                "ORDER BY pertinence DESC, titre LIMIT ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            if (fulltextUtilisable(conn)) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, booleen.toString());
+                    stmt.setString(2, booleen.toString());
+                    stmt.setInt(3, limite);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            livres.add(mapResultSetToEntity(rs));
+                        }
+                    }
+                    return livres;
+                } catch (SQLException e) {
+                    if (e.getErrorCode() != ERREUR_MYSQL_SANS_INDEX_FULLTEXT) {
+                        throw e;
+                    }
+                    prochainEssaiFulltext = System.nanoTime() + DELAI_NOUVEL_ESSAI_FULLTEXT_NANOS;
+                    System.err.println("Index FULLTEXT indisponible, recherche par LIKE : " + e.getMessage());
+                }
+            }
+        }
+        return rechercherParLike(critere.trim(), true, limite);
+    }
+
+    /**
+     * Indique si la recherche peut passer par MATCH ... AGAINST : base MySQL, sans erreur 1191
+     * récente.
+     */
+    private static boolean fulltextUtilisable(Connection conn) throws SQLException {
+        Boolean h2 = baseH2;
+        if (h2 == null) {
+            h2 = "H2".equals(conn.getMetaData().getDatabaseProductName());
+            baseH2 = h2;
+        }
+        return !h2 && System.nanoTime() - prochainEssaiFulltext >= 0;
+    }
+
+    /**
+     * Recherche de repli par LIKE sur le titre et l'auteur, par préfixe ou par sous-chaîne.
+     */
+    private List<Livre> rechercherParLike(String critere, boolean sousChaine, int limite) throws SQLException {
+        List<Livre> livres = new ArrayList<>();
+        String motif = (sousChaine ? "%" : "") + echapperLike(critere) + "%";
+        String sql = "SELECT * FROM livres WHERE titre LIKE ? OR auteur LIKE ? ORDER BY titre LIMIT ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, motif);
+            stmt.setString(2, motif);
+            stmt.setInt(3, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    livres.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        return livres;
+    }
+
+    private static String echapperLike(String texte) {
+        return texte.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Override
     public List<Livre> findDisponibles() throws SQLException {
         List<Livre> livres = new ArrayList<>();
-        String sql = "SELECT * FROM livres WHERE disponible = true";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_DISPONIBLES_SQL);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 livres.add(mapResultSetToEntity(rs));
@@ -120,21 +390,23 @@ public class LivreDAOImpl implements LivreDAO {
 
     @Override
     public void update(Livre livre) throws SQLException {
-        String sql = "UPDATE livres SET titre = ?, auteur = ?, annee_publication = ?, disponible = ? WHERE isbn = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, livre.getTitre());
-            stmt.setString(2, livre.getAuteur());
-            stmt.setInt(3, livre.getAnneePublication());
-            stmt.setBoolean(4, livre.isDisponible());
-            stmt.setString(5, livre.getIsbn());
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(stmt, livre);
             stmt.executeUpdate();
         }
     }
 
+    @Override
+    public ResultatLot updateAll(Collection<Livre> livres, int tailleLot) throws SQLException {
+        return BatchExecutor.executer(UPDATE_SQL, livres, tailleLot, this::bindUpdate, true);
+    }
+
     @Override
     public void delete(String isbn) throws SQLException {
         String sql = "DELETE FROM livres WHERE isbn = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, isbn);
             stmt.executeUpdate();
         }
@@ -144,4 +416,31 @@ public class LivreDAOImpl implements LivreDAO {
     public boolean existsByISBN(String isbn) throws SQLException {
         return findByISBN(isbn) != null;
     }
+
+    @Override
+    public Set<String> findIsbnsExistants(Collection<String> isbns) throws SQLException {
+        Set<String> existants = new HashSet<>();
+        List<String> liste = new ArrayList<>(isbns);
+        if (liste.isEmpty()) {
+            return existants;
+        }
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            for (int debut = 0; debut < liste.size(); debut += TAILLE_IN_MAX) {
+                List<String> tranche = liste.subList(debut, Math.min(liste.size(), debut + TAILLE_IN_MAX));
+                String sql = "SELECT isbn FROM livres WHERE isbn IN ("
+                        + String.join(", ", Collections.nCopies(tranche.size(), "?")) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < tranche.size(); i++) {
+                        stmt.setString(i + 1, tranche.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            existants.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+        return existants;
+    }
 }
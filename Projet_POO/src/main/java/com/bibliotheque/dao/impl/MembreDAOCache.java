@@ -0,0 +1,343 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.Tri;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.util.CacheEntiers;
+import com.bibliotheque.util.StatistiquesCache;
+import com.bibliotheque.util.TransactionManager;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur de {@link MembreDAO} avec un cache d'identité des membres.
+ *
+ * Deux index partagent les mêmes entrées : par id, dans une {@link CacheEntiers} (clés int
+ * primitives, éviction CLOCK), et par email normalisé (minuscules, sans espaces autour),
+ * qui ne référence que des membres présents dans l'index par id.
+ *
+ * Cohérence, comme pour {@link LivreDAOCache} :
+ * - toute écriture (save, update, delete, changement de statut) invalide le membre une fois
+ *   exécutée, puis de nouveau à la fin de la transaction éventuelle ;
+ * - dans une transaction, le cache n'est ni lu ni alimenté ; les lectures verrouillantes
+ *   (FOR UPDATE) vont toujours en base ;
+ * - un chargement concurrent d'une invalidation n'est pas inséré ;
+ * - les instances retournées sont des copies.
+ *
+ * Taille : -Dbibliotheque.cache.membres.taille (10000 par défaut).
+ */
+public class MembreDAOCache implements MembreDAO {
+    private static final int TAILLE_DEFAUT = Integer.getInteger("bibliotheque.cache.membres.taille", 10_000);
+
+    private final MembreDAO delegue;
+    private final CacheEntiers<Membre> parId;
+    private final Map<String, Integer> parEmail = new HashMap<>();
+    private final StatistiquesCache statistiques = new StatistiquesCache("membres");
+    private final Object verrou = new Object();
+    private long versionInvalidation;
+
+    public MembreDAOCache(MembreDAO delegue) {
+        this(delegue, TAILLE_DEFAUT);
+    }
+
+    /**
+     * @param delegue  le DAO interrogé en cas de défaut de cache
+     * @param capacite le nombre maximal de membres en cache
+     */
+    public MembreDAOCache(MembreDAO delegue, int capacite) {
+        this.delegue = delegue;
+        this.parId = new CacheEntiers<>(capacite);
+    }
+
+    /**
+     * Compteurs du cache (succès, défauts, évictions, chargements).
+     */
+    public StatistiquesCache getCompteurs() {
+        return statistiques;
+    }
+
+    /**
+     * Résumé des statistiques, pour les journaux et la supervision.
+     */
+    public String getStatistiques() {
+        synchronized (verrou) {
+            return statistiques.resume(parId.taille(), parId.capacite());
+        }
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public void vider() {
+        synchronized (verrou) {
+            versionInvalidation++;
+            parId.vider();
+            parEmail.clear();
+        }
+    }
+
+    private static String normaliser(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Membre copier(Membre membre) {
+        return new Membre(membre.getId(), membre.getNom(), membre.getPrenom(), membre.getEmail(),
+                membre.isActif(), membre.getDateInscription());
+    }
+
+    private Membre lireParId(int id) {
+        synchronized (verrou) {
+            Membre membre = parId.get(id);
+            if (membre == null) {
+                statistiques.echec();
+                return null;
+            }
+            statistiques.succes();
+            return copier(membre);
+        }
+    }
+
+    private Membre lireParEmail(String cle) {
+        synchronized (verrou) {
+            Integer id = parEmail.get(cle);
+            Membre membre = id == null ? null : parId.get(id);
+            if (membre == null) {
+                statistiques.echec();
+                return null;
+            }
+            statistiques.succes();
+            return copier(membre);
+        }
+    }
+
+    private long version() {
+        synchronized (verrou) {
+            return versionInvalidation;
+        }
+    }
+
+    private void mettreSiInchange(Membre membre, long version) {
+        synchronized (verrou) {
+            if (version != versionInvalidation) {
+                return;
+            }
+            Membre precedent = parId.get(membre.getId());
+            if (precedent != null) {
+                parEmail.remove(normaliser(precedent.getEmail()));
+            }
+            Membre evince = parId.mettre(membre.getId(), copier(membre));
+            if (evince != null) {
+                parEmail.remove(normaliser(evince.getEmail()));
+                statistiques.eviction();
+            }
+            if (membre.getEmail() != null) {
+                parEmail.put(normaliser(membre.getEmail()), membre.getId());
+            }
+        }
+    }
+
+    private void retirer(int id, String email) {
+        synchronized (verrou) {
+            versionInvalidation++;
+            Membre retire = parId.retirer(id);
+            if (retire != null) {
+                parEmail.remove(normaliser(retire.getEmail()));
+            }
+            if (email != null) {
+                Integer autre = parEmail.remove(normaliser(email));
+                if (autre != null) {
+                    Membre membre = parId.retirer(autre);
+                    if (membre != null) {
+                        parEmail.remove(normaliser(membre.getEmail()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void invalider(int id, String email) {
+        retirer(id, email);
+        if (TransactionManager.estActive()) {
+            TransactionManager.apresTerminaison(() -> retirer(id, email));
+        }
+    }
+
+    private Membre charger(Membre membre, long version, long debut) {
+        statistiques.chargement(System.nanoTime() - debut);
+        if (membre != null) {
+            mettreSiInchange(membre, version);
+        }
+        return membre;
+    }
+
+    @Override
+    public Membre findByIntId(int id) throws SQLException {
+        if (TransactionManager.estActive()) {
+            return delegue.findByIntId(id);
+        }
+        Membre enCache = lireParId(id);
+        if (enCache != null) {
+            return enCache;
+        }
+        long version = version();
+        long debut = System.nanoTime();
+        return charger(delegue.findByIntId(id), version, debut);
+    }
+
+    @Override
+    public Membre findById(String id) throws SQLException {
+        try {
+            return findByIntId(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Membre findByEmail(String email) throws SQLException {
+        if (email == null || TransactionManager.estActive()) {
+            return delegue.findByEmail(email);
+        }
+        Membre enCache = lireParEmail(normaliser(email));
+        if (enCache != null) {
+            return enCache;
+        }
+        long version = version();
+        long debut = System.nanoTime();
+        return charger(delegue.findByEmail(email), version, debut);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) throws SQLException {
+        if (email != null && !TransactionManager.estActive()) {
+            synchronized (verrou) {
+                if (parEmail.containsKey(normaliser(email))) {
+                    statistiques.succes();
+                    return true;
+                }
+            }
+        }
+        return delegue.existsByEmail(email);
+    }
+
+    @Override
+    public Membre findByIntIdPourMiseAJour(int id) throws SQLException {
+        return delegue.findByIntIdPourMiseAJour(id);
+    }
+
+    @Override
+    public void save(Membre membre) throws SQLException {
+        try {
+            delegue.save(membre);
+        } finally {
+            invalider(membre.getId(), membre.getEmail());
+        }
+    }
+
+    @Override
+    public ResultatLot saveAll(Collection<Membre> membres, int tailleLot) throws SQLException {
+        try {
+            return delegue.saveAll(membres, tailleLot);
+        } finally {
+            for (Membre membre : membres) {
+                invalider(membre.getId(), membre.getEmail());
+            }
+        }
+    }
+
+    @Override
+    public void update(Membre membre) throws SQLException {
+        try {
+            delegue.update(membre);
+        } finally {
+            invalider(membre.getId(), membre.getEmail());
+        }
+    }
+
+    @Override
+    public ResultatLot updateAll(Collection<Membre> membres, int tailleLot) throws SQLException {
+        try {
+            return delegue.updateAll(membres, tailleLot);
+        } finally {
+            for (Membre membre : membres) {
+                invalider(membre.getId(), membre.getEmail());
+            }
+        }
+    }
+
+    @Override
+    public ResultatLot changerStatut(Collection<Integer> ids, boolean actif) throws SQLException {
+        try {
+            return delegue.changerStatut(ids, actif);
+        } finally {
+            for (int id : ids) {
+                invalider(id, null);
+            }
+        }
+    }
+
+    @Override
+    public void delete(int id) throws SQLException {
+        try {
+            delegue.delete(id);
+        } finally {
+            invalider(id, null);
+        }
+    }
+
+    @Override
+    public void delete(String id) throws SQLException {
+        try {
+            delegue.delete(id);
+        } finally {
+            try {
+                invalider(Integer.parseInt(id), null);
+            } catch (NumberFormatException e) {
+                // identifiant invalide : rien n'a pu être mis en cache sous cette clé
+            }
+        }
+    }
+
+    @Override
+    public List<Membre> findAll() throws SQLException {
+        return delegue.findAll();
+    }
+
+    @Override
+    public Page<Membre> findPage(String apresCle, int taille) throws SQLException {
+        return delegue.findPage(apresCle, taille);
+    }
+
+    @Override
+    public int count() throws SQLException {
+        return delegue.count();
+    }
+
+    @Override
+    public List<Membre> findFenetre(Tri tri, Membre apres, int debut, int taille) throws SQLException {
+        return delegue.findFenetre(tri, apres, debut, taille);
+    }
+
+    @Override
+    public Stream<Membre> streamAll() throws SQLException {
+        return delegue.streamAll();
+    }
+
+    @Override
+    public List<Membre> rechercher(String critere, int limite) throws SQLException {
+        return delegue.rechercher(critere, limite);
+    }
+
+    @Override
+    public List<Membre> findActifs() throws SQLException {
+        return delegue.findActifs();
+    }
+}
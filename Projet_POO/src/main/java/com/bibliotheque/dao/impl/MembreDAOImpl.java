@@ -1,15 +1,42 @@
 package com.bibliotheque.dao.impl;
 
 import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.ResultatLot;
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.model.Membre;
 import com.bibliotheque.util.DatabaseConnection;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 
 public class MembreDAOImpl implements MembreDAO {
+    private static final String INSERT_SQL =
+            "INSERT INTO membres (nom, prenom, email, actif, date_inscription) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE membres SET nom = ?, prenom = ?, email = ?, actif = ?, date_inscription = ? WHERE id = ?";
+
+    // Colonnes triables des fenêtres (findFenetre) : nom logique vers colonne SQL.
+    private static final Map<String, String> COLONNES_TRI = Map.of(
+            "id", "id",
+            "nom", "nom",
+            "prenom", "prenom",
+            "email", "email",
+            "actif", "actif",
+            "date_inscription", "date_inscription");
+
+    // Requêtes fréquentes, dont le plan est contrôlé par VerificationPlans.
+    static final String FIND_BY_EMAIL_SQL = "SELECT * FROM membres WHERE email = ?";
+    // Colonnes toutes présentes dans idx_membres_actif : lecture de l'index seul.
+    static final String FIND_ACTIFS_SQL =
+            "SELECT id, nom, prenom, email, actif, date_inscription FROM membres " +
+            "WHERE actif = true ORDER BY nom, prenom";
+
     private Membre mapResultSetToEntity(ResultSet rs) throws SQLException {
         return new Membre(
                 rs.getInt("id"),
@@ -21,19 +48,39 @@ public class MembreDAOImpl implements MembreDAO {
         );
     }
 
+    private void bindInsert(PreparedStatement stmt, Membre membre) throws SQLException {
+        stmt.setString(1, membre.getNom());
+        stmt.setString(2, membre.getPrenom());
+        stmt.setString(3, membre.getEmail());
+        stmt.setBoolean(4, membre.isActif());
+        stmt.setDate(5, Date.valueOf(membre.getDateInscription()));
+    }
+
+    private void bindUpdate(PreparedStatement stmt, Membre membre) throws SQLException {
+        bindInsert(stmt, membre);
+        stmt.setInt(6, membre.getId());
+    }
+
     @Override
     public void save(Membre membre) throws SQLException {
-        String sql = "INSERT INTO membres (nom, prenom, email, actif, date_inscription) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, membre.getNom());
-            stmt.setString(2, membre.getPrenom());
-            stmt.setString(3, membre.getEmail());
-            stmt.setBoolean(4, membre.isActif());
-            stmt.setDate(5, Date.valueOf(membre.getDateInscription()));
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, membre);
             stmt.executeUpdate();
+            // Identifiant généré reporté sur l'objet
+            try (ResultSet cles = stmt.getGeneratedKeys()) {
+                if (cles.next()) {
+                    membre.setId(cles.getInt(1));
+                }
+            }
         }
     }
 
+    @Override
+    public ResultatLot saveAll(Collection<Membre> membres, int tailleLot) throws SQLException {
+        return BatchExecutor.executer(INSERT_SQL, membres, tailleLot, this::bindInsert, false, Membre::setId);
+    }
+
     @Override
     public Membre findById(String id) throws SQLException {
         try {
@@ -44,12 +91,43 @@ public class MembreDAOImpl implements MembreDAO {
         }
     }
 
+    @Override
+    public Membre findByIntId(int id) throws SQLException {
+        String sql = "SELECT * FROM membres WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToEntity(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Membre findByIntIdPourMiseAJour(int id) throws SQLException {
+        String sql = "SELECT * FROM membres WHERE id = ? FOR UPDATE";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToEntity(rs);
+                }
+            }
+        }
+        return null;
+    }
+
 
     @Override
     public List<Membre> findAll() throws SQLException {
         List<Membre> membres = new ArrayList<>();
         String sql = "SELECT * FROM membres";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 membres.add(mapResultSetToEntity(rs));
@@ -58,10 +136,89 @@ public class MembreDAOImpl implements MembreDAO {
         return membres;
     }
 
+    @Override
+    public Stream<Membre> streamAll() throws SQLException {
+        return ResultSetStream.of("SELECT * FROM membres", this::mapResultSetToEntity);
+    }
+
+    @Override
+    public Page<Membre> findPage(String apresCle, int taille) throws SQLException {
+        int limite = Page.bornerTaille(taille);
+        String sql = apresCle == null
+                ? "SELECT * FROM membres ORDER BY id LIMIT ?"
+                : "SELECT * FROM membres WHERE id > ? ORDER BY id LIMIT ?";
+        List<Membre> membres = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (apresCle != null) {
+                stmt.setInt(index++, parseCle(apresCle));
+            }
+            stmt.setInt(index, limite + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    membres.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        return Page.depuis(membres, limite, m -> String.valueOf(m.getId()));
+    }
+
+    @Override
+    public int count() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM membres")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Override
+    public List<Membre> findFenetre(Tri tri, Membre apres, int debut, int taille) throws SQLException {
+        FenetreSQL fenetre = new FenetreSQL(COLONNES_TRI, tri, "id");
+        List<Membre> membres = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM membres" + fenetre.clauses(apres != null))) {
+            fenetre.lier(stmt, apres == null ? null : valeurTri(apres, fenetre.getNomColonne()),
+                    apres == null ? null : apres.getId(), debut, taille);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    membres.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        return membres;
+    }
+
+    private Object valeurTri(Membre membre, String colonne) {
+        switch (colonne) {
+            case "nom":
+                return membre.getNom();
+            case "prenom":
+                return membre.getPrenom();
+            case "email":
+                return membre.getEmail();
+            case "actif":
+                return membre.isActif();
+            case "date_inscription":
+                return Date.valueOf(membre.getDateInscription());
+            default:
+                return membre.getId();
+        }
+    }
+
+    private int parseCle(String cle) throws SQLException {
+        try {
+            return Integer.parseInt(cle);
+        } catch (NumberFormatException e) {
+            throw new SQLException("Clé de pagination invalide : " + cle);
+        }
+    }
+
     @Override
     public Membre findByEmail(String email) throws SQLException {
-        String sql = "SELECT * FROM membres WHERE email = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_EMAIL_SQL)) {
             stmt.setString(1, email);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -72,11 +229,67 @@ public class MembreDAOImpl implements MembreDAO {
         return null;
     }
 
+    /**
+     * Recherche par préfixe, en une requête dont chaque branche peut utiliser un index
+     * (LIKE 'x%' sur nom, prénom ou email). Un critère de plusieurs mots est lu comme
+     * "prénom nom" ou "nom prénom" (le premier mot d'un côté, le reste de l'autre).
+     */
+    @Override
+    public List<Membre> rechercher(String critere, int limite) throws SQLException {
+        List<Membre> membres = new ArrayList<>();
+        String q = critere == null ? "" : critere.trim().replaceAll("\\s+", " ");
+        if (q.isEmpty() || limite <= 0) {
+            return membres;
+        }
+        int espace = q.indexOf(' ');
+        String sql;
+        String[] motifs;
+        if (espace < 0) {
+            String motif = echapperLike(q) + "%";
+            sql = "SELECT * FROM (" +
+                    "(SELECT * FROM membres WHERE nom LIKE ? ORDER BY nom, prenom LIMIT ?) " +
+                    "UNION (SELECT * FROM membres WHERE prenom LIKE ? ORDER BY prenom, nom LIMIT ?) " +
+                    "UNION (SELECT * FROM membres WHERE email LIKE ? ORDER BY email LIMIT ?)" +
+                    ") m ORDER BY nom, prenom, id LIMIT ?";
+            motifs = new String[]{motif, motif, motif};
+        } else {
+            String premier = echapperLike(q.substring(0, espace)) + "%";
+            String reste = echapperLike(q.substring(espace + 1)) + "%";
+            sql = "SELECT * FROM (" +
+                    "(SELECT * FROM membres WHERE prenom LIKE ? AND nom LIKE ? ORDER BY nom, prenom LIMIT ?) " +
+                    "UNION (SELECT * FROM membres WHERE nom LIKE ? AND prenom LIKE ? ORDER BY nom, prenom LIMIT ?)" +
+                    ") m ORDER BY nom, prenom, id LIMIT ?";
+            motifs = new String[]{premier, reste, premier, reste};
+        }
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            int parBranche = espace < 0 ? 1 : 2;
+            for (int i = 0; i < motifs.length; i++) {
+                stmt.setString(index++, motifs[i]);
+                if ((i + 1) % parBranche == 0) {
+                    stmt.setInt(index++, limite);
+                }
+            }
+            stmt.setInt(index, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    membres.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        return membres;
+    }
+
+    private static String echapperLike(String texte) {
+        return texte.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Override
     public List<Membre> findActifs() throws SQLException {
         List<Membre> membres = new ArrayList<>();
-        String sql = "SELECT * FROM membres WHERE actif = true";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_ACTIFS_SQL);
              ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 membres.add(mapResultSetToEntity(rs));
@@ -87,35 +300,56 @@ public class MembreDAOImpl implements MembreDAO {
 
     @Override
     public void update(Membre membre) throws SQLException {
-        String sql = "UPDATE membres SET nom = ?, prenom = ?, email = ?, actif = ?, date_inscription = ? WHERE id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-            stmt.setString(1, membre.getNom());
-            stmt.setString(2, membre.getPrenom());
-            stmt.setString(3, membre.getEmail());
-            stmt.setBoolean(4, membre.isActif());
-            stmt.setDate(5, Date.valueOf(membre.getDateInscription()));
-            stmt.setInt(6, membre.getId());
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(stmt, membre);
             stmt.executeUpdate();
         }
     }
 
+    @Override
+    public ResultatLot updateAll(Collection<Membre> membres, int tailleLot) throws SQLException {
+        return BatchExecutor.executer(UPDATE_SQL, membres, tailleLot, this::bindUpdate, true);
+    }
+
+    @Override
+    public ResultatLot changerStatut(Collection<Integer> ids, boolean actif) throws SQLException {
+        return BatchExecutor.executer("UPDATE membres SET actif = ? WHERE id = ?", ids, TAILLE_LOT_DEFAUT,
+                (stmt, id) -> {
+                    stmt.setBoolean(1, actif);
+                    stmt.setInt(2, id);
+                }, true);
+    }
+
     @Override
     public void delete(String id) throws SQLException {
         try {
-            int idInt = Integer.parseInt(id);
-            String sql = "DELETE FROM membres WHERE id = ?";
-            try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
-                stmt.setInt(1, idInt);
-                stmt.executeUpdate();
-            }
+            delete(Integer.parseInt(id));
         } catch (NumberFormatException e) {
             throw new SQLException("ID invalide : " + id);
         }
     }
 
+    @Override
+    public void delete(int id) throws SQLException {
+        String sql = "DELETE FROM membres WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        }
+    }
+
     @Override
     public boolean existsByEmail(String email) throws SQLException {
-        return findByEmail(email) != null;
+        String sql = "SELECT 1 FROM membres WHERE email = ? LIMIT 1";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
     }
 }
 
@@ -0,0 +1,103 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.exception.AccesDonneesException;
+import com.bibliotheque.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Expose le résultat d'une requête sous forme de Stream paresseux.
+ *
+ * Avec MySQL Connector/J, la requête est exécutée en mode streaming (fetch size
+ * Integer.MIN_VALUE) : les lignes sont lues une à une depuis le serveur au lieu d'être
+ * toutes chargées en mémoire par le driver. La connexion, le statement et le ResultSet
+ * restent ouverts jusqu'à la fermeture du Stream, qui doit donc être utilisé dans un
+ * try-with-resources.
+ */
+final class ResultSetStream {
+
+    /** Taille de lot utilisée pour les drivers qui ne supportent pas le streaming MySQL. */
+    private static final int FETCH_SIZE_GENERIQUE = 1000;
+
+    private ResultSetStream() {}
+
+    /**
+     * Convertit la ligne courante d'un ResultSet en entité.
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Exécute une requête sans paramètre et retourne ses lignes sous forme de Stream.
+     *
+     * @param sql    la requête
+     * @param mapper la conversion ligne → entité
+     * @return un Stream séquentiel à fermer après usage
+     * @throws SQLException si la requête ne peut pas être exécutée
+     */
+    static <T> Stream<T> of(String sql, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseConnection.getInstance().getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(estMySQL(conn) ? Integer.MIN_VALUE : FETCH_SIZE_GENERIQUE);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            fermer(null, stmt, conn);
+            throw e;
+        }
+
+        final PreparedStatement statement = stmt;
+        Spliterator<T> lignes = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new AccesDonneesException("Erreur lors de la lecture du flux : " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(lignes, false).onClose(() -> fermer(rs, statement, conn));
+    }
+
+    private static boolean estMySQL(Connection conn) throws SQLException {
+        String url = conn.getMetaData().getURL();
+        return url != null && url.startsWith("jdbc:mysql:");
+    }
+
+    private static void fermer(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la fermeture du flux : " + e.getMessage());
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Erreur lors de la restitution de la connexion : " + e.getMessage());
+            }
+        }
+    }
+}
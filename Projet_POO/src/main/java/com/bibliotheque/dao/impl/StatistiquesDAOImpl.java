@@ -0,0 +1,56 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.dao.StatistiquesDAO;
+import com.bibliotheque.model.Statistiques;
+import com.bibliotheque.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Implémentation DAO des statistiques avec MySQL.
+ *
+ * Une seule requête, un seul aller-retour : chaque table est agrégée une fois (COUNT et
+ * sommes conditionnelles) dans une sous-requête d'une ligne, et les trois lignes sont
+ * croisées. Le résultat est une ligne de huit colonnes, quelle que soit la taille des tables.
+ */
+public class StatistiquesDAOImpl implements StatistiquesDAO {
+
+    private static final String STATISTIQUES_SQL =
+            "SELECT l.total_livres, l.livres_disponibles, m.total_membres, m.membres_actifs, " +
+            "e.total_emprunts, e.emprunts_en_cours, e.emprunts_en_retard, e.total_penalites " +
+            "FROM (SELECT COUNT(*) AS total_livres, " +
+            "COALESCE(SUM(CASE WHEN disponible THEN 1 ELSE 0 END), 0) AS livres_disponibles " +
+            "FROM livres) l " +
+            "CROSS JOIN (SELECT COUNT(*) AS total_membres, " +
+            "COALESCE(SUM(CASE WHEN actif THEN 1 ELSE 0 END), 0) AS membres_actifs " +
+            "FROM membres) m " +
+            "CROSS JOIN (SELECT COUNT(*) AS total_emprunts, " +
+            "COALESCE(SUM(CASE WHEN date_retour_effective IS NULL THEN 1 ELSE 0 END), 0) AS emprunts_en_cours, " +
+            "COALESCE(SUM(CASE WHEN date_retour_effective IS NULL AND date_retour_prevue < CURDATE() " +
+            "THEN 1 ELSE 0 END), 0) AS emprunts_en_retard, " +
+            "COALESCE(SUM(penalite), 0) AS total_penalites " +
+            "FROM emprunts) e";
+
+    @Override
+    public Statistiques calculer() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(STATISTIQUES_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new SQLException("La requête de statistiques n'a retourné aucune ligne");
+            }
+            return new Statistiques(
+                    rs.getInt("total_livres"),
+                    rs.getInt("livres_disponibles"),
+                    rs.getInt("total_membres"),
+                    rs.getInt("membres_actifs"),
+                    rs.getInt("total_emprunts"),
+                    rs.getInt("emprunts_en_cours"),
+                    rs.getInt("emprunts_en_retard"),
+                    rs.getDouble("total_penalites"));
+        }
+    }
+}
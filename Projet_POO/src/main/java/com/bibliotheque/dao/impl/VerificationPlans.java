@@ -0,0 +1,102 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôle de non-régression des plans d'exécution, exécutable sans interface graphique.
+ *
+ * Chaque requête fréquente des DAO est passée à EXPLAIN (avec des paramètres types) ; le
+ * contrôle échoue si l'une des tables est lue intégralement (type ALL) alors qu'elle compte au
+ * moins {@code bibliotheque.plans.seuilLignes} lignes estimées (1000 par défaut) : en dessous,
+ * un parcours complet est un choix légitime de l'optimiseur. À lancer sur une base de volume
+ * représentatif, par exemple après StressEmprunts ou ImportCatalogue.
+ *
+ * Les requêtes contrôlées sont les constantes des DAO eux-mêmes : une modification de
+ * requête qui perd son index est détectée.
+ */
+public class VerificationPlans {
+
+    private static final long SEUIL_LIGNES = Long.getLong("bibliotheque.plans.seuilLignes", 1000L);
+
+    /**
+     * Requêtes contrôlées, avec leurs paramètres.
+     */
+    static Map<String, Object[]> requetes() {
+        Map<String, Object[]> requetes = new LinkedHashMap<>();
+        requetes.put(LivreDAOImpl.FIND_BY_ISBN_SQL, new Object[]{"978-2070361563"});
+        requetes.put(LivreDAOImpl.FIND_DISPONIBLES_SQL, new Object[]{});
+        requetes.put(MembreDAOImpl.FIND_BY_EMAIL_SQL, new Object[]{"jean.dupont@example.com"});
+        requetes.put(MembreDAOImpl.FIND_ACTIFS_SQL, new Object[]{});
+        requetes.put(EmpruntDAOImpl.FIND_BY_MEMBRE_SQL, new Object[]{1});
+        requetes.put(EmpruntDAOImpl.FIND_EN_COURS_SQL, new Object[]{});
+        requetes.put(EmpruntDAOImpl.FIND_EN_RETARD_SQL, new Object[]{});
+        requetes.put(EmpruntDAOImpl.COUNT_EN_COURS_SQL, new Object[]{1});
+        return requetes;
+    }
+
+    /**
+     * Analyse le plan de chaque requête contrôlée.
+     *
+     * @return les anomalies détectées (vide si tous les plans utilisent un index)
+     * @throws SQLException si une requête ne peut pas être analysée
+     */
+    public List<String> verifier() throws SQLException {
+        List<String> anomalies = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            for (Map.Entry<String, Object[]> requete : requetes().entrySet()) {
+                try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + requete.getKey())) {
+                    Object[] parametres = requete.getValue();
+                    for (int i = 0; i < parametres.length; i++) {
+                        stmt.setObject(i + 1, parametres[i]);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String type = rs.getString("type");
+                            long lignes = rs.getLong("rows");
+                            if ("ALL".equalsIgnoreCase(type) && lignes >= SEUIL_LIGNES) {
+                                anomalies.add("Parcours complet de " + rs.getString("table") + " (" + lignes
+                                        + " lignes estimées) : " + requete.getKey());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return anomalies;
+    }
+
+    /**
+     * Point d'entrée en ligne de commande ; code de sortie 1 si un plan a régressé.
+     *
+     * @param args non utilisés
+     */
+    public static void main(String[] args) {
+        try {
+            List<String> anomalies = new VerificationPlans().verifier();
+            if (anomalies.isEmpty()) {
+                System.out.println("Plans d'exécution : " + requetes().size() + " requêtes contrôlées, aucun parcours complet");
+            } else {
+                anomalies.forEach(System.err::println);
+                System.exit(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Contrôle des plans impossible : " + e.getMessage());
+            System.exit(2);
+        } finally {
+            try {
+                DatabaseConnection.getInstance().closeConnection();
+            } catch (SQLException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bibliotheque.exception;
+
+import java.sql.SQLException;
+
+/**
+ * Exception non vérifiée enveloppant une SQLException survenue là où une exception
+ * vérifiée ne peut pas être propagée (lecture paresseuse d'un Stream, par exemple).
+ */
+public class AccesDonneesException extends RuntimeException {
+    /**
+     * Constructeur avec message et cause.
+     *
+     * @param message le message d'erreur
+     * @param cause   l'erreur SQL d'origine
+     */
+    public AccesDonneesException(String message, SQLException cause) {
+        super(message, cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
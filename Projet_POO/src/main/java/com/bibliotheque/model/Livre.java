@@ -1,7 +1,12 @@
 package com.bibliotheque.model;
 
+import java.util.Objects;
+
 
 public class Livre extends Document implements Empruntable {
+    // Pénalité de retard, en DH par jour.
+    public static final double PENALITE_PAR_JOUR = 2.0;
+
     private String isbn;
     private String auteur;
     private int anneePublication;
@@ -19,7 +24,7 @@ public class Livre extends Document implements Empruntable {
    
     @Override
     public double calculerPenaliteRetard() {
-        return 2.0; // 2 DH par jour
+        return PENALITE_PAR_JOUR;
     }
 
     @Override
@@ -71,6 +76,23 @@ public class Livre extends Document implements Empruntable {
         this.disponible = disponible;
     }
 
+    // Deux livres sont égaux s'ils ont le même ISBN.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Livre)) {
+            return false;
+        }
+        return Objects.equals(isbn, ((Livre) o).isbn);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(isbn);
+    }
+
     @Override
     public String toString() {
         return "Livre{" +
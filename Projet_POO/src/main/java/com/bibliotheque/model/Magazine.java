@@ -2,6 +2,9 @@ package com.bibliotheque.model;
 
 
 public class Magazine extends Document implements Empruntable {
+    // Pénalité de retard, en DH par jour.
+    public static final double PENALITE_PAR_JOUR = 1.0;
+
     private int numero;
     private String mois;
     private boolean disponible;
@@ -15,7 +18,7 @@ public class Magazine extends Document implements Empruntable {
 
     @Override
     public double calculerPenaliteRetard() {
-        return 1.0; // 1 DH par jour
+        return PENALITE_PAR_JOUR;
     }
 
     @Override
@@ -0,0 +1,87 @@
+package com.bibliotheque.model;
+
+// Instantané des compteurs de la bibliothèque (livres, membres, emprunts).
+
+public class Statistiques {
+    private final int totalLivres;
+    private final int livresDisponibles;
+    private final int totalMembres;
+    private final int membresActifs;
+    private final int totalEmprunts;
+    private final int empruntsEnCours;
+    private final int empruntsEnRetard;
+    private final double totalPenalites;
+
+
+    public Statistiques(int totalLivres, int livresDisponibles, int totalMembres, int membresActifs,
+                        int totalEmprunts, int empruntsEnCours, int empruntsEnRetard, double totalPenalites) {
+        this.totalLivres = totalLivres;
+        this.livresDisponibles = livresDisponibles;
+        this.totalMembres = totalMembres;
+        this.membresActifs = membresActifs;
+        this.totalEmprunts = totalEmprunts;
+        this.empruntsEnCours = empruntsEnCours;
+        this.empruntsEnRetard = empruntsEnRetard;
+        this.totalPenalites = totalPenalites;
+    }
+
+    public int getTotalLivres() {
+        return totalLivres;
+    }
+
+    public int getLivresDisponibles() {
+        return livresDisponibles;
+    }
+
+    public int getLivresEmpruntes() {
+        return totalLivres - livresDisponibles;
+    }
+
+    public int getTotalMembres() {
+        return totalMembres;
+    }
+
+    public int getMembresActifs() {
+        return membresActifs;
+    }
+
+    public int getMembresInactifs() {
+        return totalMembres - membresActifs;
+    }
+
+    public int getTotalEmprunts() {
+        return totalEmprunts;
+    }
+
+    public int getEmpruntsEnCours() {
+        return empruntsEnCours;
+    }
+
+    public int getEmpruntsEnRetard() {
+        return empruntsEnRetard;
+    }
+
+    public double getTotalPenalites() {
+        return totalPenalites;
+    }
+
+    // Nombre moyen d'emprunts par livre du catalogue (rotation).
+
+    public double getRotationParLivre() {
+        return totalLivres == 0 ? 0.0 : (double) totalEmprunts / totalLivres;
+    }
+
+    @Override
+    public String toString() {
+        return "Statistiques{" +
+                "totalLivres=" + totalLivres +
+                ", livresDisponibles=" + livresDisponibles +
+                ", totalMembres=" + totalMembres +
+                ", membresActifs=" + membresActifs +
+                ", totalEmprunts=" + totalEmprunts +
+                ", empruntsEnCours=" + empruntsEnCours +
+                ", empruntsEnRetard=" + empruntsEnRetard +
+                ", totalPenalites=" + totalPenalites +
+                '}';
+    }
+}
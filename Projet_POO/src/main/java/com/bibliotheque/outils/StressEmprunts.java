@@ -0,0 +1,233 @@
+package com.bibliotheque.outils;
+
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.dao.impl.LivreDAOCache;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.dao.impl.MembreDAOImpl;
+import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
+import com.bibliotheque.exception.LivreIndisponibleException;
+import com.bibliotheque.exception.MembreInactifException;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import com.bibliotheque.service.EmpruntService;
+import com.bibliotheque.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test de charge des emprunts concurrents, exécutable sans interface graphique.
+ *
+ * Plusieurs threads simulent des postes de prêt qui empruntent et retournent au hasard
+ * un petit nombre de livres pour un petit nombre de membres, afin de maximiser les conflits.
+ * À la fin, la base est contrôlée :
+ * - aucun livre n'a plus d'un emprunt en cours ;
+ * - aucun membre ne dépasse la limite d'emprunts ;
+ * - un livre est indisponible si et seulement s'il a un emprunt en cours.
+ *
+ * Les données de test (ISBN préfixés par {@value #PREFIXE}) sont créées puis supprimées.
+ * Le code de sortie vaut 1 si une incohérence est détectée.
+ */
+public class StressEmprunts {
+
+    private static final String PREFIXE = "STRESS-";
+    private static final String EMAIL_DOMAINE = "@stress.invalid";
+    private static final int LIMITE_EMPRUNTS = 3;
+
+    private final EmpruntService service;
+    private final LivreDAOCache livreDAO = new LivreDAOCache(new LivreDAOImpl());
+    private final MembreDAO membreDAO = new MembreDAOImpl();
+    private final EmpruntDAO empruntDAO = new EmpruntDAOImpl();
+
+    private final LongAdder emprunts = new LongAdder();
+    private final LongAdder retours = new LongAdder();
+    private final LongAdder refusIndisponible = new LongAdder();
+    private final LongAdder refusLimite = new LongAdder();
+    private final LongAdder erreurs = new LongAdder();
+
+    public StressEmprunts() {
+        this.service = new EmpruntService(empruntDAO, livreDAO, membreDAO);
+    }
+
+    /**
+     * Exécute le test de charge.
+     *
+     * @param threads    le nombre de postes simulés
+     * @param operations le nombre d'opérations par poste
+     * @param nbLivres   le nombre de livres disputés
+     * @param nbMembres  le nombre de membres
+     * @return le nombre d'incohérences détectées
+     * @throws SQLException        si la préparation ou le contrôle échoue
+     * @throws InterruptedException si le thread est interrompu
+     */
+    public int executer(int threads, int operations, int nbLivres, int nbMembres)
+            throws SQLException, InterruptedException {
+        nettoyer();
+        List<String> isbns = new ArrayList<>();
+        for (int i = 0; i < nbLivres; i++) {
+            String isbn = PREFIXE + i;
+            livreDAO.save(new Livre(isbn, "Livre de charge " + i, "Stress", 2000, true));
+            isbns.add(isbn);
+        }
+        List<Integer> membres = new ArrayList<>();
+        for (int i = 0; i < nbMembres; i++) {
+            String email = "membre" + i + EMAIL_DOMAINE;
+            membreDAO.save(new Membre("Stress", "Membre" + i, email, true, LocalDate.now()));
+            membres.add(membreDAO.findByEmail(email).getId());
+        }
+
+        ExecutorService postes = Executors.newFixedThreadPool(threads);
+        CountDownLatch depart = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            postes.execute(() -> {
+                try {
+                    depart.await();
+                    for (int i = 0; i < operations; i++) {
+                        operation(isbns, membres);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long debut = System.nanoTime();
+        depart.countDown();
+        postes.shutdown();
+        postes.awaitTermination(1, TimeUnit.HOURS);
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        long total = emprunts.sum() + retours.sum() + refusIndisponible.sum() + refusLimite.sum() + erreurs.sum();
+        System.out.printf("%d opérations en %.2f s (%.0f op/s) : emprunts=%d, retours=%d, "
+                        + "indisponible=%d, limite=%d, erreurs=%d%n",
+                total, secondes, total / secondes, emprunts.sum(), retours.sum(),
+                refusIndisponible.sum(), refusLimite.sum(), erreurs.sum());
+        System.out.println(DatabaseConnection.getInstance().getPool().getStatistiques());
+        System.out.println(livreDAO.getCache().getStatistiques());
+
+        int incoherences = controler() + controlerCache(isbns);
+        nettoyer();
+        return incoherences;
+    }
+
+    private void operation(List<String> isbns, List<Integer> membres) {
+        ThreadLocalRandom aleatoire = ThreadLocalRandom.current();
+        int membreId = membres.get(aleatoire.nextInt(membres.size()));
+        try {
+            if (aleatoire.nextInt(10) < 3) {
+                for (Emprunt emprunt : empruntDAO.findByMembre(membreId)) {
+                    if (emprunt.getDateRetourEffective() == null) {
+                        service.retournerLivre(emprunt.getId());
+                        retours.increment();
+                        return;
+                    }
+                }
+            }
+            // consultation de la fiche avant l'emprunt (lecture servie par le cache)
+            String isbn = isbns.get(aleatoire.nextInt(isbns.size()));
+            livreDAO.findByISBN(isbn);
+            service.emprunterLivre(isbn, membreId);
+            emprunts.increment();
+        } catch (LivreIndisponibleException e) {
+            refusIndisponible.increment();
+        } catch (LimiteEmpruntDepasseeException e) {
+            refusLimite.increment();
+        } catch (MembreInactifException | SQLException e) {
+            // un retour concurrent du même emprunt est refusé : ce n'est pas une incohérence
+            erreurs.increment();
+        }
+    }
+
+    private int controler() throws SQLException {
+        int incoherences = 0;
+        incoherences += compterEtAfficher("Livres empruntés plusieurs fois",
+                "SELECT isbn, COUNT(*) FROM emprunts WHERE date_retour_effective IS NULL AND isbn LIKE ? " +
+                "GROUP BY isbn HAVING COUNT(*) > 1");
+        incoherences += compterEtAfficher("Membres au-delà de la limite",
+                "SELECT e.membre_id, COUNT(*) FROM emprunts e JOIN membres m ON m.id = e.membre_id " +
+                "WHERE e.date_retour_effective IS NULL AND m.email LIKE ? " +
+                "GROUP BY e.membre_id HAVING COUNT(*) > " + LIMITE_EMPRUNTS);
+        incoherences += compterEtAfficher("Disponibilité incohérente",
+                "SELECT l.isbn, COUNT(e.id) FROM livres l LEFT JOIN emprunts e " +
+                "ON e.isbn = l.isbn AND e.date_retour_effective IS NULL WHERE l.isbn LIKE ? " +
+                "GROUP BY l.isbn, l.disponible " +
+                "HAVING (l.disponible AND COUNT(e.id) > 0) OR (NOT l.disponible AND COUNT(e.id) = 0)");
+        System.out.println(incoherences == 0 ? "Aucune incohérence" : incoherences + " incohérence(s)");
+        return incoherences;
+    }
+
+    /**
+     * Vérifie qu'aucune disponibilité servie par le cache ne diffère de la base.
+     */
+    private int controlerCache(List<String> isbns) throws SQLException {
+        LivreDAO sansCache = new LivreDAOImpl();
+        int incoherences = 0;
+        for (String isbn : isbns) {
+            boolean enCache = livreDAO.findByISBN(isbn).isDisponible();
+            if (enCache != sansCache.findByISBN(isbn).isDisponible()) {
+                System.err.println("Disponibilité périmée dans le cache : " + isbn);
+                incoherences++;
+            }
+        }
+        return incoherences;
+    }
+
+    private int compterEtAfficher(String libelle, String sql) throws SQLException {
+        int nombre = 0;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, sql.contains("m.email") ? "%" + EMAIL_DOMAINE : PREFIXE + "%");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    System.err.println(libelle + " : " + rs.getString(1) + " (" + rs.getInt(2) + ")");
+                    nombre++;
+                }
+            }
+        }
+        return nombre;
+    }
+
+    private void nettoyer() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            executer(conn, "DELETE FROM emprunts WHERE isbn LIKE ?", PREFIXE + "%");
+            executer(conn, "DELETE FROM livres WHERE isbn LIKE ?", PREFIXE + "%");
+            executer(conn, "DELETE FROM membres WHERE email LIKE ?", "%" + EMAIL_DOMAINE);
+        }
+    }
+
+    private static void executer(Connection conn, String sql, String motif) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, motif);
+            stmt.executeUpdate();
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+            int operations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+            int nbLivres = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+            int nbMembres = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+            int incoherences = new StressEmprunts().executer(threads, operations, nbLivres, nbMembres);
+            DatabaseConnection.getInstance().closeConnection();
+            System.exit(incoherences == 0 ? 0 : 1);
+        } catch (SQLException | InterruptedException | NumberFormatException e) {
+            System.err.println("Test de charge interrompu : " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
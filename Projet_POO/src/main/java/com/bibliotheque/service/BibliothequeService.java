@@ -2,26 +2,145 @@ package com.bibliotheque.service;
 
 import com.bibliotheque.dao.LivreDAO;
 import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.Tri;
+import com.bibliotheque.dao.ResultatLot;
 import com.bibliotheque.exception.ValidationException;
 import com.bibliotheque.model.Emprunt;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.model.Membre;
+import com.bibliotheque.model.Statistiques;
+import com.bibliotheque.util.IndexRecherche;
 import com.bibliotheque.util.StringValidator;
+import com.bibliotheque.util.TransactionManager;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public class BibliothequeService {
     private final LivreDAO livreDAO;
     private final MembreDAO membreDAO;
+    private final StatistiquesService statistiquesService;
+    private final BusChangements busChangements = new BusChangements();
+
+    // Nombre maximal de livres retournés par une recherche.
+    private static final int LIMITE_RECHERCHE = 200;
+
+    // Nombre de livres lus par lot lors de la construction de l'index de recherche.
+    private static final int LOT_INDEXATION = 10_000;
+
+    // Index de recherche instantanée, null tant qu'il n'est pas construit.
+    private volatile IndexRecherche<Livre> indexLivres;
+    // Mises à jour reçues pendant une construction, rejouées sur le nouvel index.
+    private List<Consumer<IndexRecherche<Livre>>> majIndexEnAttente;
+    private final Object verrouIndex = new Object();
+
+    // Nombre maximal de membres retournés par une recherche.
+    private static final int LIMITE_RECHERCHE_MEMBRES = 200;
+
+    // Si vrai, la recherche de membres passe par un index en mémoire plutôt que par la base.
+    private static final boolean RECHERCHE_MEMBRES_MEMOIRE =
+            Boolean.getBoolean("bibliotheque.recherche.membres.memoire");
+
+    // Index des membres (mode mémoire), construit à la première recherche.
+    private IndexRecherche<Membre> indexMembres;
+    private final Object verrouIndexMembres = new Object();
 
     
-    public BibliothequeService(LivreDAO livreDAO, MembreDAO membreDAO) {
+    public BibliothequeService(LivreDAO livreDAO, MembreDAO membreDAO, StatistiquesService statistiquesService) {
         this.livreDAO = livreDAO;
         this.membreDAO = membreDAO;
+        this.statistiquesService = statistiquesService;
+    }
+
+    // Bus des changements de livres, membres et emprunts, partagé avec EmpruntService et les écrans.
+
+    public BusChangements getBusChangements() {
+        return busChangements;
+    }
+
+    //  INDEX DE RECHERCHE INSTANTANÉE
+
+    // Construit (ou reconstruit) l'index en mémoire des livres en parcourant la table.
+    // Les ajouts, modifications et suppressions faits pendant la construction y sont rejoués.
+
+    public void construireIndexLivres() throws SQLException {
+        IndexRecherche<Livre> nouvel = new IndexRecherche<>(Livre::getIsbn,
+                livre -> livre.getTitre() + " " + livre.getAuteur());
+        synchronized (verrouIndex) {
+            majIndexEnAttente = new ArrayList<>();
+        }
+        try (Stream<Livre> livres = livreDAO.streamAll()) {
+            List<Livre> lot = new ArrayList<>(LOT_INDEXATION);
+            livres.forEach(livre -> {
+                lot.add(livre);
+                if (lot.size() == LOT_INDEXATION) {
+                    nouvel.indexerTous(lot);
+                    lot.clear();
+                }
+            });
+            nouvel.indexerTous(lot);
+        } catch (RuntimeException e) {
+            synchronized (verrouIndex) {
+                majIndexEnAttente = null;
+            }
+            throw e;
+        }
+        synchronized (verrouIndex) {
+            for (Consumer<IndexRecherche<Livre>> maj : majIndexEnAttente) {
+                maj.accept(nouvel);
+            }
+            majIndexEnAttente = null;
+            indexLivres = nouvel;
+        }
+    }
+
+    public boolean isIndexLivresPret() {
+        return indexLivres != null;
+    }
+
+    // Recherche instantanée dans l'index en mémoire (sans accès à la base), au plus limite livres.
+    // Tant que l'index n'est pas construit, la recherche passe par la base.
+
+    public List<Livre> rechercherLivresInstantane(String critere, int limite) throws SQLException {
+        IndexRecherche<Livre> index = indexLivres;
+        if (index == null) {
+            return livreDAO.rechercher(critere, limite);
+        }
+        List<Livre> resultats = new ArrayList<>();
+        for (Livre livre : index.rechercher(critere, limite)) {
+            resultats.add(copier(livre));
+        }
+        return resultats;
+    }
+
+    // Répercute dans l'index un livre modifié ailleurs (emprunt, retour).
+
+    public void actualiserLivreIndexe(Livre livre) {
+        Livre copie = copier(livre);
+        mettreAJourIndex(index -> index.indexer(copie));
+    }
+
+    private void mettreAJourIndex(Consumer<IndexRecherche<Livre>> maj) {
+        synchronized (verrouIndex) {
+            if (majIndexEnAttente != null) {
+                majIndexEnAttente.add(maj);
+            }
+            if (indexLivres != null) {
+                maj.accept(indexLivres);
+            }
+        }
+    }
+
+    private static Livre copier(Livre livre) {
+        return new Livre(livre.getIsbn(), livre.getTitre(), livre.getAuteur(),
+                livre.getAnneePublication(), livre.isDisponible());
     }
 
    
@@ -40,6 +159,9 @@ public class BibliothequeService {
         }
 
         livreDAO.save(livre);
+        statistiquesService.getCompteurs().livreAjoute(livre.isDisponible());
+        actualiserLivreIndexe(livre);
+        busChangements.publier(Changement.cree(Changement.Entite.LIVRE, livre.getIsbn()));
     }
 
     public void modifierLivre(Livre livre) throws ValidationException, SQLException {
@@ -48,27 +170,28 @@ public class BibliothequeService {
         StringValidator.validateNotEmpty(livre.getAuteur(), "L'auteur");
         StringValidator.validateAnneePublication(livre.getAnneePublication());
 
+        Livre precedent = livreDAO.findByISBN(livre.getIsbn());
         livreDAO.update(livre);
+        if (precedent != null && precedent.isDisponible() != livre.isDisponible()) {
+            statistiquesService.getCompteurs().disponibiliteChangee(livre.isDisponible());
+        }
+        actualiserLivreIndexe(livre);
+        busChangements.publier(Changement.modifie(Changement.Entite.LIVRE, livre.getIsbn()));
     }
 
     
     public void supprimerLivre(String isbn) throws SQLException {
         livreDAO.delete(isbn);
+        // Les emprunts du livre sont supprimés en cascade : compteurs recalculés en base
+        statistiquesService.getCompteurs().invalider();
+        mettreAJourIndex(index -> index.retirer(isbn));
+        busChangements.publier(Changement.supprime(Changement.Entite.LIVRE, isbn));
+        busChangements.publier(Changement.global(Changement.Entite.EMPRUNT));
     }
 
     
     public List<Livre> rechercherLivres(String critere) throws SQLException {
-        List<Livre> resultats = new ArrayList<>();
-        resultats.addAll(livreDAO.findByTitre(critere));
-        
-        List<Livre> parAuteur = livreDAO.findByAuteur(critere);
-        for (Livre livre : parAuteur) {
-            if (!resultats.contains(livre)) {
-                resultats.add(livre);
-            }
-        }
-        
-        return resultats;
+        return livreDAO.rechercher(critere, LIMITE_RECHERCHE);
     }
 
     public List<Livre> getLivresDisponibles() throws SQLException {
@@ -80,6 +203,30 @@ public class BibliothequeService {
         return livreDAO.findAll();
     }
 
+    // Page de livres triés par ISBN, après la clé donnée (null pour la première page).
+
+    public Page<Livre> getLivresPage(String apresCle, int taille) throws SQLException {
+        return livreDAO.findPage(apresCle, taille);
+    }
+
+    // Nombre total de livres.
+
+    public int compterLivres() throws SQLException {
+        return livreDAO.count();
+    }
+
+    // Fenêtre de livres selon le tri donné, après le livre apres ou à la position debut (affichage paginé).
+
+    public List<Livre> getLivresFenetre(Tri tri, Livre apres, int debut, int taille) throws SQLException {
+        return livreDAO.findFenetre(tri, apres, debut, taille);
+    }
+
+    // Livre d'ISBN donné, ou null s'il n'existe pas.
+
+    public Livre getLivre(String isbn) throws SQLException {
+        return livreDAO.findByISBN(isbn);
+    }
+
     //  MÉTHODES POUR LES MEMBRES 
 
     public void ajouterMembre(Membre membre) throws ValidationException, SQLException {
@@ -93,6 +240,12 @@ public class BibliothequeService {
         }
 
         membreDAO.save(membre);
+        statistiquesService.getCompteurs().membreAjoute(membre.isActif());
+        if (RECHERCHE_MEMBRES_MEMOIRE) {
+            // save() a renseigné l'identifiant généré
+            actualiserMembreIndexe(membre);
+        }
+        busChangements.publier(Changement.cree(Changement.Entite.MEMBRE, membre.getId()));
     }
 
 
@@ -100,37 +253,107 @@ public class BibliothequeService {
         StringValidator.validateNomPrenom(membre.getNom(), membre.getPrenom());
         StringValidator.validateEmail(membre.getEmail());
 
+        Membre precedent = membreDAO.findByIntId(membre.getId());
         membreDAO.update(membre);
+        if (precedent != null && precedent.isActif() != membre.isActif()) {
+            statistiquesService.getCompteurs().statutMembreChange(membre.isActif());
+        }
+        actualiserMembreIndexe(membre);
+        busChangements.publier(Changement.modifie(Changement.Entite.MEMBRE, membre.getId()));
     }
 
     
     public void activerDesactiverMembre(int id, boolean actif) throws SQLException {
-        Membre membre = membreDAO.findByIntId(id);
-        if (membre != null) {
+        Membre modifie = TransactionManager.executer(() -> {
+            Membre membre = membreDAO.findByIntIdPourMiseAJour(id);
+            if (membre == null || membre.isActif() == actif) {
+                return null;
+            }
             membre.setActif(actif);
             membreDAO.update(membre);
+            return membre;
+        });
+        if (modifie != null) {
+            statistiquesService.getCompteurs().statutMembreChange(actif);
+            actualiserMembreIndexe(modifie);
+            busChangements.publier(Changement.modifie(Changement.Entite.MEMBRE, id));
+        }
+    }
+
+    // Active ou désactive plusieurs membres en une seule transaction (un seul commit).
+
+    public ResultatLot activerDesactiverMembres(Collection<Integer> ids, boolean actif) throws SQLException {
+        ResultatLot resultat = TransactionManager.executer(() -> membreDAO.changerStatut(ids, actif));
+        // Nombre de membres réellement changés inconnu : compteurs recalculés en base
+        statistiquesService.getCompteurs().invalider();
+        if (indexMembresConstruit()) {
+            for (Integer id : ids) {
+                actualiserMembreIndexe(membreDAO.findByIntId(id));
+            }
+        }
+        for (Integer id : ids) {
+            busChangements.publier(Changement.modifie(Changement.Entite.MEMBRE, id));
         }
+        return resultat;
     }
 
    
+    // Recherche par préfixe sur le nom, le prénom ou l'email, au plus LIMITE_RECHERCHE_MEMBRES membres.
+
     public List<Membre> rechercherMembres(String critere) throws SQLException {
+        return rechercherMembres(critere, LIMITE_RECHERCHE_MEMBRES);
+    }
+
+    // Même recherche, au plus limite membres (sélection d'un membre au fil de la saisie).
+
+    public List<Membre> rechercherMembres(String critere, int limite) throws SQLException {
+        if (!RECHERCHE_MEMBRES_MEMOIRE) {
+            return membreDAO.rechercher(critere, limite);
+        }
         List<Membre> resultats = new ArrayList<>();
-        List<Membre> tous = membreDAO.findAll();
-        String q = critere == null ? "" : critere.trim().toLowerCase();
-        for (Membre membre : tous) {
-            String nom = membre.getNom() == null ? "" : membre.getNom().toLowerCase();
-            String prenom = membre.getPrenom() == null ? "" : membre.getPrenom().toLowerCase();
-            String email = membre.getEmail() == null ? "" : membre.getEmail().toLowerCase();
-            String nomComplet = (prenom + " " + nom).trim();
-
-            if (nom.contains(q) || prenom.contains(q) || email.contains(q) || nomComplet.contains(q)) {
-                resultats.add(membre);
-            }
+        for (Membre membre : indexMembres().rechercher(critere, limite)) {
+            resultats.add(copier(membre));
         }
-        
         return resultats;
     }
 
+    private IndexRecherche<Membre> indexMembres() throws SQLException {
+        synchronized (verrouIndexMembres) {
+            if (indexMembres == null) {
+                IndexRecherche<Membre> nouvel = new IndexRecherche<>(membre -> String.valueOf(membre.getId()),
+                        membre -> membre.getPrenom() + " " + membre.getNom() + " " + membre.getEmail());
+                try (Stream<Membre> membres = membreDAO.streamAll()) {
+                    membres.forEach(nouvel::indexer);
+                }
+                indexMembres = nouvel;
+            }
+            return indexMembres;
+        }
+    }
+
+    private boolean indexMembresConstruit() {
+        synchronized (verrouIndexMembres) {
+            return indexMembres != null;
+        }
+    }
+
+    private void actualiserMembreIndexe(Membre membre) {
+        if (membre == null) {
+            return;
+        }
+        Membre copie = copier(membre);
+        synchronized (verrouIndexMembres) {
+            if (indexMembres != null) {
+                indexMembres.indexer(copie);
+            }
+        }
+    }
+
+    private static Membre copier(Membre membre) {
+        return new Membre(membre.getId(), membre.getNom(), membre.getPrenom(), membre.getEmail(),
+                membre.isActif(), membre.getDateInscription());
+    }
+
     
     public List<Membre> getMembresActifs() throws SQLException {
         return membreDAO.findActifs();
@@ -141,6 +364,24 @@ public class BibliothequeService {
         return membreDAO.findAll();
     }
 
+    // Page de membres triés par id, après la clé donnée (null pour la première page).
+
+    public Page<Membre> getMembresPage(String apresCle, int taille) throws SQLException {
+        return membreDAO.findPage(apresCle, taille);
+    }
+
+    // Nombre total de membres.
+
+    public int compterMembres() throws SQLException {
+        return membreDAO.count();
+    }
+
+    // Fenêtre de membres selon le tri donné, après le membre apres ou à la position debut (affichage paginé).
+
+    public List<Membre> getMembresFenetre(Tri tri, Membre apres, int debut, int taille) throws SQLException {
+        return membreDAO.findFenetre(tri, apres, debut, taille);
+    }
+
   
     public Membre getMembre(int id) throws SQLException {
         return membreDAO.findByIntId(id);
@@ -153,22 +394,15 @@ public class BibliothequeService {
 
    
     public String getStatistiques() throws SQLException {
-        int totalLivres = livreDAO.findAll().size();
-        int livresDisponibles = livreDAO.findDisponibles().size();
-        int totalMembres = membreDAO.findAll().size();
-        int membresActifs = membreDAO.findActifs().size();
-        
-        StringBuilder stats = new StringBuilder();
-        stats.append("📊STATISTIQUES\n");
-        stats.append("================\n");
-        stats.append("Livres totaux: ").append(totalLivres).append("\n");
-        stats.append("Livres disponibles: ").append(livresDisponibles).append("\n");
-        stats.append("Livres empruntés: ").append(totalLivres - livresDisponibles).append("\n");
-        stats.append("Membres totaux: ").append(totalMembres).append("\n");
-        stats.append("Membres actifs: ").append(membresActifs).append("\n");
-        stats.append("Membres inactifs: ").append(totalMembres - membresActifs);
-        
-        return stats.toString();
+        return statistiquesService.formater(statistiquesService.getStatistiques());
+    }
+
+    // Statistiques lues dans les compteurs en mémoire, sans accès à la base ; null tant qu'aucune
+    // référence n'est disponible (getStatistiques la recalcule).
+
+    public String getStatistiquesEnMemoire() {
+        Statistiques courantes = statistiquesService.getCompteurs().instantane();
+        return courantes == null ? null : statistiquesService.formater(courantes);
     }
 }
 
@@ -0,0 +1,46 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.util.TransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Diffusion des changements d'entités aux écrans qui les affichent.
+ *
+ * Un changement publié dans une transaction n'est diffusé qu'après sa validation (rien après
+ * un rollback), une fois la connexion rendue : un abonné qui relit la ligne voit donc la
+ * nouvelle version. Les abonnés sont appelés sur le thread qui a validé et doivent
+ * eux-mêmes repasser sur le thread de l'interface.
+ */
+public class BusChangements {
+    private final List<Consumer<Changement>> abonnes = new CopyOnWriteArrayList<>();
+
+    public void abonner(Consumer<Changement> abonne) {
+        abonnes.add(abonne);
+    }
+
+    public void desabonner(Consumer<Changement> abonne) {
+        abonnes.remove(abonne);
+    }
+
+    /**
+     * Publie un changement, après la validation de la transaction courante s'il y en a une.
+     *
+     * @param changement le changement
+     */
+    public void publier(Changement changement) {
+        TransactionManager.apresValidation(() -> diffuser(changement));
+    }
+
+    private void diffuser(Changement changement) {
+        for (Consumer<Changement> abonne : abonnes) {
+            try {
+                abonne.accept(changement);
+            } catch (RuntimeException e) {
+                System.err.println("Abonné en erreur sur " + changement + " : " + e.getMessage());
+            }
+        }
+    }
+}
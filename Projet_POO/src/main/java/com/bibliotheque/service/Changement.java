@@ -0,0 +1,70 @@
+package com.bibliotheque.service;
+
+/**
+ * Changement d'une entité, annoncé par les services sur le {@link BusChangements} une fois
+ * la transaction validée. Seule la clé est transmise : l'abonné relit la ligne s'il l'affiche.
+ */
+public final class Changement {
+
+    public enum Entite { LIVRE, MEMBRE, EMPRUNT }
+
+    public enum Type { CREE, MODIFIE, SUPPRIME }
+
+    private final Entite entite;
+    private final Type type;
+    private final String cle;
+
+    /**
+     * @param entite le type d'entité
+     * @param type   la nature du changement
+     * @param cle    la clé primaire (ISBN, id), ou null si un nombre inconnu de lignes a changé
+     */
+    public Changement(Entite entite, Type type, String cle) {
+        this.entite = entite;
+        this.type = type;
+        this.cle = cle;
+    }
+
+    public static Changement cree(Entite entite, Object cle) {
+        return new Changement(entite, Type.CREE, String.valueOf(cle));
+    }
+
+    public static Changement modifie(Entite entite, Object cle) {
+        return new Changement(entite, Type.MODIFIE, String.valueOf(cle));
+    }
+
+    public static Changement supprime(Entite entite, Object cle) {
+        return new Changement(entite, Type.SUPPRIME, String.valueOf(cle));
+    }
+
+    /**
+     * Changement d'un nombre inconnu de lignes (suppression en cascade, mise à jour en masse).
+     */
+    public static Changement global(Entite entite) {
+        return new Changement(entite, Type.MODIFIE, null);
+    }
+
+    public Entite getEntite() {
+        return entite;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getCle() {
+        return cle;
+    }
+
+    /**
+     * @return true si les lignes changées ne sont pas connues : tout ce qui est affiché est à relire
+     */
+    public boolean estGlobal() {
+        return cle == null;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + entite + (cle == null ? " (global)" : " " + cle);
+    }
+}
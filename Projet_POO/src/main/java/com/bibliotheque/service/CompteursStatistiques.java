@@ -0,0 +1,131 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.model.Statistiques;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs du tableau de bord maintenus en mémoire.
+ *
+ * Les services signalent chaque écriture validée (ajout de livre, emprunt, retour...) par
+ * un incrément sur un {@link LongAdder} : aucun verrou, aucune contention entre threads.
+ * La lecture additionne une référence lue en base et les incréments reçus depuis, en O(1).
+ *
+ * La référence est recalculée périodiquement ({@link #reconcilier(Statistiques)}) : elle
+ * corrige ce que les incréments ne voient pas (emprunts qui passent en retard avec le temps,
+ * écritures faites hors de l'application, suppressions en cascade) et l'éventuel écart dû à
+ * une écriture concurrente au calcul de la référence.
+ */
+public class CompteursStatistiques {
+    private static final int LIVRES = 0;
+    private static final int LIVRES_DISPONIBLES = 1;
+    private static final int MEMBRES = 2;
+    private static final int MEMBRES_ACTIFS = 3;
+    private static final int EMPRUNTS = 4;
+    private static final int EMPRUNTS_EN_COURS = 5;
+    private static final int EMPRUNTS_EN_RETARD = 6;
+    private static final int PENALITES_CENTIMES = 7;
+    private static final int NOMBRE_COMPTEURS = 8;
+
+    private final LongAdder[] increments = new LongAdder[NOMBRE_COMPTEURS];
+
+    // Référence lue en base et valeur des incréments à cet instant (publiées ensemble).
+    private volatile Etat etat;
+
+    private static final class Etat {
+        final long[] reference;
+        final long[] decalage;
+
+        Etat(long[] reference, long[] decalage) {
+            this.reference = reference;
+            this.decalage = decalage;
+        }
+    }
+
+    public CompteursStatistiques() {
+        for (int i = 0; i < NOMBRE_COMPTEURS; i++) {
+            increments[i] = new LongAdder();
+        }
+    }
+
+    // Valeurs courantes, ou null si aucune référence n'a encore été calculée (ou si elle a été invalidée).
+
+    public Statistiques instantane() {
+        Etat courant = etat;
+        if (courant == null) {
+            return null;
+        }
+        long[] v = new long[NOMBRE_COMPTEURS];
+        for (int i = 0; i < NOMBRE_COMPTEURS; i++) {
+            v[i] = Math.max(0, courant.reference[i] + increments[i].sum() - courant.decalage[i]);
+        }
+        return new Statistiques((int) v[LIVRES], (int) Math.min(v[LIVRES_DISPONIBLES], v[LIVRES]),
+                (int) v[MEMBRES], (int) Math.min(v[MEMBRES_ACTIFS], v[MEMBRES]),
+                (int) v[EMPRUNTS], (int) v[EMPRUNTS_EN_COURS], (int) v[EMPRUNTS_EN_RETARD],
+                v[PENALITES_CENTIMES] / 100.0);
+    }
+
+    // Remplace la référence par des valeurs fraîchement lues en base.
+
+    public void reconcilier(Statistiques reference) {
+        long[] valeurs = new long[NOMBRE_COMPTEURS];
+        valeurs[LIVRES] = reference.getTotalLivres();
+        valeurs[LIVRES_DISPONIBLES] = reference.getLivresDisponibles();
+        valeurs[MEMBRES] = reference.getTotalMembres();
+        valeurs[MEMBRES_ACTIFS] = reference.getMembresActifs();
+        valeurs[EMPRUNTS] = reference.getTotalEmprunts();
+        valeurs[EMPRUNTS_EN_COURS] = reference.getEmpruntsEnCours();
+        valeurs[EMPRUNTS_EN_RETARD] = reference.getEmpruntsEnRetard();
+        valeurs[PENALITES_CENTIMES] = Math.round(reference.getTotalPenalites() * 100);
+        long[] decalage = new long[NOMBRE_COMPTEURS];
+        for (int i = 0; i < NOMBRE_COMPTEURS; i++) {
+            decalage[i] = increments[i].sum();
+        }
+        etat = new Etat(valeurs, decalage);
+    }
+
+    // Oublie la référence : la prochaine lecture devra réconcilier (écriture dont l'effet n'est pas connu).
+
+    public void invalider() {
+        etat = null;
+    }
+
+    public void livreAjoute(boolean disponible) {
+        increments[LIVRES].increment();
+        if (disponible) {
+            increments[LIVRES_DISPONIBLES].increment();
+        }
+    }
+
+    public void disponibiliteChangee(boolean disponible) {
+        increments[LIVRES_DISPONIBLES].add(disponible ? 1 : -1);
+    }
+
+    public void membreAjoute(boolean actif) {
+        increments[MEMBRES].increment();
+        if (actif) {
+            increments[MEMBRES_ACTIFS].increment();
+        }
+    }
+
+    public void statutMembreChange(boolean actif) {
+        increments[MEMBRES_ACTIFS].add(actif ? 1 : -1);
+    }
+
+    public void empruntCree() {
+        increments[EMPRUNTS].increment();
+        increments[EMPRUNTS_EN_COURS].increment();
+        increments[LIVRES_DISPONIBLES].decrement();
+    }
+
+    // penaliteAjoutee : écart entre la pénalité du retour et celle déjà enregistrée sur l'emprunt.
+
+    public void empruntRetourne(boolean etaitEnRetard, double penaliteAjoutee) {
+        increments[EMPRUNTS_EN_COURS].decrement();
+        if (etaitEnRetard) {
+            increments[EMPRUNTS_EN_RETARD].decrement();
+        }
+        increments[PENALITES_CENTIMES].add(Math.round(penaliteAjoutee * 100));
+        increments[LIVRES_DISPONIBLES].increment();
+    }
+}
@@ -3,6 +3,8 @@ package com.bibliotheque.service;
 import com.bibliotheque.dao.EmpruntDAO;
 import com.bibliotheque.dao.LivreDAO;
 import com.bibliotheque.dao.MembreDAO;
+import com.bibliotheque.dao.Page;
+import com.bibliotheque.dao.Tri;
 import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
 import com.bibliotheque.exception.LivreIndisponibleException;
 import com.bibliotheque.exception.MembreInactifException;
@@ -10,10 +12,12 @@ import com.bibliotheque.model.Emprunt;
 import com.bibliotheque.model.Livre;
 import com.bibliotheque.model.Membre;
 import com.bibliotheque.util.DateUtils;
+import com.bibliotheque.util.TransactionManager;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 // Service métier pour la gestion des emprunts.
  
@@ -25,6 +29,13 @@ public class EmpruntService {
     private static final int LIMITE_EMPRUNTS = 3;
     private static final int JOURS_EMPRUNT = 14;
 
+    // Prévenu du nouvel état d'un livre après un emprunt ou un retour validé.
+    private Consumer<Livre> ecouteurLivres = livre -> { };
+
+    // Compteurs du tableau de bord, mis à jour après chaque emprunt ou retour validé.
+    private CompteursStatistiques compteurs = new CompteursStatistiques();
+    private BusChangements busChangements = new BusChangements();
+
     // Constructeur avec injection des dépendances.
     
     public EmpruntService(EmpruntDAO empruntDAO, LivreDAO livreDAO, MembreDAO membreDAO) {
@@ -33,82 +44,91 @@ public class EmpruntService {
         this.membreDAO = membreDAO;
     }
 
-    // Emprunte un livre pour un membre.
-   
-    public Emprunt emprunterLivre(String isbn, int membreId) 
-            throws MembreInactifException, LivreIndisponibleException, 
-                   LimiteEmpruntDepasseeException, SQLException {
-        
-        // Récupérer le livre
-        Livre livre = livreDAO.findByISBN(isbn);
-        if (livre == null) {
-            throw new LivreIndisponibleException("Livre non trouvé : " + isbn);
-        }
+    // Enregistre l'écouteur prévenu des changements de disponibilité (index de recherche, par exemple).
 
-        // Récupérer le membre
-        Membre membre = membreDAO.findByIntId(membreId);
-        if (membre == null) {
-            throw new MembreInactifException("Membre non trouvé : " + membreId);
-        }
+    public void setEcouteurLivres(Consumer<Livre> ecouteurLivres) {
+        this.ecouteurLivres = ecouteurLivres;
+    }
 
-        // Vérifier que le membre est actif
-        if (!membre.isActif()) {
-            throw new MembreInactifException("Le membre " + membre.getNomComplet() + " n'est pas actif");
-        }
+    // Partage les compteurs du tableau de bord (voir StatistiquesService.getCompteurs()).
 
-        // Vérifier que le livre est disponible
-        if (!livre.peutEtreEmprunte()) {
-            throw new LivreIndisponibleException("Le livre '" + livre.getTitre() + "' n'est pas disponible");
-        }
+    public void setCompteurs(CompteursStatistiques compteurs) {
+        this.compteurs = compteurs;
+    }
 
-        // Vérifier que le membre n'a pas déjà 3 emprunts en cours
-        int empruntEnCours = empruntDAO.countEmpruntsEnCours(membreId);
-        if (empruntEnCours >= LIMITE_EMPRUNTS) {
-            throw new LimiteEmpruntDepasseeException(
-                    "Le membre " + membre.getNomComplet() + " a atteint la limite de " + LIMITE_EMPRUNTS + " emprunts"
-            );
-        }
+    // Partage le bus des changements (voir BibliothequeService.getBusChangements()).
 
-        // Créer l'emprunt
-        LocalDate dateEmprunt = LocalDate.now();
-        LocalDate dateRetourPrevue = DateUtils.ajouterJours(dateEmprunt, JOURS_EMPRUNT);
-        
-        Emprunt emprunt = new Emprunt(dateEmprunt, dateRetourPrevue, livre, membre);
-        
-        // Sauvegarder l'emprunt
-        empruntDAO.save(emprunt);
-        
-        // Marquer le livre comme non disponible
-        livre.emprunter();
-        livreDAO.update(livre);
-        
-        return emprunt;
+    public void setBusChangements(BusChangements busChangements) {
+        this.busChangements = busChangements;
+    }
+
+    // Emprunte un livre pour un membre.
+   
+    public Emprunt emprunterLivre(String isbn, int membreId) 
+            throws MembreInactifException, LivreIndisponibleException, 
+                   LimiteEmpruntDepasseeException, SQLException {
+        return emprunterLivre(isbn, membreId, null);
     }
 
     // Emprunte un livre en utilisant une date de retour prévue fournie par l'utilisateur.
+    // Vérifications et écritures forment une seule transaction : le livre puis le membre sont
+    // verrouillés (FOR UPDATE), toujours dans cet ordre, et la transaction est rejouée en cas d'interblocage.
+    // Appelé dans une transaction ouverte par l'appelant, l'emprunt la rejoint.
      
     public Emprunt emprunterLivre(String isbn, int membreId, LocalDate dateRetourPrevue)
             throws MembreInactifException, LivreIndisponibleException,
             LimiteEmpruntDepasseeException, SQLException {
 
-        Livre livre = livreDAO.findByISBN(isbn);
+        for (int tentative = 1; ; tentative++) {
+            try (TransactionManager.Transaction tx = TransactionManager.debuter()) {
+                Emprunt emprunt = emprunterDansTransaction(isbn, membreId, dateRetourPrevue);
+                // Diffusés après le commit de la transaction englobante, s'il y en a une
+                busChangements.publier(Changement.cree(Changement.Entite.EMPRUNT, emprunt.getId()));
+                busChangements.publier(Changement.modifie(Changement.Entite.LIVRE, isbn));
+                // Compteurs et index ne reflètent que des données validées
+                Livre livre = emprunt.getLivre();
+                TransactionManager.apresValidation(() -> {
+                    compteurs.empruntCree();
+                    ecouteurLivres.accept(livre);
+                });
+                tx.valider();
+                return emprunt;
+            } catch (SQLException e) {
+                if (!TransactionManager.peutReessayer(e, tentative)) {
+                    throw e;
+                }
+                TransactionManager.attendreAvantNouvelleTentative(tentative);
+            }
+        }
+    }
+
+    private Emprunt emprunterDansTransaction(String isbn, int membreId, LocalDate dateRetourPrevue)
+            throws MembreInactifException, LivreIndisponibleException,
+            LimiteEmpruntDepasseeException, SQLException {
+
+        // Récupérer et verrouiller le livre
+        Livre livre = livreDAO.findByISBNPourMiseAJour(isbn);
         if (livre == null) {
             throw new LivreIndisponibleException("Livre non trouvé : " + isbn);
         }
 
-        Membre membre = membreDAO.findByIntId(membreId);
+        // Récupérer et verrouiller le membre : ses emprunts simultanés sont sérialisés
+        Membre membre = membreDAO.findByIntIdPourMiseAJour(membreId);
         if (membre == null) {
             throw new MembreInactifException("Membre non trouvé : " + membreId);
         }
 
+        // Vérifier que le membre est actif
         if (!membre.isActif()) {
             throw new MembreInactifException("Le membre " + membre.getNomComplet() + " n'est pas actif");
         }
 
+        // Vérifier que le livre est disponible
         if (!livre.peutEtreEmprunte()) {
             throw new LivreIndisponibleException("Le livre '" + livre.getTitre() + "' n'est pas disponible");
         }
 
+        // Vérifier que le membre n'a pas déjà 3 emprunts en cours
         int empruntEnCours = empruntDAO.countEmpruntsEnCours(membreId);
         if (empruntEnCours >= LIMITE_EMPRUNTS) {
             throw new LimiteEmpruntDepasseeException(
@@ -122,18 +142,41 @@ public class EmpruntService {
             dateRetourPrevue = DateUtils.ajouterJours(dateEmprunt, JOURS_EMPRUNT);
         }
 
+        // Marquer le livre comme non disponible (mise à jour conditionnelle)
+        if (!livreDAO.marquerEmprunte(isbn)) {
+            throw new LivreIndisponibleException("Le livre '" + livre.getTitre() + "' n'est pas disponible");
+        }
+        livre.emprunter();
+
         Emprunt emprunt = new Emprunt(dateEmprunt, dateRetourPrevue, livre, membre);
         empruntDAO.save(emprunt);
 
-        livre.emprunter();
-        livreDAO.update(livre);
-
         return emprunt;
     }
 
-    // Retourne un livre emprunté.
+    // Retourne un livre emprunté, en une seule transaction.
   
     public void retournerLivre(int empruntId) throws SQLException {
+        for (int tentative = 1; ; tentative++) {
+            try (TransactionManager.Transaction tx = TransactionManager.debuter()) {
+                Emprunt emprunt = retournerDansTransaction(empruntId);
+                busChangements.publier(Changement.modifie(Changement.Entite.EMPRUNT, empruntId));
+                busChangements.publier(Changement.modifie(Changement.Entite.LIVRE, emprunt.getLivre().getIsbn()));
+                // Compteurs mis à jour par retournerDansTransaction, index après le commit
+                Livre livre = emprunt.getLivre();
+                TransactionManager.apresValidation(() -> ecouteurLivres.accept(livre));
+                tx.valider();
+                return;
+            } catch (SQLException e) {
+                if (!TransactionManager.peutReessayer(e, tentative)) {
+                    throw e;
+                }
+                TransactionManager.attendreAvantNouvelleTentative(tentative);
+            }
+        }
+    }
+
+    private Emprunt retournerDansTransaction(int empruntId) throws SQLException {
         Emprunt emprunt = empruntDAO.findById(String.valueOf(empruntId));
         if (emprunt == null) {
             throw new SQLException("Emprunt non trouvé : " + empruntId);
@@ -142,17 +185,26 @@ public class EmpruntService {
         // Mettre à jour la date de retour effective
         emprunt.setDateRetourEffective(LocalDate.now());
         
-        // Calculer la pénalité si retard
+        // Calculer la pénalité si retard ; le calcul nocturne a pu en enregistrer déjà une partie
+        double penaliteEnregistree = emprunt.getPenalite();
         double penalite = calculerPenalite(emprunt);
         emprunt.setPenalite(penalite);
         
-        // Sauvegarder l'emprunt
-        empruntDAO.update(emprunt);
+        // Enregistrer le retour, sauf si un autre poste l'a déjà fait
+        if (!empruntDAO.enregistrerRetour(emprunt)) {
+            throw new SQLException("Emprunt déjà retourné : " + empruntId);
+        }
+
+        // La référence des compteurs (SUM(penalite)) compte déjà la pénalité enregistrée : seul l'écart est ajouté
+        boolean etaitEnRetard = emprunt.getDateRetourPrevue().isBefore(emprunt.getDateRetourEffective());
+        double penaliteAjoutee = penalite - penaliteEnregistree;
+        TransactionManager.apresValidation(() -> compteurs.empruntRetourne(etaitEnRetard, penaliteAjoutee));
         
         // Marquer le livre comme disponible
         Livre livre = emprunt.getLivre();
         livre.retourner();
-        livreDAO.update(livre);
+        livreDAO.marquerDisponible(livre.getIsbn());
+        return emprunt;
     }
 
     //Récupère tous les emprunts en retard.
@@ -184,6 +236,30 @@ public class EmpruntService {
         return empruntDAO.findAll();
     }
 
+    // Page d'emprunts triés par id, après la clé donnée (null pour la première page).
+
+    public Page<Emprunt> getEmpruntsPage(String apresCle, int taille) throws SQLException {
+        return empruntDAO.findPage(apresCle, taille);
+    }
+
+    // Nombre total d'emprunts.
+
+    public int compterEmprunts() throws SQLException {
+        return empruntDAO.count();
+    }
+
+    // Fenêtre d'emprunts selon le tri donné, après l'emprunt apres ou à la position debut (affichage paginé).
+
+    public List<Emprunt> getEmpruntsFenetre(Tri tri, Emprunt apres, int debut, int taille) throws SQLException {
+        return empruntDAO.findFenetre(tri, apres, debut, taille);
+    }
+
+    // Emprunt d'identifiant donné (avec son livre et son membre), ou null s'il n'existe pas.
+
+    public Emprunt getEmprunt(int id) throws SQLException {
+        return empruntDAO.findById(String.valueOf(id));
+    }
+
     // Compte le nombre d'emprunts en cours pour un membre.
      
     public int countEmpruntsEnCours(int membreId) throws SQLException {
@@ -0,0 +1,98 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.dao.StatistiquesDAO;
+import com.bibliotheque.model.Statistiques;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Service de tableau de bord : compteurs agrégés de la bibliothèque.
+// Les lectures sont servies par les compteurs en mémoire, réconciliés avec la base périodiquement.
+
+public class StatistiquesService {
+    private final StatistiquesDAO statistiquesDAO;
+    private final CompteursStatistiques compteurs = new CompteursStatistiques();
+
+    // Période de réconciliation des compteurs avec la base.
+    private static final long PERIODE_RECONCILIATION_MS =
+            Long.getLong("bibliotheque.statistiques.reconciliationMs", 60_000L);
+
+    private ScheduledExecutorService planificateur;
+
+
+    public StatistiquesService(StatistiquesDAO statistiquesDAO) {
+        this.statistiquesDAO = statistiquesDAO;
+    }
+
+    // Compteurs à mettre à jour par les services après chaque écriture validée.
+
+    public CompteursStatistiques getCompteurs() {
+        return compteurs;
+    }
+
+    // Statistiques courantes, lues dans les compteurs en mémoire (la base n'est interrogée
+    // que si aucune référence n'est disponible).
+
+    public Statistiques getStatistiques() throws SQLException {
+        Statistiques courantes = compteurs.instantane();
+        if (courantes != null) {
+            return courantes;
+        }
+        reconcilier();
+        return compteurs.instantane();
+    }
+
+    // Recalcule la référence des compteurs en base (une requête d'agrégation).
+
+    public void reconcilier() throws SQLException {
+        compteurs.reconcilier(statistiquesDAO.calculer());
+    }
+
+    // Lance la réconciliation périodique sur un thread démon.
+
+    public synchronized void demarrerReconciliation() {
+        if (planificateur != null) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "reconciliation-statistiques");
+            thread.setDaemon(true);
+            return thread;
+        });
+        planificateur.scheduleWithFixedDelay(() -> {
+            try {
+                reconcilier();
+            } catch (SQLException e) {
+                System.err.println("Réconciliation des statistiques impossible : " + e.getMessage());
+            }
+        }, 0, PERIODE_RECONCILIATION_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void arreterReconciliation() {
+        if (planificateur != null) {
+            planificateur.shutdownNow();
+            planificateur = null;
+        }
+    }
+
+    // Met en forme les statistiques pour l'affichage.
+
+    public String formater(Statistiques s) {
+        StringBuilder stats = new StringBuilder();
+        stats.append("📊STATISTIQUES\n");
+        stats.append("================\n");
+        stats.append("Livres totaux: ").append(s.getTotalLivres()).append("\n");
+        stats.append("Livres disponibles: ").append(s.getLivresDisponibles()).append("\n");
+        stats.append("Livres empruntés: ").append(s.getLivresEmpruntes()).append("\n");
+        stats.append("Membres totaux: ").append(s.getTotalMembres()).append("\n");
+        stats.append("Membres actifs: ").append(s.getMembresActifs()).append("\n");
+        stats.append("Membres inactifs: ").append(s.getMembresInactifs()).append("\n");
+        stats.append("Emprunts en cours: ").append(s.getEmpruntsEnCours()).append("\n");
+        stats.append("Emprunts en retard: ").append(s.getEmpruntsEnRetard()).append("\n");
+        stats.append("Pénalités totales: ").append(String.format("%.2f DH", s.getTotalPenalites())).append("\n");
+        stats.append("Emprunts par livre: ").append(String.format("%.2f", s.getRotationParLivre()));
+        return stats.toString();
+    }
+}
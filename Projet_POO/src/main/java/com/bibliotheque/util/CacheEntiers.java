@@ -0,0 +1,178 @@
+package com.bibliotheque.util;
+
+import java.util.Arrays;
+
+/**
+ * Table de cache à clés int primitives, de capacité fixe, à éviction CLOCK.
+ *
+ * Les clés sont rangées dans un tableau int[] en adressage ouvert (sondage linéaire),
+ * sans boxing ni objet par entrée. À capacité atteinte, l'aiguille de l'horloge parcourt
+ * les cases : une entrée lue depuis son dernier passage (bit de référence) obtient un
+ * sursis, la première qui ne l'a pas été est évincée — une approximation du LRU
+ * qui ne réordonne rien à la lecture.
+ *
+ * Non synchronisée : l'appelant protège les accès.
+ */
+public class CacheEntiers<V> {
+    private final int capacite;
+    private final int masque;
+    private final int[] cles;
+    private final Object[] valeurs;
+    private final boolean[] references;
+    private int taille;
+    private int aiguille;
+
+    /**
+     * @param capacite le nombre maximal d'entrées
+     */
+    public CacheEntiers(int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être positive : " + capacite);
+        }
+        // facteur de remplissage au plus 1/2 pour des sondages courts
+        int cases = Integer.highestOneBit(Math.max(2, capacite) * 2 - 1) << 1;
+        this.capacite = capacite;
+        this.masque = cases - 1;
+        this.cles = new int[cases];
+        this.valeurs = new Object[cases];
+        this.references = new boolean[cases];
+    }
+
+    private static int melanger(int cle) {
+        int h = cle * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int chercher(int cle) {
+        for (int i = melanger(cle) & masque; valeurs[i] != null; i = (i + 1) & masque) {
+            if (cles[i] == cle) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne la valeur associée à la clé, ou null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int cle) {
+        int i = chercher(cle);
+        if (i < 0) {
+            return null;
+        }
+        references[i] = true;
+        return (V) valeurs[i];
+    }
+
+    /**
+     * Associe la valeur à la clé, en évinçant une entrée si la capacité est atteinte.
+     *
+     * @return la valeur évincée pour faire de la place, ou null
+     */
+    @SuppressWarnings("unchecked")
+    public V mettre(int cle, V valeur) {
+        if (valeur == null) {
+            throw new IllegalArgumentException("Valeur nulle");
+        }
+        int i = chercher(cle);
+        if (i >= 0) {
+            valeurs[i] = valeur;
+            references[i] = true;
+            return null;
+        }
+        V evincee = null;
+        if (taille >= capacite) {
+            evincee = (V) evincer();
+        }
+        i = melanger(cle) & masque;
+        while (valeurs[i] != null) {
+            i = (i + 1) & masque;
+        }
+        cles[i] = cle;
+        valeurs[i] = valeur;
+        references[i] = false;
+        taille++;
+        return evincee;
+    }
+
+    /**
+     * Avance l'aiguille jusqu'à une entrée non référencée, la retire et la retourne.
+     */
+    private Object evincer() {
+        while (true) {
+            int i = aiguille;
+            aiguille = (aiguille + 1) & masque;
+            if (valeurs[i] == null) {
+                continue;
+            }
+            if (references[i]) {
+                references[i] = false;
+                continue;
+            }
+            Object victime = valeurs[i];
+            retirerCase(i);
+            return victime;
+        }
+    }
+
+    /**
+     * Retire la clé.
+     *
+     * @return la valeur retirée, ou null si la clé était absente
+     */
+    @SuppressWarnings("unchecked")
+    public V retirer(int cle) {
+        int i = chercher(cle);
+        if (i < 0) {
+            return null;
+        }
+        V valeur = (V) valeurs[i];
+        retirerCase(i);
+        return valeur;
+    }
+
+    /**
+     * Supprime la case i et recolle le reste de la grappe (suppression par décalage arrière),
+     * pour que les sondages ultérieurs ne s'arrêtent pas sur un trou.
+     */
+    private void retirerCase(int i) {
+        int trou = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & masque;
+            if (valeurs[j] == null) {
+                break;
+            }
+            int ideal = melanger(cles[j]) & masque;
+            // l'entrée j peut combler le trou si sa case idéale n'est pas dans ]trou, j]
+            boolean deplacable = trou <= j ? (ideal <= trou || ideal > j) : (ideal <= trou && ideal > j);
+            if (deplacable) {
+                cles[trou] = cles[j];
+                valeurs[trou] = valeurs[j];
+                references[trou] = references[j];
+                trou = j;
+            }
+        }
+        valeurs[trou] = null;
+        references[trou] = false;
+        taille--;
+    }
+
+    /**
+     * Vide la table.
+     */
+    public void vider() {
+        Arrays.fill(valeurs, null);
+        Arrays.fill(references, false);
+        taille = 0;
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    public int capacite() {
+        return capacite;
+    }
+}
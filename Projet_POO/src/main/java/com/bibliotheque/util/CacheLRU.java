@@ -0,0 +1,139 @@
+package com.bibliotheque.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache mémoire borné, à éviction LRU et expiration optionnelle (TTL), avec statistiques.
+ *
+ * Pour éviter qu'une lecture concurrente ne réinsère une valeur périmée juste après une
+ * invalidation, le chargement suit le protocole suivant :
+ * <pre>
+ * long version = cache.version();
+ * V valeur = ... lecture en base ...;
+ * cache.mettreSiInchange(cle, valeur, version);
+ * </pre>
+ * La valeur n'est insérée que si aucune invalidation n'a eu lieu depuis {@link #version()}.
+ */
+public class CacheLRU<K, V> {
+    private final int capacite;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entree<V>> entrees;
+    private long versionInvalidation;
+
+    private final StatistiquesCache statistiques;
+
+    /**
+     * @param nom      le nom affiché dans les statistiques
+     * @param capacite le nombre maximal d'entrées
+     * @param ttlMs    la durée de vie d'une entrée en millisecondes (0 = sans expiration)
+     */
+    public CacheLRU(String nom, int capacite, long ttlMs) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité du cache doit être positive : " + capacite);
+        }
+        this.statistiques = new StatistiquesCache(nom);
+        this.capacite = capacite;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entrees = new LinkedHashMap<>(Math.min(capacite, 1 << 16), 0.75f, true);
+    }
+
+    /**
+     * Retourne la valeur en cache, ou null si elle est absente ou expirée.
+     */
+    public synchronized V get(K cle) {
+        Entree<V> entree = entrees.get(cle);
+        if (entree == null) {
+            statistiques.echec();
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - entree.insertion > ttlNanos) {
+            entrees.remove(cle);
+            statistiques.expiration();
+            statistiques.echec();
+            return null;
+        }
+        statistiques.succes();
+        return entree.valeur;
+    }
+
+    /**
+     * Indique si la clé est en cache, sans compter de succès ni modifier l'ordre LRU.
+     */
+    public synchronized boolean contient(K cle) {
+        Entree<V> entree = entrees.get(cle);
+        return entree != null && (ttlNanos == 0 || System.nanoTime() - entree.insertion <= ttlNanos);
+    }
+
+    /**
+     * Version courante des invalidations, à lire avant un chargement.
+     */
+    public synchronized long version() {
+        return versionInvalidation;
+    }
+
+    /**
+     * Insère la valeur si aucune invalidation n'a eu lieu depuis la version donnée.
+     *
+     * @return true si la valeur a été insérée
+     */
+    public synchronized boolean mettreSiInchange(K cle, V valeur, long version) {
+        if (version != versionInvalidation) {
+            return false;
+        }
+        entrees.put(cle, new Entree<>(valeur, System.nanoTime()));
+        if (entrees.size() > capacite) {
+            Iterator<Map.Entry<K, Entree<V>>> it = entrees.entrySet().iterator();
+            it.next();
+            it.remove();
+            statistiques.eviction();
+        }
+        return true;
+    }
+
+    /**
+     * Retire une entrée du cache.
+     */
+    public synchronized void invalider(K cle) {
+        versionInvalidation++;
+        entrees.remove(cle);
+    }
+
+    /**
+     * Vide le cache.
+     */
+    public synchronized void invaliderTout() {
+        versionInvalidation++;
+        entrees.clear();
+    }
+
+    public synchronized int taille() {
+        return entrees.size();
+    }
+
+    /**
+     * Compteurs du cache (succès, défauts, évictions, chargements).
+     */
+    public StatistiquesCache getCompteurs() {
+        return statistiques;
+    }
+
+    /**
+     * Résumé des statistiques, pour les journaux et la supervision.
+     */
+    public String getStatistiques() {
+        return statistiques.resume(taille(), capacite);
+    }
+
+    private static final class Entree<V> {
+        final V valeur;
+        final long insertion;
+
+        Entree(V valeur, long insertion) {
+            this.valeur = valeur;
+            this.insertion = insertion;
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.bibliotheque.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool borné de connexions JDBC.
+ *
+ * Le nombre de connexions ouvertes est limité par un sémaphore ; les connexions libres sont
+ * conservées dans une pile sans verrou (la plus récemment rendue est réutilisée en premier).
+ * Chaque emprunt retourne un proxy dont la méthode close() rend la connexion au pool au lieu
+ * de la fermer.
+ *
+ * Fonctionnalités :
+ * - validation à l'emprunt (isValid) des connexions restées inactives ;
+ * - éviction des connexions inactives au-delà de la taille minimale ;
+ * - recyclage des connexions ayant dépassé leur durée de vie maximale ;
+ * - délai d'attente borné à l'emprunt avec métriques d'attente ;
+ * - détection des fuites (connexion empruntée et jamais rendue) ;
+ * - cache LRU des PreparedStatement par connexion physique ({@link StatementCache}).
+ */
+public class ConnectionPool {
+
+    /** En dessous de ce délai d'inactivité, la connexion est réutilisée sans validation. */
+    private static final long VALIDATION_INUTILE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int tailleMin;
+    private final int tailleMax;
+    private final long delaiEmpruntMs;
+    private final long inactiviteMaxNanos;
+    private final long dureeVieMaxNanos;
+    private final long seuilFuiteNanos;
+    private final int timeoutValidationSecondes;
+    private final int tailleCacheStatements;
+
+    private final Semaphore permis;
+    private final ConcurrentLinkedDeque<ConnexionPhysique> libres = new ConcurrentLinkedDeque<>();
+    private final Set<ConnexionPhysique> empruntees = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean ferme;
+
+    private final LongAdder nbEmprunts = new LongAdder();
+    private final LongAdder nbCreations = new LongAdder();
+    private final LongAdder nbDestructions = new LongAdder();
+    private final LongAdder nbEchecsValidation = new LongAdder();
+    private final LongAdder nbTimeouts = new LongAdder();
+    private final LongAdder nbFuites = new LongAdder();
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final AtomicLong attenteMaxNanos = new AtomicLong();
+    private final LongAdder nbStatementsEnCache = new LongAdder();
+    private final LongAdder nbStatementsPrepares = new LongAdder();
+
+    /**
+     * Crée le pool et ouvre immédiatement {@code tailleMin} connexions.
+     *
+     * @param url                       l'URL JDBC
+     * @param user                      l'utilisateur
+     * @param password                  le mot de passe
+     * @param tailleMin                 nombre de connexions conservées même inactives
+     * @param tailleMax                 nombre maximal de connexions ouvertes
+     * @param delaiEmpruntMs            attente maximale pour obtenir une connexion
+     * @param inactiviteMaxMs           durée d'inactivité avant éviction
+     * @param dureeVieMaxMs             durée de vie maximale d'une connexion physique
+     * @param seuilFuiteMs              durée d'emprunt au-delà de laquelle une fuite est signalée (0 = désactivé)
+     * @param timeoutValidationSecondes délai accordé à isValid()
+     * @param tailleCacheStatements     nombre de PreparedStatement conservés par connexion (0 = pas de cache)
+     * @throws SQLException si les connexions initiales ne peuvent pas être ouvertes
+     */
+    public ConnectionPool(String url, String user, String password,
+                          int tailleMin, int tailleMax, long delaiEmpruntMs,
+                          long inactiviteMaxMs, long dureeVieMaxMs, long seuilFuiteMs,
+                          int timeoutValidationSecondes, int tailleCacheStatements) throws SQLException {
+        if (tailleMax <= 0 || tailleMin < 0 || tailleMin > tailleMax) {
+            throw new IllegalArgumentException("Tailles de pool invalides : min=" + tailleMin + ", max=" + tailleMax);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.tailleMin = tailleMin;
+        this.tailleMax = tailleMax;
+        this.delaiEmpruntMs = delaiEmpruntMs;
+        this.inactiviteMaxNanos = TimeUnit.MILLISECONDS.toNanos(inactiviteMaxMs);
+        this.dureeVieMaxNanos = TimeUnit.MILLISECONDS.toNanos(dureeVieMaxMs);
+        this.seuilFuiteNanos = TimeUnit.MILLISECONDS.toNanos(seuilFuiteMs);
+        this.timeoutValidationSecondes = timeoutValidationSecondes;
+        this.tailleCacheStatements = tailleCacheStatements;
+        this.permis = new Semaphore(tailleMax);
+
+        for (int i = 0; i < tailleMin; i++) {
+            libres.offerFirst(creer());
+        }
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-connexions-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long periode = Math.max(1000, Math.min(30_000, inactiviteMaxMs / 2));
+        maintenance.scheduleWithFixedDelay(this::entretenir, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Emprunte une connexion. Elle doit être rendue via close() (try-with-resources).
+     *
+     * @return une connexion prête à l'emploi
+     * @throws SQLTimeoutException si aucune connexion ne se libère dans le délai imparti
+     * @throws SQLException        si le pool est fermé ou si la connexion ne peut pas être ouverte
+     */
+    public Connection emprunter() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+        long debut = System.nanoTime();
+        try {
+            if (!permis.tryAcquire(delaiEmpruntMs, TimeUnit.MILLISECONDS)) {
+                nbTimeouts.increment();
+                throw new SQLTimeoutException("Aucune connexion disponible après " + delaiEmpruntMs
+                        + " ms (" + tailleMax + " connexions déjà empruntées)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue", e);
+        }
+
+        try {
+            ConnexionPhysique cp = obtenirConnexionValide();
+            enregistrerAttente(System.nanoTime() - debut);
+            cp.empruntee = System.nanoTime();
+            cp.fuiteSignalee = false;
+            cp.origine = seuilFuiteNanos > 0 ? new Throwable("Connexion empruntée ici") : null;
+            empruntees.add(cp);
+            nbEmprunts.increment();
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnexionEmpruntee(cp));
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    private ConnexionPhysique obtenirConnexionValide() throws SQLException {
+        ConnexionPhysique cp;
+        while ((cp = libres.pollFirst()) != null) {
+            long maintenant = System.nanoTime();
+            if (estExpiree(cp, maintenant)) {
+                detruire(cp);
+                continue;
+            }
+            if (maintenant - cp.dernierUsage > VALIDATION_INUTILE_NANOS && !estValide(cp)) {
+                nbEchecsValidation.increment();
+                detruire(cp);
+                continue;
+            }
+            return cp;
+        }
+        return creer();
+    }
+
+    private boolean estValide(ConnexionPhysique cp) {
+        try {
+            return cp.reelle.isValid(timeoutValidationSecondes);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean estExpiree(ConnexionPhysique cp, long maintenant) {
+        return dureeVieMaxNanos > 0 && maintenant - cp.creation > dureeVieMaxNanos;
+    }
+
+    private ConnexionPhysique creer() throws SQLException {
+        Connection reelle = DriverManager.getConnection(url, user, password);
+        nbCreations.increment();
+        return new ConnexionPhysique(reelle,
+                new StatementCache(reelle, tailleCacheStatements, nbStatementsEnCache, nbStatementsPrepares));
+    }
+
+    private void detruire(ConnexionPhysique cp) {
+        nbDestructions.increment();
+        try {
+            cp.statements.vider();
+            cp.reelle.close();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la fermeture d'une connexion du pool : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rend une connexion au pool après avoir annulé toute transaction restée ouverte.
+     */
+    private void restituer(ConnexionPhysique cp) {
+        empruntees.remove(cp);
+        try {
+            if (ferme || estExpiree(cp, System.nanoTime()) || cp.reelle.isClosed()) {
+                detruire(cp);
+                return;
+            }
+            reinitialiser(cp);
+            cp.dernierUsage = System.nanoTime();
+            libres.offerFirst(cp);
+        } catch (SQLException e) {
+            detruire(cp);
+        } finally {
+            permis.release();
+        }
+    }
+
+    private void reinitialiser(ConnexionPhysique cp) throws SQLException {
+        Connection c = cp.reelle;
+        if (!c.getAutoCommit()) {
+            c.rollback();
+            c.setAutoCommit(true);
+        }
+        if (cp.modifiee) {
+            c.setReadOnly(false);
+            c.setTransactionIsolation(cp.isolationInitiale);
+            cp.modifiee = false;
+        }
+    }
+
+    private void enregistrerAttente(long nanos) {
+        attenteTotaleNanos.add(nanos);
+        long max;
+        while (nanos > (max = attenteMaxNanos.get())) {
+            if (attenteMaxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Tâche périodique : éviction des connexions inactives ou expirées et détection des fuites.
+     */
+    private void entretenir() {
+        try {
+            long maintenant = System.nanoTime();
+            int aConserver = tailleMin;
+            // Les plus anciennes connexions libres sont en fin de pile : parcours depuis la fin,
+            // pour que les connexions conservées soient les plus récemment utilisées
+            for (Iterator<ConnexionPhysique> it = libres.descendingIterator(); it.hasNext(); ) {
+                ConnexionPhysique cp = it.next();
+                boolean inactive = inactiviteMaxNanos > 0 && maintenant - cp.dernierUsage > inactiviteMaxNanos;
+                // La connexion a pu être empruntée entre-temps : ne la détruire que si elle est encore libre
+                if ((estExpiree(cp, maintenant) || (inactive && libres.size() > aConserver))
+                        && libres.removeLastOccurrence(cp)) {
+                    detruire(cp);
+                }
+            }
+
+            if (seuilFuiteNanos > 0) {
+                for (ConnexionPhysique cp : empruntees) {
+                    if (!cp.fuiteSignalee && maintenant - cp.empruntee > seuilFuiteNanos) {
+                        cp.fuiteSignalee = true;
+                        nbFuites.increment();
+                        System.err.println("Fuite de connexion probable : empruntée depuis "
+                                + TimeUnit.NANOSECONDS.toMillis(maintenant - cp.empruntee) + " ms");
+                        if (cp.origine != null) {
+                            cp.origine.printStackTrace();
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Erreur lors de l'entretien du pool de connexions : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ferme le pool : les connexions libres sont fermées immédiatement, les connexions
+     * empruntées le seront à leur restitution.
+     */
+    public void fermer() {
+        ferme = true;
+        maintenance.shutdownNow();
+        ConnexionPhysique cp;
+        while ((cp = libres.pollFirst()) != null) {
+            detruire(cp);
+        }
+    }
+
+    // Métriques
+
+    public int getNombreActives() {
+        return empruntees.size();
+    }
+
+    public int getNombreLibres() {
+        return libres.size();
+    }
+
+    public long getNombreEmprunts() {
+        return nbEmprunts.sum();
+    }
+
+    public long getNombreTimeouts() {
+        return nbTimeouts.sum();
+    }
+
+    public long getNombreFuites() {
+        return nbFuites.sum();
+    }
+
+    public long getNombreEchecsValidation() {
+        return nbEchecsValidation.sum();
+    }
+
+    public long getAttenteMoyenneMicros() {
+        long emprunts = nbEmprunts.sum();
+        return emprunts == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(attenteTotaleNanos.sum() / emprunts);
+    }
+
+    public long getAttenteMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(attenteMaxNanos.get());
+    }
+
+    /**
+     * Nombre de prepareStatement(sql) servis depuis le cache de statements.
+     */
+    public long getStatementsCacheSucces() {
+        return nbStatementsEnCache.sum();
+    }
+
+    /**
+     * Nombre de prepareStatement(sql) ayant nécessité une vraie préparation.
+     */
+    public long getStatementsCacheEchecs() {
+        return nbStatementsPrepares.sum();
+    }
+
+    /**
+     * Retourne un résumé lisible de l'état du pool.
+     *
+     * @return les statistiques du pool
+     */
+    public String getStatistiques() {
+        return "Pool{actives=" + getNombreActives() +
+                ", libres=" + getNombreLibres() +
+                ", max=" + tailleMax +
+                ", emprunts=" + getNombreEmprunts() +
+                ", attenteMoyenneUs=" + getAttenteMoyenneMicros() +
+                ", attenteMaxUs=" + getAttenteMaxMicros() +
+                ", timeouts=" + getNombreTimeouts() +
+                ", creations=" + nbCreations.sum() +
+                ", destructions=" + nbDestructions.sum() +
+                ", echecsValidation=" + getNombreEchecsValidation() +
+                ", fuites=" + getNombreFuites() +
+                ", statementsCache=" + getStatementsCacheSucces() + "/" +
+                (getStatementsCacheSucces() + getStatementsCacheEchecs()) +
+                '}';
+    }
+
+    /**
+     * Connexion JDBC réelle et son état de gestion dans le pool.
+     */
+    private static final class ConnexionPhysique {
+        final Connection reelle;
+        final StatementCache statements;
+        final long creation = System.nanoTime();
+        final int isolationInitiale;
+        volatile long dernierUsage = creation;
+        volatile long empruntee;
+        volatile boolean fuiteSignalee;
+        volatile Throwable origine;
+        volatile boolean modifiee;
+
+        ConnexionPhysique(Connection reelle, StatementCache statements) throws SQLException {
+            this.reelle = reelle;
+            this.statements = statements;
+            this.isolationInitiale = reelle.getTransactionIsolation();
+        }
+    }
+
+    /**
+     * Gestionnaire du proxy remis à l'appelant : close() rend la connexion au pool,
+     * toute utilisation après close() est refusée.
+     */
+    private final class ConnexionEmpruntee implements InvocationHandler {
+        private final ConnexionPhysique cp;
+        private volatile boolean rendue;
+
+        ConnexionEmpruntee(ConnexionPhysique cp) {
+            this.cp = cp;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!rendue) {
+                        rendue = true;
+                        restituer(cp);
+                    }
+                    return null;
+                case "isClosed":
+                    return rendue || cp.reelle.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConnexionEmpruntee[" + cp.reelle + "]";
+                case "prepareStatement":
+                    if (!rendue && args.length == 1) {
+                        return cp.statements.preparer((String) args[0]);
+                    }
+                    break;
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    cp.modifiee = true;
+                    break;
+                default:
+                    break;
+            }
+            if (rendue) {
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+            try {
+                return method.invoke(cp.reelle, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package com.bibliotheque.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * Singleton pour gérer la connexion à la base de données MySQL.
+ * Singleton pour gérer l'accès à la base de données MySQL.
  * Utilise le pattern Double-Checked Locking pour la thread-safety.
+ *
+ * Les connexions proviennent d'un {@link ConnectionPool} borné : chaque appel à
+ * {@link #getConnection()} emprunte une connexion qui doit être fermée par l'appelant
+ * (try-with-resources) pour être rendue au pool. Si une transaction est ouverte sur le thread
+ * ({@link TransactionManager}), c'est sa connexion qui est retournée.
+ *
+ * Les paramètres peuvent être surchargés par des propriétés système
+ * (par exemple -Dbibliotheque.db.url=... ou -Dbibliotheque.pool.tailleMax=20).
  */
 public class DatabaseConnection {
     private static volatile DatabaseConnection instance;
-    private Connection connection;
+    private final ConnectionPool pool;
 
-    private static final String URL = "jdbc:mysql://localhost:3306/bibliotheque";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
-    private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final String URL = System.getProperty("bibliotheque.db.url",
+            "jdbc:mysql://localhost:3306/bibliotheque?rewriteBatchedStatements=true&useServerPrepStmts=true");
+    private static final String USER = System.getProperty("bibliotheque.db.user", "root");
+    private static final String PASSWORD = System.getProperty("bibliotheque.db.password", "");
+    private static final String DRIVER = System.getProperty("bibliotheque.db.driver", "com.mysql.cj.jdbc.Driver");
+
+    private static final int POOL_TAILLE_MIN = Integer.getInteger("bibliotheque.pool.tailleMin", 2);
+    private static final int POOL_TAILLE_MAX = Integer.getInteger("bibliotheque.pool.tailleMax",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private static final long POOL_DELAI_EMPRUNT_MS = Long.getLong("bibliotheque.pool.delaiEmpruntMs", 30_000L);
+    private static final long POOL_INACTIVITE_MAX_MS = Long.getLong("bibliotheque.pool.inactiviteMaxMs", 600_000L);
+    private static final long POOL_DUREE_VIE_MAX_MS = Long.getLong("bibliotheque.pool.dureeVieMaxMs", 1_800_000L);
+    private static final long POOL_SEUIL_FUITE_MS = Long.getLong("bibliotheque.pool.seuilFuiteMs", 60_000L);
+    private static final int POOL_TIMEOUT_VALIDATION_S = Integer.getInteger("bibliotheque.pool.timeoutValidationS", 2);
+    private static final int POOL_CACHE_STATEMENTS = Integer.getInteger("bibliotheque.pool.cacheStatements", 64);
 
     /**
      * Constructeur privé pour éviter l'instanciation.
@@ -25,7 +43,10 @@ public class DatabaseConnection {
     private DatabaseConnection() throws SQLException {
         try {
             Class.forName(DRIVER);
-            this.connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            this.pool = new ConnectionPool(URL, USER, PASSWORD,
+                    Math.min(POOL_TAILLE_MIN, POOL_TAILLE_MAX), POOL_TAILLE_MAX, POOL_DELAI_EMPRUNT_MS,
+                    POOL_INACTIVITE_MAX_MS, POOL_DUREE_VIE_MAX_MS, POOL_SEUIL_FUITE_MS,
+                    POOL_TIMEOUT_VALIDATION_S, POOL_CACHE_STATEMENTS);
         } catch (ClassNotFoundException | SQLException e) {
             System.err.println("Erreur de connexion à la base de données : " + e.getMessage());
             throw new SQLException("Impossible de se connecter à la base de données", e);
@@ -50,36 +71,50 @@ public class DatabaseConnection {
     }
 
     /**
-     * Retourne la connexion active.
+     * Emprunte une connexion au pool. L'appelant doit la fermer pour la rendre au pool.
+     * Dans une transaction, retourne la connexion de la transaction (close() sans effet).
+     *
+     * @return une connexion MySQL valide
+     * @throws SQLException si aucune connexion n'est disponible dans le délai imparti
+     */
+    public Connection getConnection() throws SQLException {
+        Connection transactionnelle = TransactionManager.connexionLiee();
+        if (transactionnelle != null) {
+            return transactionnelle;
+        }
+        return pool.emprunter();
+    }
+
+    /**
+     * Retourne le pool sous-jacent (métriques, supervision).
      *
-     * @return la connexion MySQL
+     * @return le pool de connexions
      */
-    public Connection getConnection() {
-        return connection;
+    public ConnectionPool getPool() {
+        return pool;
     }
 
     /**
-     * Ferme la connexion à la base de données.
+     * Ferme le pool de connexions. Un appel ultérieur à getInstance() en recrée un.
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Connexion fermée avec succès");
+        synchronized (DatabaseConnection.class) {
+            pool.fermer();
+            if (instance == this) {
+                instance = null;
             }
-        } catch (SQLException e) {
-            System.err.println("Erreur lors de la fermeture de la connexion : " + e.getMessage());
         }
+        System.out.println("Pool de connexions fermé avec succès");
     }
 
     /**
      * Teste la connexion à la base de données.
      *
-     * @return true si la connexion est valide
+     * @return true si une connexion valide peut être obtenue
      */
     public boolean testConnection() {
-        try {
-            return !connection.isClosed();
+        try (Connection connection = getConnection()) {
+            return connection.isValid(POOL_TIMEOUT_VALIDATION_S);
         } catch (SQLException e) {
             return false;
         }
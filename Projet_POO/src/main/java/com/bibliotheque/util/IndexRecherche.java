@@ -0,0 +1,410 @@
+package com.bibliotheque.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Index inversé en mémoire pour la recherche instantanée (saisie au fil de l'eau).
+ *
+ * Le texte de chaque document est normalisé (minuscules, accents retirés) et découpé en mots.
+ * Chaque mot du dictionnaire a une liste de documents (int[] croissants), et le dictionnaire
+ * est trié pour retrouver tous les mots d'un préfixe. Un index de trigrammes sur les mots
+ * du dictionnaire permet aussi de trouver un fragment au milieu d'un mot ("rabl" dans
+ * "misérables") sans parcourir le dictionnaire. La clé des documents (par exemple l'ISBN,
+ * sans ses tirets) est recherchée par préfixe dans un dictionnaire à part, pour ne pas
+ * charger celui des mots d'une entrée unique par document.
+ *
+ * Une recherche retourne les documents contenant tous les mots de la requête, d'abord ceux
+ * où chaque mot est un préfixe, puis, s'il reste de la place, ceux où un mot n'est trouvé
+ * qu'à l'intérieur d'un mot.
+ *
+ * Mise à jour incrémentale : un document modifié reçoit un nouveau numéro et l'ancien est
+ * marqué supprimé (BitSet) ; l'index est reconstruit quand plus de la moitié des numéros
+ * sont supprimés. Lectures concurrentes, écritures exclusives.
+ */
+public class IndexRecherche<T> {
+    private static final int TAILLE_TRIGRAMME = 3;
+    private static final char[] PLIAGE = new char[0x250];
+
+    static {
+        for (char c = 0; c < PLIAGE.length; c++) {
+            String decompose = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            char base = decompose.charAt(0);
+            PLIAGE[c] = Character.isLetterOrDigit(base) ? Character.toLowerCase(base) : 0;
+        }
+    }
+
+    private final Function<T, String> cle;
+    private final Function<T, String> texte;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final List<T> documents = new ArrayList<>();
+    private final BitSet supprimes = new BitSet();
+    private final Map<String, Integer> numeroParCle = new HashMap<>();
+    private final NavigableMap<String, Integer> numeroParCleNormalisee = new TreeMap<>();
+    private final NavigableMap<String, ListeEntiers> postings = new TreeMap<>();
+    private final Map<String, ListeEntiers> trigrammes = new HashMap<>();
+    private final List<String> termes = new ArrayList<>();
+    /** Documents par première lettre de mot, calculés à la première requête d'une lettre. */
+    private final Map<Character, BitSet> parInitiale = new HashMap<>();
+
+    /**
+     * @param cle   la clé unique d'un document (par exemple l'ISBN)
+     * @param texte le texte indexé d'un document
+     */
+    public IndexRecherche(Function<T, String> cle, Function<T, String> texte) {
+        this.cle = cle;
+        this.texte = texte;
+    }
+
+    /**
+     * Normalise un texte : minuscules, accents retirés, et tout caractère qui n'est ni
+     * lettre ni chiffre remplacé par un espace.
+     */
+    public static String normaliser(String texte) {
+        StringBuilder sb = new StringBuilder(texte.length());
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            char plie;
+            if (c < PLIAGE.length) {
+                plie = PLIAGE[c];
+            } else if (Character.isLetterOrDigit(c)) {
+                plie = Character.toLowerCase(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0));
+            } else {
+                plie = 0;
+            }
+            sb.append(plie == 0 ? ' ' : plie);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> mots(String texte) {
+        List<String> mots = new ArrayList<>();
+        if (texte == null) {
+            return mots;
+        }
+        String normalise = normaliser(texte);
+        int debut = -1;
+        for (int i = 0; i <= normalise.length(); i++) {
+            boolean espace = i == normalise.length() || normalise.charAt(i) == ' ';
+            if (espace && debut >= 0) {
+                mots.add(normalise.substring(debut, i));
+                debut = -1;
+            } else if (!espace && debut < 0) {
+                debut = i;
+            }
+        }
+        return mots;
+    }
+
+    private static String cleNormalisee(String cle) {
+        return normaliser(cle).replace(" ", "");
+    }
+
+    /**
+     * Ajoute ou remplace un document.
+     */
+    public void indexer(T document) {
+        verrou.writeLock().lock();
+        try {
+            indexerSansVerrou(document);
+            compacterSiNecessaire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajoute ou remplace un ensemble de documents (construction initiale).
+     */
+    public void indexerTous(Iterable<T> lot) {
+        verrou.writeLock().lock();
+        try {
+            for (T document : lot) {
+                indexerSansVerrou(document);
+            }
+            compacterSiNecessaire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void indexerSansVerrou(T document) {
+        String k = cle.apply(document);
+        retirerSansVerrou(k);
+        int numero = documents.size();
+        documents.add(document);
+        numeroParCle.put(k, numero);
+        numeroParCleNormalisee.put(cleNormalisee(k), numero);
+        for (String mot : mots(texte.apply(document))) {
+            ListeEntiers liste = postings.get(mot);
+            if (liste == null) {
+                liste = new ListeEntiers();
+                postings.put(mot, liste);
+                ajouterTerme(mot);
+            }
+            // les numéros croissent : un mot répété dans le document n'est ajouté qu'une fois
+            if (liste.taille == 0 || liste.dernier() != numero) {
+                liste.ajouter(numero);
+            }
+            BitSet initiale = parInitiale.get(mot.charAt(0));
+            if (initiale != null) {
+                initiale.set(numero);
+            }
+        }
+    }
+
+    private void ajouterTerme(String mot) {
+        int numero = termes.size();
+        termes.add(mot);
+        for (int i = 0; i + TAILLE_TRIGRAMME <= mot.length(); i++) {
+            ListeEntiers liste = trigrammes.computeIfAbsent(mot.substring(i, i + TAILLE_TRIGRAMME), t -> new ListeEntiers());
+            if (liste.taille == 0 || liste.dernier() != numero) {
+                liste.ajouter(numero);
+            }
+        }
+    }
+
+    /**
+     * Retire un document par sa clé.
+     */
+    public void retirer(String k) {
+        verrou.writeLock().lock();
+        try {
+            retirerSansVerrou(k);
+            compacterSiNecessaire();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void retirerSansVerrou(String k) {
+        Integer numero = numeroParCle.remove(k);
+        if (numero != null) {
+            supprimes.set(numero);
+            numeroParCleNormalisee.remove(cleNormalisee(k), numero);
+        }
+    }
+
+    private void compacterSiNecessaire() {
+        if (documents.size() > 1024 && supprimes.cardinality() * 2 > documents.size()) {
+            List<T> vivants = new ArrayList<>(numeroParCle.size());
+            for (int i = 0; i < documents.size(); i++) {
+                if (!supprimes.get(i)) {
+                    vivants.add(documents.get(i));
+                }
+            }
+            viderSansVerrou();
+            for (T document : vivants) {
+                indexerSansVerrou(document);
+            }
+        }
+    }
+
+    /**
+     * Vide l'index.
+     */
+    public void vider() {
+        verrou.writeLock().lock();
+        try {
+            viderSansVerrou();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void viderSansVerrou() {
+        documents.clear();
+        supprimes.clear();
+        numeroParCle.clear();
+        numeroParCleNormalisee.clear();
+        postings.clear();
+        trigrammes.clear();
+        termes.clear();
+        parInitiale.clear();
+    }
+
+    /**
+     * Nombre de documents indexés (hors supprimés).
+     */
+    public int taille() {
+        verrou.readLock().lock();
+        try {
+            return numeroParCle.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les documents contenant tous les mots de la requête (en préfixe ou à l'intérieur d'un mot).
+     *
+     * @param requete la saisie de l'utilisateur
+     * @param limite  le nombre maximal de résultats
+     * @return les documents trouvés, les correspondances par préfixe en premier
+     */
+    public List<T> rechercher(String requete, int limite) {
+        List<String> motsRequete = mots(requete);
+        List<T> resultats = new ArrayList<>();
+        if (motsRequete.isEmpty() || limite <= 0) {
+            return resultats;
+        }
+        // une lettre seule : calcul (puis mise à jour incrémentale) de l'ensemble sous verrou exclusif
+        for (String mot : motsRequete) {
+            if (mot.length() == 1) {
+                preparerInitiale(mot.charAt(0));
+            }
+        }
+        verrou.readLock().lock();
+        try {
+            BitSet parPrefixe = null;
+            for (String mot : motsRequete) {
+                BitSet prefixe = documentsParPrefixe(mot);
+                if (parPrefixe == null) {
+                    parPrefixe = prefixe;
+                } else {
+                    parPrefixe.and(prefixe);
+                }
+            }
+            // une clé saisie avec ses séparateurs ("978-2-07...") est découpée en plusieurs mots
+            String cleSaisie = String.join("", motsRequete);
+            if (motsRequete.size() > 1 && cleSaisie.length() >= TAILLE_TRIGRAMME) {
+                for (int numero : numeroParCleNormalisee.subMap(cleSaisie, true, cleSaisie + Character.MAX_VALUE, false).values()) {
+                    parPrefixe.set(numero);
+                }
+            }
+            parPrefixe.andNot(supprimes);
+            collecter(parPrefixe, resultats, limite);
+            if (resultats.size() < limite) {
+                BitSet parFragment = null;
+                for (String mot : motsRequete) {
+                    BitSet fragment = documentsParFragment(mot);
+                    fragment.or(documentsParPrefixe(mot));
+                    if (parFragment == null) {
+                        parFragment = fragment;
+                    } else {
+                        parFragment.and(fragment);
+                    }
+                }
+                parFragment.andNot(supprimes);
+                parFragment.andNot(parPrefixe);
+                collecter(parFragment, resultats, limite);
+            }
+            return resultats;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void preparerInitiale(char initiale) {
+        verrou.readLock().lock();
+        try {
+            if (parInitiale.containsKey(initiale)) {
+                return;
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+        verrou.writeLock().lock();
+        try {
+            if (!parInitiale.containsKey(initiale)) {
+                BitSet bits = new BitSet(documents.size());
+                for (ListeEntiers liste : postings.subMap(String.valueOf(initiale), true,
+                        String.valueOf((char) (initiale + 1)), false).values()) {
+                    liste.marquer(bits);
+                }
+                parInitiale.put(initiale, bits);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void collecter(BitSet numeros, List<T> resultats, int limite) {
+        for (int i = numeros.nextSetBit(0); i >= 0 && resultats.size() < limite; i = numeros.nextSetBit(i + 1)) {
+            resultats.add(documents.get(i));
+        }
+    }
+
+    private BitSet documentsParPrefixe(String prefixe) {
+        BitSet initiale = prefixe.length() == 1 ? parInitiale.get(prefixe.charAt(0)) : null;
+        BitSet resultat = initiale != null ? (BitSet) initiale.clone() : new BitSet(documents.size());
+        if (initiale == null) {
+            for (ListeEntiers liste : postings.subMap(prefixe, true, prefixe + Character.MAX_VALUE, false).values()) {
+                liste.marquer(resultat);
+            }
+        }
+        if (prefixe.length() >= TAILLE_TRIGRAMME) {
+            for (int numero : numeroParCleNormalisee.subMap(prefixe, true, prefixe + Character.MAX_VALUE, false).values()) {
+                resultat.set(numero);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Documents dont un mot contient le fragment ailleurs qu'en tête : les mots candidats sont
+     * ceux qui ont tous les trigrammes du fragment, puis vérifiés un par un.
+     */
+    private BitSet documentsParFragment(String fragment) {
+        BitSet resultat = new BitSet(documents.size());
+        if (fragment.length() < TAILLE_TRIGRAMME) {
+            return resultat;
+        }
+        BitSet candidats = null;
+        for (int i = 0; i + TAILLE_TRIGRAMME <= fragment.length(); i++) {
+            ListeEntiers liste = trigrammes.get(fragment.substring(i, i + TAILLE_TRIGRAMME));
+            if (liste == null) {
+                return resultat;
+            }
+            BitSet termesTrigramme = new BitSet(termes.size());
+            liste.marquer(termesTrigramme);
+            if (candidats == null) {
+                candidats = termesTrigramme;
+            } else {
+                candidats.and(termesTrigramme);
+            }
+        }
+        for (int t = candidats.nextSetBit(0); t >= 0; t = candidats.nextSetBit(t + 1)) {
+            String terme = termes.get(t);
+            if (!terme.startsWith(fragment) && terme.contains(fragment)) {
+                postings.get(terme).marquer(resultat);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Liste d'entiers croissants, stockée dans un int[] qui double à la demande.
+     */
+    private static final class ListeEntiers {
+        private int[] valeurs = new int[2];
+        private int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = valeur;
+        }
+
+        int dernier() {
+            return valeurs[taille - 1];
+        }
+
+        void marquer(BitSet bits) {
+            for (int i = 0; i < taille; i++) {
+                bits.set(valeurs[i]);
+            }
+        }
+    }
+}
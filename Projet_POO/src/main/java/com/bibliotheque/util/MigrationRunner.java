@@ -0,0 +1,287 @@
+package com.bibliotheque.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applique au démarrage les migrations de schéma versionnées.
+ *
+ * Les scripts {@code V<n>__<description>.sql} sont lus dans le classpath, sous
+ * {@code db/migration}, dans l'ordre du fichier {@code migrations.lst}. Chaque migration
+ * appliquée est enregistrée dans la table {@code schema_version} (version, description,
+ * somme de contrôle, durée) et n'est plus jamais rejouée ; une migration déjà livrée dont
+ * le contenu a changé est signalée.
+ *
+ * MySQL valide implicitement chaque instruction DDL : une migration n'est pas atomique.
+ * Les scripts sont donc écrits pour pouvoir être rejoués après un échec : les erreurs
+ * "index déjà présent", "index absent" et "colonne déjà présente" sont ignorées, ce qui
+ * permet aussi d'adopter une base créée auparavant par database.sql.
+ *
+ * Plusieurs postes peuvent démarrer en même temps sur la même base : la lecture de
+ * {@code schema_version} et l'application des migrations se font sous le verrou nommé
+ * MySQL {@value #VERROU}, propre à la session et donc conservé malgré les validations
+ * implicites du DDL. Le second poste attend la fin du premier puis ne trouve plus rien
+ * à appliquer. La base H2 embarquée des benchmarks, propre à un processus, s'en passe.
+ */
+public class MigrationRunner {
+
+    public static final String EMPLACEMENT_DEFAUT = "db/migration";
+    private static final String INDEX = "migrations.lst";
+
+    private static final Pattern NOM_MIGRATION = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    // Erreurs MySQL ignorées : colonne déjà présente, index déjà présent, index absent.
+    private static final Set<Integer> ERREURS_TOLEREES = Set.of(1060, 1061, 1091);
+
+    private static final String VERROU = "bibliotheque.migrations";
+    // Attente maximale du verrou : les migrations d'un autre poste peuvent reconstruire des index.
+    private static final int ATTENTE_VERROU_SECONDES =
+            Integer.getInteger("bibliotheque.migrations.attenteVerrouSecondes", 300);
+
+    private static final String CREATE_TABLE_VERSION =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "somme_controle BIGINT NOT NULL, " +
+            "duree_ms BIGINT NOT NULL, " +
+            "appliquee_le TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    private final String emplacement;
+
+    public MigrationRunner() {
+        this(EMPLACEMENT_DEFAUT);
+    }
+
+    /**
+     * @param emplacement le dossier du classpath contenant migrations.lst et les scripts
+     */
+    public MigrationRunner(String emplacement) {
+        this.emplacement = emplacement;
+    }
+
+    /**
+     * Applique les migrations qui ne l'ont pas encore été.
+     *
+     * @param connexion une connexion en validation automatique
+     * @return le nombre de migrations appliquées
+     * @throws SQLException si une migration échoue (les suivantes ne sont pas appliquées) ou si
+     *                      le verrou des migrations n'est pas obtenu à temps
+     */
+    public int migrer(Connection connexion) throws SQLException {
+        boolean verrouillee = verrouiller(connexion);
+        try {
+            return migrerSousVerrou(connexion);
+        } finally {
+            if (verrouillee) {
+                deverrouiller(connexion);
+            }
+        }
+    }
+
+    private int migrerSousVerrou(Connection connexion) throws SQLException {
+        try (Statement stmt = connexion.createStatement()) {
+            stmt.execute(CREATE_TABLE_VERSION);
+        }
+        Map<Integer, Long> appliquees = lireVersionsAppliquees(connexion);
+
+        int nombre = 0;
+        for (Migration migration : chargerMigrations()) {
+            Long sommeConnue = appliquees.get(migration.version);
+            if (sommeConnue != null) {
+                if (sommeConnue != migration.sommeControle) {
+                    System.err.println("Migration V" + migration.version + " (" + migration.description
+                            + ") modifiée depuis son application : changement ignoré");
+                }
+                continue;
+            }
+            appliquer(connexion, migration);
+            nombre++;
+        }
+        return nombre;
+    }
+
+    /**
+     * Prend le verrou nommé des migrations (GET_LOCK), sauf sur H2 qui ne le connaît pas.
+     *
+     * @return true si le verrou a été pris et doit être rendu
+     * @throws SQLException si le verrou n'est pas obtenu dans le délai
+     */
+    private static boolean verrouiller(Connection connexion) throws SQLException {
+        if ("H2".equals(connexion.getMetaData().getDatabaseProductName())) {
+            return false;
+        }
+        try (PreparedStatement stmt = connexion.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, VERROU);
+            stmt.setInt(2, ATTENTE_VERROU_SECONDES);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Verrou des migrations non obtenu après " + ATTENTE_VERROU_SECONDES
+                            + " s : un autre poste met peut-être la base à jour");
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rend le verrou des migrations ; un échec est seulement signalé (le verrou tombe de toute
+     * façon avec la session) pour ne pas masquer l'erreur d'une migration.
+     */
+    private static void deverrouiller(Connection connexion) {
+        try (PreparedStatement stmt = connexion.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, VERROU);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("Libération du verrou des migrations impossible : " + e.getMessage());
+        }
+    }
+
+    private void appliquer(Connection connexion, Migration migration) throws SQLException {
+        long debut = System.nanoTime();
+        try (Statement stmt = connexion.createStatement()) {
+            for (String instruction : decouper(migration.contenu)) {
+                try {
+                    stmt.execute(instruction);
+                } catch (SQLException e) {
+                    if (!ERREURS_TOLEREES.contains(e.getErrorCode())) {
+                        throw new SQLException("Migration V" + migration.version + " (" + migration.description
+                                + ") échouée sur : " + instruction, e);
+                    }
+                }
+            }
+        }
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+
+        String sql = "INSERT INTO schema_version (version, description, somme_controle, duree_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = connexion.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setLong(3, migration.sommeControle);
+            stmt.setLong(4, dureeMs);
+            stmt.executeUpdate();
+        }
+        System.out.println("Migration V" + migration.version + " (" + migration.description
+                + ") appliquée en " + dureeMs + " ms");
+    }
+
+    private Map<Integer, Long> lireVersionsAppliquees(Connection connexion) throws SQLException {
+        Map<Integer, Long> versions = new HashMap<>();
+        try (Statement stmt = connexion.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, somme_controle FROM schema_version")) {
+            while (rs.next()) {
+                versions.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return versions;
+    }
+
+    private List<Migration> chargerMigrations() throws SQLException {
+        List<Migration> migrations = new ArrayList<>();
+        int precedente = 0;
+        for (String ligne : lireRessource(INDEX).split("\n")) {
+            String nom = ligne.trim();
+            if (nom.isEmpty() || nom.startsWith("#")) {
+                continue;
+            }
+            Matcher m = NOM_MIGRATION.matcher(nom);
+            if (!m.matches()) {
+                throw new SQLException("Nom de migration invalide : " + nom);
+            }
+            int version = Integer.parseInt(m.group(1));
+            if (version <= precedente) {
+                throw new SQLException("Migrations hors d'ordre dans " + INDEX + " : " + nom);
+            }
+            precedente = version;
+            migrations.add(new Migration(version, m.group(2).replace('_', ' '), lireRessource(nom)));
+        }
+        return migrations;
+    }
+
+    /**
+     * Lit une ressource du dossier des migrations, fins de ligne normalisées en \n
+     * (la somme de contrôle ne dépend pas de la plateforme).
+     */
+    private String lireRessource(String nom) throws SQLException {
+        String chemin = emplacement + "/" + nom;
+        try (InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(chemin)) {
+            if (in == null) {
+                throw new SQLException("Ressource de migration introuvable : " + chemin);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new SQLException("Lecture impossible : " + chemin, e);
+        }
+    }
+
+    /**
+     * Découpe un script en instructions séparées par ';', en ignorant les commentaires "--"
+     * et les ';' contenus dans les chaînes.
+     */
+    static List<String> decouper(String script) {
+        List<String> instructions = new ArrayList<>();
+        StringBuilder courante = new StringBuilder();
+        boolean dansChaine = false;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (dansChaine) {
+                courante.append(c);
+                if (c == '\\' && i + 1 < script.length()) {
+                    courante.append(script.charAt(++i));
+                } else if (c == '\'') {
+                    dansChaine = false;
+                }
+            } else if (c == '-' && script.startsWith("--", i)) {
+                int finLigne = script.indexOf('\n', i);
+                i = finLigne < 0 ? script.length() : finLigne;
+                courante.append('\n');
+            } else if (c == ';') {
+                ajouterInstruction(instructions, courante);
+            } else {
+                if (c == '\'') {
+                    dansChaine = true;
+                }
+                courante.append(c);
+            }
+        }
+        ajouterInstruction(instructions, courante);
+        return instructions;
+    }
+
+    private static void ajouterInstruction(List<String> instructions, StringBuilder courante) {
+        String instruction = courante.toString().trim();
+        if (!instruction.isEmpty()) {
+            instructions.add(instruction);
+        }
+        courante.setLength(0);
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final String contenu;
+        final long sommeControle;
+
+        Migration(int version, String description, String contenu) {
+            this.version = version;
+            this.description = description;
+            this.contenu = contenu;
+            CRC32 crc = new CRC32();
+            crc.update(contenu.getBytes(StandardCharsets.UTF_8));
+            this.sommeControle = crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.bibliotheque.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Chronométrage des phases du démarrage, qui peuvent s'exécuter en parallèle sur plusieurs threads.
+ *
+ * Chaque phase est datée par rapport à la création de l'objet (début et durée) ; le rapport
+ * les liste par ordre de début, ce qui fait apparaître les recouvrements. Un jalon marque un
+ * instant, par exemple le moment où le premier onglet est utilisable.
+ */
+public class PhasesDemarrage {
+
+    // Une phase chronométrée.
+
+    @FunctionalInterface
+    public interface Phase<T, E extends Exception> {
+        T executer() throws E;
+    }
+
+    private final long origine = System.nanoTime();
+    private final List<Mesure> mesures = new CopyOnWriteArrayList<>();
+
+    /**
+     * Exécute et chronomètre une phase, même si elle échoue.
+     *
+     * @param nom   le nom de la phase dans le rapport
+     * @param phase le travail de la phase
+     * @return le résultat de la phase
+     * @throws E l'erreur de la phase
+     */
+    public <T, E extends Exception> T mesurer(String nom, Phase<T, E> phase) throws E {
+        long debut = System.nanoTime();
+        try {
+            return phase.executer();
+        } finally {
+            mesures.add(new Mesure(nom, debut - origine, System.nanoTime() - debut));
+        }
+    }
+
+    /**
+     * Marque un instant du démarrage.
+     *
+     * @param nom le nom du jalon dans le rapport
+     * @return le temps écoulé depuis l'origine, en millisecondes
+     */
+    public long jalon(String nom) {
+        long ecoule = System.nanoTime() - origine;
+        mesures.add(new Mesure(nom, ecoule, -1));
+        return ecoule / 1_000_000;
+    }
+
+    /**
+     * @param nom le nom d'une phase
+     * @return sa durée en millisecondes, ou -1 si elle n'a pas été mesurée
+     */
+    public long getDureeMs(String nom) {
+        for (Mesure mesure : mesures) {
+            if (mesure.nom.equals(nom) && mesure.duree >= 0) {
+                return mesure.duree / 1_000_000;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return les phases et jalons mesurés jusqu'ici, une ligne chacun, par ordre de début
+     */
+    public String rapport() {
+        List<Mesure> triees = new ArrayList<>(mesures);
+        triees.sort(Comparator.comparingLong(mesure -> mesure.debut));
+        StringBuilder rapport = new StringBuilder("Démarrage (JVM lancée depuis ")
+                .append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms) :");
+        for (Mesure mesure : triees) {
+            rapport.append(System.lineSeparator())
+                    .append(String.format("  +%5d ms  %-32s", mesure.debut / 1_000_000, mesure.nom));
+            if (mesure.duree >= 0) {
+                rapport.append(String.format(" %6d ms", mesure.duree / 1_000_000));
+            }
+        }
+        return rapport.toString();
+    }
+
+    private static final class Mesure {
+        final String nom;
+        final long debut;
+        // -1 pour un jalon
+        final long duree;
+
+        Mesure(String nom, long debut, long duree) {
+            this.nom = nom;
+            this.debut = debut;
+            this.duree = duree;
+        }
+    }
+}
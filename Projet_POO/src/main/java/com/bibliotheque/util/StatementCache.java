@@ -0,0 +1,165 @@
+package com.bibliotheque.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU des PreparedStatement d'une connexion physique du pool.
+ *
+ * Les DAO préparent toujours les mêmes textes SQL constants : plutôt que de re-préparer
+ * (et, avec useServerPrepStmts, de faire re-analyser) la requête à chaque appel, le statement
+ * est conservé avec sa connexion. close() sur le statement retourné le remet à disposition
+ * (paramètres effacés, ResultSet fermé) au lieu de le fermer.
+ *
+ * Une connexion n'étant utilisée que par un emprunteur à la fois, le cache n'est pas
+ * synchronisé. Si le même SQL est préparé deux fois simultanément, le second statement
+ * n'est pas mis en cache.
+ */
+final class StatementCache {
+    private final Connection connexion;
+    private final int capacite;
+    private final LongAdder succes;
+    private final LongAdder echecs;
+    private final LinkedHashMap<String, Entree> entrees;
+
+    StatementCache(Connection connexion, int capacite, LongAdder succes, LongAdder echecs) {
+        this.connexion = connexion;
+        this.capacite = capacite;
+        this.succes = succes;
+        this.echecs = echecs;
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Retourne le statement en cache pour ce SQL, ou le prépare.
+     *
+     * @param sql le texte SQL
+     * @return un statement dont close() le rend au cache
+     * @throws SQLException si la préparation échoue
+     */
+    PreparedStatement preparer(String sql) throws SQLException {
+        Entree entree = entrees.get(sql);
+        if (entree != null && !entree.utilise) {
+            succes.increment();
+            entree.utilise = true;
+            return entree.proxy;
+        }
+        echecs.increment();
+        PreparedStatement reel = connexion.prepareStatement(sql);
+        if (entree != null || capacite <= 0) {
+            return reel;
+        }
+        Entree nouvelle = new Entree(reel);
+        nouvelle.utilise = true;
+        entrees.put(sql, nouvelle);
+        evincer();
+        return nouvelle.proxy;
+    }
+
+    private void evincer() {
+        Iterator<Entree> it = entrees.values().iterator();
+        while (entrees.size() > capacite && it.hasNext()) {
+            Entree ancienne = it.next();
+            it.remove();
+            ancienne.evincee = true;
+            if (!ancienne.utilise) {
+                fermer(ancienne.reel);
+            }
+        }
+    }
+
+    /**
+     * Ferme tous les statements du cache.
+     */
+    void vider() {
+        for (Entree entree : entrees.values()) {
+            entree.evincee = true;
+            fermer(entree.reel);
+        }
+        entrees.clear();
+    }
+
+    int taille() {
+        return entrees.size();
+    }
+
+    private static void fermer(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Erreur lors de la fermeture d'un statement en cache : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Statement en cache et proxy remis aux appelants.
+     */
+    private static final class Entree implements InvocationHandler {
+        final PreparedStatement reel;
+        final PreparedStatement proxy;
+        boolean utilise;
+        boolean evincee;
+        private ResultSet dernierResultat;
+
+        Entree(PreparedStatement reel) {
+            this.reel = reel;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (utilise) {
+                        rendre();
+                    }
+                    return null;
+                case "isClosed":
+                    return !utilise || reel.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (!utilise) {
+                throw new SQLException("Statement déjà fermé");
+            }
+            try {
+                Object resultat = method.invoke(reel, args);
+                if (resultat instanceof ResultSet) {
+                    dernierResultat = (ResultSet) resultat;
+                }
+                return resultat;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void rendre() throws SQLException {
+            utilise = false;
+            if (evincee) {
+                reel.close();
+                return;
+            }
+            if (dernierResultat != null) {
+                dernierResultat.close();
+                dernierResultat = null;
+            }
+            reel.clearParameters();
+            reel.clearBatch();
+        }
+    }
+}
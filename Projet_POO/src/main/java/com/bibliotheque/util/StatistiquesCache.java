@@ -0,0 +1,92 @@
+package com.bibliotheque.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs d'un cache : succès, défauts, évictions, expirations et durée des chargements.
+ * Les compteurs sont des LongAdder : ils peuvent être incrémentés hors du verrou du cache.
+ */
+public class StatistiquesCache {
+    private final String nom;
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder chargements = new LongAdder();
+    private final LongAdder nanosChargement = new LongAdder();
+
+    public StatistiquesCache(String nom) {
+        this.nom = nom;
+    }
+
+    public void succes() {
+        succes.increment();
+    }
+
+    public void echec() {
+        echecs.increment();
+    }
+
+    public void eviction() {
+        evictions.increment();
+    }
+
+    public void expiration() {
+        expirations.increment();
+    }
+
+    /**
+     * Enregistre la durée d'un chargement depuis la base (défaut de cache).
+     */
+    public void chargement(long nanos) {
+        chargements.increment();
+        nanosChargement.add(nanos);
+    }
+
+    public long getSucces() {
+        return succes.sum();
+    }
+
+    public long getEchecs() {
+        return echecs.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Proportion des lectures servies par le cache, entre 0 et 1.
+     */
+    public double getTauxSucces() {
+        long s = succes.sum();
+        long total = s + echecs.sum();
+        return total == 0 ? 0.0 : (double) s / total;
+    }
+
+    /**
+     * Durée moyenne d'un chargement depuis la base, en microsecondes.
+     */
+    public long getChargementMoyenMicros() {
+        long n = chargements.sum();
+        return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanosChargement.sum() / n);
+    }
+
+    /**
+     * Résumé des compteurs, pour les journaux et la supervision.
+     *
+     * @param taille   le nombre d'entrées actuel
+     * @param capacite le nombre maximal d'entrées
+     */
+    public String resume(int taille, int capacite) {
+        return String.format("Cache{%s, taille=%d/%d, succes=%d, echecs=%d, taux=%.1f%%, evictions=%d, "
+                        + "expirations=%d, chargementMoyenUs=%d}",
+                nom, taille, capacite, getSucces(), getEchecs(), getTauxSucces() * 100,
+                getEvictions(), getExpirations(), getChargementMoyenMicros());
+    }
+}
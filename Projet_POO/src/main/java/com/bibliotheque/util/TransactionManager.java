@@ -0,0 +1,450 @@
+package com.bibliotheque.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gestion des transactions par thread (unité de travail).
+ *
+ * {@link #debuter()} emprunte une connexion au pool, désactive l'auto-commit et la lie au
+ * thread courant : tant que la transaction est ouverte, {@link DatabaseConnection#getConnection()}
+ * retourne cette même connexion (dont close() est sans effet), de sorte que les DAO existants
+ * y participent sans modification et que toutes leurs écritures partagent un seul commit.
+ *
+ * Utilisation :
+ * <pre>
+ * try (TransactionManager.Transaction tx = TransactionManager.debuter()) {
+ *     ... appels DAO ...
+ *     tx.valider();
+ * }
+ * </pre>
+ * ou, pour un travail ne levant que des SQLException :
+ * <pre>
+ * TransactionManager.executer(() -&gt; { ... appels DAO ...; return resultat; });
+ * </pre>
+ * Une transaction fermée sans avoir été validée est annulée.
+ *
+ * Les transactions s'imbriquent selon la {@link Propagation} demandée. Le niveau d'isolation
+ * et le mode lecture seule ne s'appliquent qu'à une transaction qui ouvre sa propre connexion ;
+ * une transaction qui rejoint la transaction englobante en hérite.
+ */
+public final class TransactionManager {
+    private static final ThreadLocal<Deque<Transaction>> PILE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** Nombre maximal de tentatives pour une transaction victime d'un interblocage. */
+    public static final int TENTATIVES_MAX = Integer.getInteger("bibliotheque.tx.tentativesMax", 5);
+
+    /** Conserve le niveau d'isolation par défaut de la connexion. */
+    public static final int ISOLATION_PAR_DEFAUT = -1;
+
+    private static final int ERREUR_MYSQL_DEADLOCK = 1213;
+    private static final int ERREUR_MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final String SQLSTATE_SERIALISATION = "40001";
+
+    /**
+     * Comportement d'une transaction démarrée alors qu'une autre est déjà ouverte.
+     */
+    public enum Propagation {
+        /** Rejoint la transaction courante, ou en démarre une. */
+        REQUIRED,
+        /** Suspend la transaction courante et démarre une transaction indépendante sur une autre connexion. */
+        REQUIRES_NEW,
+        /** Pose un point de sauvegarde dans la transaction courante, ou en démarre une. */
+        NESTED
+    }
+
+    /**
+     * Travail exécuté dans une transaction.
+     */
+    @FunctionalInterface
+    public interface Travail<T> {
+        T executer() throws SQLException;
+    }
+
+    private TransactionManager() {
+    }
+
+    /**
+     * Démarre une transaction REQUIRED.
+     *
+     * @return la transaction, à fermer par l'appelant
+     * @throws SQLException si aucune connexion n'est disponible
+     */
+    public static Transaction debuter() throws SQLException {
+        return debuter(Propagation.REQUIRED, ISOLATION_PAR_DEFAUT, false);
+    }
+
+    /**
+     * Démarre une transaction avec la propagation donnée.
+     *
+     * @param propagation le comportement vis-à-vis de la transaction courante
+     * @return la transaction, à fermer par l'appelant
+     * @throws SQLException si aucune connexion n'est disponible
+     */
+    public static Transaction debuter(Propagation propagation) throws SQLException {
+        return debuter(propagation, ISOLATION_PAR_DEFAUT, false);
+    }
+
+    /**
+     * Démarre une transaction.
+     *
+     * @param propagation  le comportement vis-à-vis de la transaction courante
+     * @param isolation    un niveau Connection.TRANSACTION_*, ou {@link #ISOLATION_PAR_DEFAUT}
+     * @param lectureSeule true pour une transaction en lecture seule
+     * @return la transaction, à fermer par l'appelant
+     * @throws SQLException si aucune connexion n'est disponible
+     */
+    public static Transaction debuter(Propagation propagation, int isolation, boolean lectureSeule)
+            throws SQLException {
+        Deque<Transaction> pile = PILE.get();
+        Transaction courante = pile.peek();
+        Transaction tx;
+        if (courante == null || propagation == Propagation.REQUIRES_NEW) {
+            tx = new Transaction(ouvrirConnexion(isolation, lectureSeule));
+        } else if (propagation == Propagation.NESTED) {
+            tx = new Transaction(courante.physique, courante.physique.connexion.setSavepoint());
+        } else {
+            tx = new Transaction(courante.physique, null);
+        }
+        pile.push(tx);
+        return tx;
+    }
+
+    private static Physique ouvrirConnexion(int isolation, boolean lectureSeule) throws SQLException {
+        Connection connexion = DatabaseConnection.getInstance().getPool().emprunter();
+        try {
+            if (isolation != ISOLATION_PAR_DEFAUT) {
+                connexion.setTransactionIsolation(isolation);
+            }
+            if (lectureSeule) {
+                connexion.setReadOnly(true);
+            }
+            connexion.setAutoCommit(false);
+        } catch (SQLException e) {
+            connexion.close();
+            throw e;
+        }
+        return new Physique(connexion);
+    }
+
+    /**
+     * Exécute un travail dans une transaction REQUIRED et la valide s'il se termine normalement.
+     *
+     * @param travail le travail
+     * @return le résultat du travail
+     * @throws SQLException si le travail ou la transaction échoue
+     */
+    public static <T> T executer(Travail<T> travail) throws SQLException {
+        return executer(Propagation.REQUIRED, ISOLATION_PAR_DEFAUT, false, travail);
+    }
+
+    /**
+     * Exécute un travail dans une transaction et la valide s'il se termine normalement.
+     * Si la transaction possède sa propre connexion, elle est rejouée en cas d'interblocage
+     * (au plus {@link #TENTATIVES_MAX} fois).
+     *
+     * @param propagation  le comportement vis-à-vis de la transaction courante
+     * @param isolation    un niveau Connection.TRANSACTION_*, ou {@link #ISOLATION_PAR_DEFAUT}
+     * @param lectureSeule true pour une transaction en lecture seule
+     * @param travail      le travail
+     * @return le résultat du travail
+     * @throws SQLException si le travail ou la transaction échoue
+     */
+    public static <T> T executer(Propagation propagation, int isolation, boolean lectureSeule,
+                                 Travail<T> travail) throws SQLException {
+        for (int tentative = 1; ; tentative++) {
+            try (Transaction tx = debuter(propagation, isolation, lectureSeule)) {
+                T resultat = travail.executer();
+                tx.valider();
+                return resultat;
+            } catch (SQLException e) {
+                if (!peutReessayer(e, tentative)) {
+                    throw e;
+                }
+                attendreAvantNouvelleTentative(tentative);
+            }
+        }
+    }
+
+    /**
+     * Indique si une transaction est ouverte sur le thread courant.
+     */
+    public static boolean estActive() {
+        return !PILE.get().isEmpty();
+    }
+
+    /**
+     * Exécute une action à la fin de la transaction physique courante (après commit ou rollback),
+     * ou immédiatement si aucune transaction n'est ouverte. Sert par exemple à invalider un cache
+     * une fois les écritures visibles des autres connexions.
+     *
+     * @param action l'action à exécuter
+     */
+    public static void apresTerminaison(Runnable action) {
+        Transaction tx = PILE.get().peek();
+        if (tx == null) {
+            action.run();
+        } else {
+            tx.physique.apresTerminaison.add(action);
+        }
+    }
+
+    /**
+     * Exécute une action une fois la transaction physique courante validée (jamais après un
+     * rollback), ou immédiatement si aucune transaction n'est ouverte. Sert à annoncer des
+     * changements que les autres connexions peuvent déjà lire.
+     *
+     * @param action l'action à exécuter
+     */
+    public static void apresValidation(Runnable action) {
+        Transaction tx = PILE.get().peek();
+        if (tx == null) {
+            action.run();
+        } else {
+            tx.physique.apresValidation.add(action);
+        }
+    }
+
+    /**
+     * Connexion de la transaction courante, dont close() est sans effet, ou null.
+     */
+    static Connection connexionLiee() {
+        Transaction tx = PILE.get().peek();
+        return tx == null ? null : tx.physique.partagee;
+    }
+
+    /**
+     * Indique si une transaction qui vient d'échouer et d'être fermée peut être rejouée :
+     * l'erreur est un interblocage ou un délai de verrou dépassé, le nombre de tentatives
+     * n'est pas épuisé et aucune transaction englobante n'est ouverte (celle-ci a été
+     * annulée par le serveur et doit être rejouée en entier par son propriétaire).
+     *
+     * @param e         l'erreur SQL
+     * @param tentative numéro de la tentative qui vient d'échouer (à partir de 1)
+     * @return true si la transaction peut être rejouée
+     */
+    public static boolean peutReessayer(SQLException e, int tentative) {
+        return tentative < TENTATIVES_MAX && !estActive() && estReessayable(e);
+    }
+
+    /**
+     * Indique si l'erreur est un interblocage ou un délai de verrou dépassé,
+     * pour lesquels rejouer la transaction entière a un sens.
+     *
+     * @param e l'erreur SQL
+     * @return true si la transaction peut être rejouée
+     */
+    public static boolean estReessayable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sql = (SQLException) t;
+                if (SQLSTATE_SERIALISATION.equals(sql.getSQLState())
+                        || sql.getErrorCode() == ERREUR_MYSQL_DEADLOCK
+                        || sql.getErrorCode() == ERREUR_MYSQL_LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Attente avant une nouvelle tentative : recul exponentiel borné avec gigue,
+     * pour désynchroniser les transactions qui se sont interbloquées.
+     *
+     * @param tentative numéro de la tentative qui vient d'échouer (à partir de 1)
+     */
+    public static void attendreAvantNouvelleTentative(int tentative) {
+        long plafond = Math.min(200L, 5L << Math.min(tentative, 6));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, plafond + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Connexion physique partagée par une transaction et celles qui la rejoignent.
+     */
+    private static final class Physique {
+        final Connection connexion;
+        final Connection partagee;
+        final List<Runnable> apresTerminaison = new ArrayList<>();
+        final List<Runnable> apresValidation = new ArrayList<>();
+        boolean annulationSeule;
+        boolean validee;
+
+        Physique(Connection connexion) {
+            this.connexion = connexion;
+            this.partagee = (Connection) Proxy.newProxyInstance(
+                    TransactionManager.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                return null;
+                            case "commit":
+                            case "rollback":
+                            case "setAutoCommit":
+                                // rollback(Savepoint) reste permis
+                                if (args == null || method.getName().equals("setAutoCommit")) {
+                                    throw new SQLException("Transaction gérée par TransactionManager : "
+                                            + method.getName() + "() interdit");
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(connexion, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Transaction ouverte sur le thread courant.
+     *
+     * Selon la propagation, elle possède sa connexion (commit et rollback réels), elle est
+     * délimitée par un point de sauvegarde, ou elle participe simplement à la transaction
+     * englobante : dans ce dernier cas, une fermeture sans validation marque la transaction
+     * englobante pour annulation.
+     */
+    public static final class Transaction implements AutoCloseable {
+        private final Physique physique;
+        private final boolean proprietaire;
+        private final Savepoint pointSauvegarde;
+        // Actions apresValidation déjà enregistrées à l'ouverture (abandon des suivantes au point de sauvegarde)
+        private final int actionsAvant;
+        private boolean terminee;
+
+        private Transaction(Physique physique) {
+            this.physique = physique;
+            this.proprietaire = true;
+            this.pointSauvegarde = null;
+            this.actionsAvant = 0;
+        }
+
+        private Transaction(Physique physique, Savepoint pointSauvegarde) {
+            this.physique = physique;
+            this.proprietaire = false;
+            this.pointSauvegarde = pointSauvegarde;
+            this.actionsAvant = physique.apresValidation.size();
+        }
+
+        /**
+         * Indique si cette transaction possède sa propre connexion.
+         */
+        public boolean estNouvelle() {
+            return proprietaire;
+        }
+
+        /**
+         * Valide la transaction : commit si elle possède sa connexion, libération du point de
+         * sauvegarde si elle est imbriquée, rien si elle participe à la transaction englobante.
+         *
+         * @throws SQLException si le commit échoue ou si la transaction a été marquée pour annulation
+         */
+        public void valider() throws SQLException {
+            verifierOuverte();
+            terminee = true;
+            if (proprietaire) {
+                if (physique.annulationSeule) {
+                    physique.connexion.rollback();
+                    throw new SQLException("Transaction annulée : une transaction participante a échoué");
+                }
+                physique.connexion.commit();
+                physique.validee = true;
+            } else if (pointSauvegarde != null) {
+                physique.connexion.releaseSavepoint(pointSauvegarde);
+            }
+        }
+
+        /**
+         * Annule la transaction (ou revient à son point de sauvegarde).
+         *
+         * @throws SQLException si le rollback échoue
+         */
+        public void annuler() throws SQLException {
+            verifierOuverte();
+            terminee = true;
+            annulerSansVerification();
+        }
+
+        private void annulerSansVerification() throws SQLException {
+            if (proprietaire) {
+                physique.connexion.rollback();
+            } else if (pointSauvegarde != null) {
+                physique.connexion.rollback(pointSauvegarde);
+                physique.apresValidation.subList(actionsAvant, physique.apresValidation.size()).clear();
+            } else {
+                physique.annulationSeule = true;
+            }
+        }
+
+        private void verifierOuverte() throws SQLException {
+            if (terminee) {
+                throw new SQLException("Transaction déjà terminée");
+            }
+            if (PILE.get().peek() != this) {
+                throw new SQLException("Une transaction imbriquée est encore ouverte");
+            }
+        }
+
+        /**
+         * Annule la transaction si elle n'a pas été validée, puis, si elle possède sa connexion,
+         * la rend au pool.
+         */
+        @Override
+        public void close() throws SQLException {
+            Deque<Transaction> pile = PILE.get();
+            if (pile.peek() == this) {
+                pile.pop();
+            } else {
+                pile.remove(this);
+            }
+            if (pile.isEmpty()) {
+                PILE.remove();
+            }
+            try {
+                if (!terminee) {
+                    terminee = true;
+                    annulerSansVerification();
+                }
+            } finally {
+                if (proprietaire) {
+                    try {
+                        physique.connexion.setAutoCommit(true);
+                    } finally {
+                        physique.connexion.close();
+                        for (Runnable action : physique.apresTerminaison) {
+                            try {
+                                action.run();
+                            } catch (RuntimeException e) {
+                                System.err.println("Erreur après la fin de la transaction : " + e.getMessage());
+                            }
+                        }
+                        if (physique.validee) {
+                            for (Runnable action : physique.apresValidation) {
+                                try {
+                                    action.run();
+                                } catch (RuntimeException e) {
+                                    System.err.println("Erreur après la validation de la transaction : " + e.getMessage());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- Tables de la bibliothèque (sans effet sur une base créée par database.sql)
+
+CREATE TABLE IF NOT EXISTS livres (
+    isbn VARCHAR(20) PRIMARY KEY,
+    titre VARCHAR(200) NOT NULL,
+    auteur VARCHAR(100) NOT NULL,
+    annee_publication INT NOT NULL,
+    disponible BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+) DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS membres (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    nom VARCHAR(50) NOT NULL,
+    prenom VARCHAR(50) NOT NULL,
+    email VARCHAR(100) UNIQUE NOT NULL,
+    actif BOOLEAN DEFAULT TRUE,
+    date_inscription DATE DEFAULT (CURDATE())
+) DEFAULT CHARSET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS emprunts (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    isbn VARCHAR(20) NOT NULL,
+    membre_id INT NOT NULL,
+    date_emprunt DATE NOT NULL,
+    date_retour_prevue DATE NOT NULL,
+    date_retour_effective DATE NULL,
+    penalite DOUBLE DEFAULT 0,
+    FOREIGN KEY (isbn) REFERENCES livres(isbn) ON DELETE CASCADE,
+    FOREIGN KEY (membre_id) REFERENCES membres(id) ON DELETE CASCADE,
+    INDEX idx_emprunt_en_cours (date_retour_effective)
+);
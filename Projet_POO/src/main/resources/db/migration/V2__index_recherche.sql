@@ -0,0 +1,7 @@
+-- Index de recherche des livres (plein texte, préfixe) et des membres (préfixe)
+
+ALTER TABLE livres ADD FULLTEXT INDEX ft_livres_titre_auteur (titre, auteur);
+ALTER TABLE livres ADD INDEX idx_livres_titre (titre);
+ALTER TABLE livres ADD INDEX idx_livres_auteur (auteur);
+ALTER TABLE membres ADD INDEX idx_membres_nom (nom, prenom);
+ALTER TABLE membres ADD INDEX idx_membres_prenom (prenom);
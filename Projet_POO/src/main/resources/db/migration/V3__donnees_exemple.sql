@@ -0,0 +1,14 @@
+-- Données d'exemple, insérées uniquement dans un catalogue vide (nouvelle installation) :
+-- une base existante, ou dont les exemples ont été supprimés, n'est pas modifiée.
+
+INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible)
+SELECT exemples.isbn, exemples.titre, exemples.auteur, exemples.annee_publication, exemples.disponible
+FROM (
+    SELECT '978-2070361563' AS isbn, 'Le Seigneur des Anneaux' AS titre, 'J.R.R. Tolkien' AS auteur,
+           1954 AS annee_publication, TRUE AS disponible
+    UNION ALL
+    SELECT '978-2070368945', 'Harry Potter à l\'école des sorciers', 'J.K. Rowling', 1998, TRUE
+    UNION ALL
+    SELECT '978-2253121138', 'Les Misérables', 'Victor Hugo', 1862, TRUE
+) AS exemples
+WHERE NOT EXISTS (SELECT 1 FROM livres);
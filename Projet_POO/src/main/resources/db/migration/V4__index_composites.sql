@@ -0,0 +1,17 @@
+-- Index composites adaptés aux requêtes fréquentes des DAO (contrôlés par VerificationPlans)
+
+-- countEmpruntsEnCours (membre_id = ? AND date_retour_effective IS NULL), lu dans l'index seul ;
+-- sert aussi findByMembre et la clé étrangère, dont l'index implicite devient redondant
+ALTER TABLE emprunts ADD INDEX idx_emprunts_membre_en_cours (membre_id, date_retour_effective);
+ALTER TABLE emprunts DROP INDEX membre_id;
+
+-- findEnCours (date_retour_effective IS NULL) et emprunts en retard
+-- (date_retour_effective IS NULL AND date_retour_prevue < ?), remplace idx_emprunt_en_cours
+ALTER TABLE emprunts ADD INDEX idx_emprunts_en_cours (date_retour_effective, date_retour_prevue);
+ALTER TABLE emprunts DROP INDEX idx_emprunt_en_cours;
+
+-- findDisponibles : index couvrant, la table n'est pas lue
+ALTER TABLE livres ADD INDEX idx_livres_disponible (disponible, isbn, titre, auteur, annee_publication);
+
+-- findActifs : index couvrant, trié par nom
+ALTER TABLE membres ADD INDEX idx_membres_actif (actif, nom, prenom, email, date_inscription);
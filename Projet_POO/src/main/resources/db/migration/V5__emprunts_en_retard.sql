@@ -0,0 +1,11 @@
+-- Indicateur "en retard" des emprunts, pour une recherche des retards par index
+-- (fixé au retour, et chaque nuit pour les emprunts en cours échus par PenalitesBatch)
+
+ALTER TABLE emprunts ADD COLUMN en_retard BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE emprunts SET en_retard = TRUE
+WHERE en_retard = FALSE
+  AND (date_retour_effective > date_retour_prevue
+       OR (date_retour_effective IS NULL AND date_retour_prevue < CURDATE()));
+
+ALTER TABLE emprunts ADD INDEX idx_emprunts_en_retard (en_retard, date_retour_effective);
@@ -0,0 +1,5 @@
+-- Tri de la table des emprunts par date d'emprunt (affichage paginé, findFenetre) :
+-- l'index secondaire porte aussi la clé primaire, il suit donc l'ordre (date_emprunt, id)
+-- et chaque page se lit par clé au lieu de trier toute la table
+
+ALTER TABLE emprunts ADD INDEX idx_emprunts_date_emprunt (date_emprunt);
@@ -0,0 +1,131 @@
+package com.bibliotheque;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Base H2 en mémoire (mode MySQL) des tests qui touchent la base, avec le schéma de la base
+ * embarquée des benchmarks (schema-h2.sql). TO_DAYS, absente de H2, y est déclarée
+ * (voir {@link #toDays}).
+ *
+ * {@link #recreer()} doit être appelé avant tout accès à DatabaseConnection : l'URL de
+ * connexion est lue une seule fois, au chargement de cette classe.
+ */
+public final class BaseH2 {
+
+    public static final String URL = "jdbc:h2:mem:tests;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+
+    private BaseH2() {
+    }
+
+    /**
+     * Recrée un schéma vide.
+     */
+    public static void recreer() throws SQLException, IOException {
+        System.setProperty("bibliotheque.db.url", URL);
+        System.setProperty("bibliotheque.db.driver", "org.h2.Driver");
+        System.setProperty("bibliotheque.db.user", "sa");
+        System.setProperty("bibliotheque.db.password", "");
+        try (Connection conn = connecter(); Statement stmt = conn.createStatement()) {
+            for (String instruction : lireSchema().split(";")) {
+                if (!instruction.isBlank()) {
+                    stmt.execute(instruction);
+                }
+            }
+            stmt.execute("CREATE ALIAS TO_DAYS FOR \"" + BaseH2.class.getName() + ".toDays\"");
+        }
+    }
+
+    /**
+     * TO_DAYS de MySQL : nombre de jours depuis l'an 0 (seules les différences servent).
+     */
+    public static long toDays(java.sql.Date date) {
+        return date.toLocalDate().toEpochDay() + 719528;
+    }
+
+    /**
+     * Connexion directe, hors du pool de l'application.
+     */
+    public static Connection connecter() throws SQLException {
+        return DriverManager.getConnection(URL, "sa", "");
+    }
+
+    /**
+     * Exécute une écriture paramétrée.
+     *
+     * @return le nombre de lignes modifiées
+     */
+    public static int executer(String sql, Object... parametres) throws SQLException {
+        try (Connection conn = connecter(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            lier(stmt, parametres);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Exécute une requête qui retourne un seul entier (COUNT, id...).
+     */
+    public static long entier(String sql, Object... parametres) throws SQLException {
+        try (Connection conn = connecter(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            lier(stmt, parametres);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    public static void ajouterLivre(String isbn) throws SQLException {
+        executer("INSERT INTO livres (isbn, titre, auteur, annee_publication, disponible) VALUES (?, ?, ?, 2000, TRUE)",
+                isbn, "Livre " + isbn, "Auteur");
+    }
+
+    /**
+     * @return l'identifiant du membre créé
+     */
+    public static int ajouterMembre(String email) throws SQLException {
+        executer("INSERT INTO membres (nom, prenom, email, actif) VALUES ('Nom', 'Prénom', ?, TRUE)", email);
+        return (int) entier("SELECT id FROM membres WHERE email = ?", email);
+    }
+
+    /**
+     * @param dateRetourEffective la date de retour, ou null pour un emprunt en cours
+     * @return l'identifiant de l'emprunt créé
+     */
+    public static int ajouterEmprunt(String isbn, int membreId, LocalDate dateRetourPrevue,
+                                     LocalDate dateRetourEffective) throws SQLException {
+        executer("INSERT INTO emprunts (isbn, membre_id, date_emprunt, date_retour_prevue, date_retour_effective) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                isbn, membreId, dateRetourPrevue.minusDays(14), dateRetourPrevue, dateRetourEffective);
+        return (int) entier("SELECT MAX(id) FROM emprunts");
+    }
+
+    private static void lier(PreparedStatement stmt, Object[] parametres) throws SQLException {
+        for (int i = 0; i < parametres.length; i++) {
+            stmt.setObject(i + 1, parametres[i]);
+        }
+    }
+
+    private static String lireSchema() throws IOException {
+        try (InputStream in = BaseH2.class.getClassLoader().getResourceAsStream("schema-h2.sql")) {
+            if (in == null) {
+                throw new IOException("schema-h2.sql introuvable");
+            }
+            StringBuilder sansCommentaires = new StringBuilder();
+            for (String ligne : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\r?\n")) {
+                if (!ligne.trim().startsWith("--")) {
+                    sansCommentaires.append(ligne).append('\n');
+                }
+            }
+            return sansCommentaires.toString();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.bibliotheque.batch;
+
+import com.bibliotheque.BaseH2;
+import com.bibliotheque.dao.EmpruntDAO;
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PenalitesBatchTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2024, 3, 15);
+
+    @TempDir
+    Path dossier;
+
+    private final EmpruntDAOImpl empruntDAO = new EmpruntDAOImpl();
+    private Path fichierReprise;
+    private int membre;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        BaseH2.recreer();
+        fichierReprise = dossier.resolve("penalites.reprise");
+        BaseH2.ajouterLivre("978-0");
+        membre = BaseH2.ajouterMembre("retard@test.ma");
+    }
+
+    private static double penalite(int id) throws SQLException {
+        return BaseH2.entier("SELECT CAST(penalite * 100 AS BIGINT) FROM emprunts WHERE id = ?", id) / 100.0;
+    }
+
+    private static boolean enRetard(int id) throws SQLException {
+        return BaseH2.entier("SELECT COUNT(*) FROM emprunts WHERE id = ? AND en_retard", id) == 1;
+    }
+
+    @Test
+    void secondPassageDuMemeJourSansEffet() throws Exception {
+        int enRetard = BaseH2.ajouterEmprunt("978-0", membre, JOUR.minusDays(3), null);
+        int aRendre = BaseH2.ajouterEmprunt("978-0", membre, JOUR.plusDays(3), null);
+        int rendu = BaseH2.ajouterEmprunt("978-0", membre, JOUR.minusDays(5), JOUR.minusDays(6));
+        PenalitesBatch batch = new PenalitesBatch(empruntDAO, fichierReprise);
+
+        RapportPenalites premier = batch.executer(JOUR);
+        RapportPenalites second = batch.executer(JOUR);
+
+        assertEquals(1, premier.getEmpruntsModifies());
+        assertEquals(0, second.getEmpruntsModifies());
+        assertEquals(3 * 2.0, penalite(enRetard));
+        assertEquals(0.0, penalite(aRendre));
+        assertEquals(0.0, penalite(rendu));
+        assertFalse(Files.exists(fichierReprise));
+
+        // Le lendemain, la pénalité est recalculée (4 jours), pas ajoutée à la précédente
+        assertEquals(1, batch.executer(JOUR.plusDays(1)).getEmpruntsModifies());
+        assertEquals(4 * 2.0, penalite(enRetard));
+    }
+
+    @Test
+    void passageNocturneMarqueLesEmpruntsDevenusEnRetard() throws Exception {
+        int echeanceDuJour = BaseH2.ajouterEmprunt("978-0", membre, JOUR, null);
+        int renduAvantEcheance = BaseH2.ajouterEmprunt("978-0", membre, JOUR, JOUR.minusDays(1));
+        PenalitesBatch batch = new PenalitesBatch(empruntDAO, fichierReprise);
+
+        batch.executer(JOUR);
+        assertFalse(enRetard(echeanceDuJour));
+
+        batch.executer(JOUR.plusDays(1));
+        assertTrue(enRetard(echeanceDuJour));
+        assertEquals(2.0, penalite(echeanceDuJour));
+        assertFalse(enRetard(renduAvantEcheance));
+    }
+
+    @Test
+    void repriseApresLaDernierePlageValidee() throws Exception {
+        int[] ids = new int[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = BaseH2.ajouterEmprunt("978-0", membre, JOUR.minusDays(1), null);
+        }
+        // Panne de la base sur la deuxième plage (identifiants 3 et 4)
+        AtomicInteger plagesAvantPanne = new AtomicInteger(1);
+        EmpruntDAO enPanne = (EmpruntDAO) Proxy.newProxyInstance(EmpruntDAO.class.getClassLoader(),
+                new Class<?>[]{EmpruntDAO.class}, (proxy, methode, args) -> {
+                    if (methode.getName().equals("appliquerPenalitesRetard") && plagesAvantPanne.getAndDecrement() == 0) {
+                        throw new SQLException("Communications link failure", "08S01");
+                    }
+                    try {
+                        return methode.invoke(empruntDAO, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+
+        assertThrows(SQLException.class, () -> new PenalitesBatch(enPanne, fichierReprise, 2).executer(JOUR));
+        assertEquals(JOUR + ";" + ids[1], new PointDeReprise(fichierReprise).lire());
+        assertEquals(2.0, penalite(ids[1]));
+        assertEquals(0.0, penalite(ids[2]));
+
+        RapportPenalites reprise = new PenalitesBatch(empruntDAO, fichierReprise, 2).executer(JOUR);
+
+        assertTrue(reprise.isReprise());
+        assertEquals(3, reprise.getEmpruntsParcourus());
+        assertEquals(3, reprise.getEmpruntsModifies());
+        for (int id : ids) {
+            assertEquals(2.0, penalite(id));
+        }
+        assertFalse(Files.exists(fichierReprise));
+    }
+
+    @Test
+    void pointDeRepriseDUnAutreJourIgnore() throws Exception {
+        int id = BaseH2.ajouterEmprunt("978-0", membre, JOUR.minusDays(2), null);
+        new PointDeReprise(fichierReprise).enregistrer(JOUR.minusDays(1) + ";" + id);
+
+        RapportPenalites rapport = new PenalitesBatch(empruntDAO, fichierReprise).executer(JOUR);
+
+        assertFalse(rapport.isReprise());
+        assertEquals(1, rapport.getEmpruntsModifies());
+        assertEquals(4.0, penalite(id));
+    }
+}
@@ -0,0 +1,120 @@
+package com.bibliotheque.dao.impl;
+
+import com.bibliotheque.BaseH2;
+import com.bibliotheque.batch.PenalitesBatch;
+import com.bibliotheque.model.Emprunt;
+import com.bibliotheque.model.Livre;
+import com.bibliotheque.model.Membre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmpruntDAOImplTest {
+
+    // Prédicat remplacé par l'UNION ALL de FIND_EN_RETARD_SQL, calculé sur les seules dates.
+    private static final String ANCIEN_EN_RETARD_SQL = "SELECT id FROM emprunts "
+            + "WHERE date_retour_effective > date_retour_prevue "
+            + "OR (date_retour_effective IS NULL AND date_retour_prevue < CURDATE()) ORDER BY id";
+
+    private static final LocalDate AUJOURDHUI = LocalDate.now();
+
+    @TempDir
+    Path dossier;
+
+    private final EmpruntDAOImpl empruntDAO = new EmpruntDAOImpl();
+    private Livre livre;
+    private Membre membre;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        BaseH2.recreer();
+        BaseH2.ajouterLivre("978-0");
+        livre = new Livre("978-0", "Livre 978-0", "Auteur", 2000, true);
+        membre = new Membre(BaseH2.ajouterMembre("retard@test.ma"), "Nom", "Prénom", "retard@test.ma", true,
+                AUJOURDHUI);
+    }
+
+    private Emprunt enregistrer(LocalDate dateRetourPrevue) throws SQLException {
+        Emprunt emprunt = new Emprunt(dateRetourPrevue.minusDays(14), dateRetourPrevue, livre, membre);
+        empruntDAO.save(emprunt);
+        return emprunt;
+    }
+
+    private void rendre(Emprunt emprunt, LocalDate dateRetour) throws SQLException {
+        emprunt.setDateRetourEffective(dateRetour);
+        emprunt.setPenalite(emprunt.calculerPenalite());
+        assertTrue(empruntDAO.enregistrerRetour(emprunt));
+    }
+
+    private static List<Integer> ancienEnRetard() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = BaseH2.connecter();
+             PreparedStatement stmt = conn.prepareStatement(ANCIEN_EN_RETARD_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private List<Integer> enRetard() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        for (Emprunt emprunt : empruntDAO.findEnRetard()) {
+            ids.add(emprunt.getId());
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    @Test
+    void findEnRetardEquivalentAuPredicatOr() throws Exception {
+        List<Integer> attendus = new ArrayList<>();
+
+        // En cours et échus : enregistrés en retard, ou marqués par le passage nocturne
+        attendus.add(enregistrer(AUJOURDHUI.minusDays(3)).getId());
+        attendus.add(BaseH2.ajouterEmprunt("978-0", membre.getId(), AUJOURDHUI.minusDays(1), null));
+        attendus.add(BaseH2.ajouterEmprunt("978-0", membre.getId(), AUJOURDHUI.minusDays(6), null));
+        // Rendus en retard, par retour ou par modification
+        Emprunt renduEnRetard = enregistrer(AUJOURDHUI.minusDays(5));
+        rendre(renduEnRetard, AUJOURDHUI);
+        attendus.add(renduEnRetard.getId());
+        Emprunt corrigeEnRetard = enregistrer(AUJOURDHUI.minusDays(10));
+        corrigeEnRetard.setDateRetourEffective(AUJOURDHUI.minusDays(8));
+        empruntDAO.update(corrigeEnRetard);
+        attendus.add(corrigeEnRetard.getId());
+
+        // Rendus à temps, y compris le jour même de l'échéance
+        rendre(enregistrer(AUJOURDHUI.plusDays(2)), AUJOURDHUI);
+        rendre(enregistrer(AUJOURDHUI), AUJOURDHUI);
+        BaseH2.ajouterEmprunt("978-0", membre.getId(), AUJOURDHUI.minusDays(4), AUJOURDHUI.minusDays(4));
+        // Pas encore échus
+        enregistrer(AUJOURDHUI);
+        enregistrer(AUJOURDHUI.plusDays(5));
+        // Marqué par le passage nocturne, puis prolongé
+        Emprunt prolonge = new Emprunt(BaseH2.ajouterEmprunt("978-0", membre.getId(), AUJOURDHUI.minusDays(2), null),
+                AUJOURDHUI.minusDays(16), AUJOURDHUI.minusDays(2), null, 0.0, livre, membre);
+
+        new PenalitesBatch(empruntDAO, dossier.resolve("penalites.reprise")).executer(AUJOURDHUI);
+        prolonge.setDateRetourPrevue(AUJOURDHUI.plusDays(7));
+        empruntDAO.update(prolonge);
+        // Le passage nocturne a marqué les emprunts en cours échus, qui sont ensuite rendus en retard
+        Emprunt marqueParLeBatch = empruntDAO.findById(String.valueOf(attendus.get(1)));
+        rendre(marqueParLeBatch, AUJOURDHUI);
+
+        assertEquals(attendus, ancienEnRetard());
+        assertEquals(attendus, enRetard());
+    }
+}
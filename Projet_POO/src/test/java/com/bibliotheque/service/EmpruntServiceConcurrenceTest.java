@@ -0,0 +1,169 @@
+package com.bibliotheque.service;
+
+import com.bibliotheque.BaseH2;
+import com.bibliotheque.dao.LivreDAO;
+import com.bibliotheque.dao.impl.EmpruntDAOImpl;
+import com.bibliotheque.dao.impl.LivreDAOImpl;
+import com.bibliotheque.dao.impl.MembreDAOImpl;
+import com.bibliotheque.exception.LimiteEmpruntDepasseeException;
+import com.bibliotheque.exception.LivreIndisponibleException;
+import com.bibliotheque.model.Emprunt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmpruntServiceConcurrenceTest {
+
+    // Nombre de livres disputés, un à la fois, par deux postes.
+    private static final int MANCHES = 20;
+
+    private final LivreDAOImpl livreDAO = new LivreDAOImpl();
+    private EmpruntService service;
+    private ExecutorService postes;
+
+    @BeforeEach
+    void preparer() throws Exception {
+        BaseH2.recreer();
+        service = new EmpruntService(new EmpruntDAOImpl(), livreDAO, new MembreDAOImpl());
+        postes = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void arreter() {
+        postes.shutdownNow();
+    }
+
+    // Lance les deux emprunts ensemble ; chacun retourne l'emprunt créé ou l'exception levée.
+    private List<Object> emprunterEnParallele(String isbnA, int membreA, String isbnB, int membreB)
+            throws Exception {
+        CyclicBarrier depart = new CyclicBarrier(2);
+        Future<Object> a = postes.submit(() -> emprunter(depart, isbnA, membreA));
+        Future<Object> b = postes.submit(() -> emprunter(depart, isbnB, membreB));
+        return List.of(a.get(), b.get());
+    }
+
+    private Object emprunter(CyclicBarrier depart, String isbn, int membreId) throws Exception {
+        depart.await();
+        try {
+            return service.emprunterLivre(isbn, membreId);
+        } catch (LivreIndisponibleException | LimiteEmpruntDepasseeException e) {
+            return e;
+        }
+    }
+
+    private static long compter(List<Object> issues, Class<?> type) {
+        return issues.stream().filter(type::isInstance).count();
+    }
+
+    @Test
+    void unSeulDesDeuxPostesObtientLeLivre() throws Exception {
+        for (int i = 0; i < MANCHES; i++) {
+            String isbn = "978-" + i;
+            BaseH2.ajouterLivre(isbn);
+            int membreA = BaseH2.ajouterMembre("a" + i + "@test.ma");
+            int membreB = BaseH2.ajouterMembre("b" + i + "@test.ma");
+
+            List<Object> issues = emprunterEnParallele(isbn, membreA, isbn, membreB);
+
+            assertEquals(1, compter(issues, Emprunt.class), "manche " + i + " : " + issues);
+            assertEquals(1, compter(issues, LivreIndisponibleException.class), "manche " + i + " : " + issues);
+        }
+        assertEquals(MANCHES, BaseH2.entier("SELECT COUNT(*) FROM emprunts WHERE date_retour_effective IS NULL"));
+        assertEquals(0, BaseH2.entier("SELECT COUNT(*) FROM (SELECT isbn FROM emprunts "
+                + "WHERE date_retour_effective IS NULL GROUP BY isbn HAVING COUNT(*) > 1) doublons"));
+        assertEquals(0, BaseH2.entier("SELECT COUNT(*) FROM livres WHERE disponible"));
+    }
+
+    @Test
+    void laLimiteDEmpruntsResisteADeuxPostes() throws Exception {
+        int membre = BaseH2.ajouterMembre("limite@test.ma");
+        for (int i = 0; i < 4; i++) {
+            BaseH2.ajouterLivre("978-" + i);
+        }
+        service.emprunterLivre("978-0", membre);
+        service.emprunterLivre("978-1", membre);
+
+        // Deux livres différents, un seul emprunt encore permis au membre
+        List<Object> issues = emprunterEnParallele("978-2", membre, "978-3", membre);
+
+        assertEquals(1, compter(issues, Emprunt.class), issues.toString());
+        assertEquals(1, compter(issues, LimiteEmpruntDepasseeException.class), issues.toString());
+        assertEquals(3, BaseH2.entier("SELECT COUNT(*) FROM emprunts WHERE membre_id = ? "
+                + "AND date_retour_effective IS NULL", membre));
+    }
+
+    @Test
+    void marquageConditionnelDeLaDisponibilite() throws Exception {
+        BaseH2.ajouterLivre("978-0");
+
+        assertTrue(livreDAO.marquerEmprunte("978-0"));
+        assertFalse(livreDAO.marquerEmprunte("978-0"));
+        assertTrue(livreDAO.marquerDisponible("978-0"));
+        assertFalse(livreDAO.marquerDisponible("978-0"));
+    }
+
+    // LivreDAO dont le verrouillage d'un livre échoue d'abord avec l'erreur donnée.
+    private LivreDAO echouantAuVerrouillage(AtomicInteger echecs, SQLException erreur) {
+        return (LivreDAO) Proxy.newProxyInstance(LivreDAO.class.getClassLoader(), new Class<?>[]{LivreDAO.class},
+                (proxy, methode, args) -> {
+                    if (methode.getName().equals("findByISBNPourMiseAJour") && echecs.getAndDecrement() > 0) {
+                        throw erreur;
+                    }
+                    try {
+                        return methode.invoke(livreDAO, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Test
+    void empruntRejoueApresInterblocage() throws Exception {
+        BaseH2.ajouterLivre("978-0");
+        int membre = BaseH2.ajouterMembre("rejeu@test.ma");
+        for (SQLException erreur : List.of(
+                new SQLException("Deadlock found", "40001", 1213),
+                new SQLException("Lock wait timeout exceeded", "HY000", 1205))) {
+            AtomicInteger echecs = new AtomicInteger(2);
+            EmpruntService rejoue = new EmpruntService(new EmpruntDAOImpl(),
+                    echouantAuVerrouillage(echecs, erreur), new MembreDAOImpl());
+
+            Emprunt emprunt = rejoue.emprunterLivre("978-0", membre);
+
+            assertEquals(-1, echecs.get());
+            rejoue.retournerLivre(emprunt.getId());
+        }
+        assertEquals(2, BaseH2.entier("SELECT COUNT(*) FROM emprunts"));
+    }
+
+    @Test
+    void erreurNonReessayableNEstPasRejouee() throws Exception {
+        BaseH2.ajouterLivre("978-0");
+        int membre = BaseH2.ajouterMembre("erreur@test.ma");
+        AtomicInteger echecs = new AtomicInteger(1);
+        EmpruntService echoue = new EmpruntService(new EmpruntDAOImpl(),
+                echouantAuVerrouillage(echecs, new SQLException("Duplicate entry", "23000", 1062)), new MembreDAOImpl());
+
+        SQLException erreur = assertThrows(SQLException.class, () -> echoue.emprunterLivre("978-0", membre));
+
+        assertEquals(1062, erreur.getErrorCode());
+        assertEquals(0, echecs.get());
+        assertEquals(0, BaseH2.entier("SELECT COUNT(*) FROM emprunts"));
+        assertEquals(1, BaseH2.entier("SELECT COUNT(*) FROM livres WHERE disponible"));
+    }
+}
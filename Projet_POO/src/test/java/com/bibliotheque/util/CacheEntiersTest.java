@@ -0,0 +1,105 @@
+package com.bibliotheque.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheEntiersTest {
+
+    // Même dispersion que CacheEntiers : les clés sont choisies selon leur case idéale.
+    private static int caseIdeale(int cle, int cases) {
+        int h = cle * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (cases - 1);
+    }
+
+    // Première clé strictement supérieure à apres dont la case idéale est celle demandée.
+    private static int cleEnCase(int voulue, int cases, int apres) {
+        int cle = apres + 1;
+        while (caseIdeale(cle, cases) != voulue) {
+            cle++;
+        }
+        return cle;
+    }
+
+    @Test
+    void retraitDansUneGrappeQuiFaitLeTour() {
+        // capacité 8 : 16 cases
+        CacheEntiers<String> cache = new CacheEntiers<>(8);
+        int cases = 16;
+        int a = cleEnCase(15, cases, 0);
+        int b = cleEnCase(15, cases, a);
+        int c = cleEnCase(15, cases, b);
+        int d = cleEnCase(0, cases, 0);
+        // a en 15, puis la grappe repart en tête : b en 0, c en 1, d (idéale 0) en 2
+        cache.mettre(a, "a");
+        cache.mettre(b, "b");
+        cache.mettre(c, "c");
+        cache.mettre(d, "d");
+
+        assertEquals("a", cache.retirer(a));
+        assertNull(cache.get(a));
+        assertEquals("b", cache.get(b));
+        assertEquals("c", cache.get(c));
+        assertEquals("d", cache.get(d));
+
+        assertEquals("b", cache.retirer(b));
+        assertNull(cache.get(b));
+        assertEquals("c", cache.get(c));
+        assertEquals("d", cache.get(d));
+        assertEquals(2, cache.taille());
+
+        // la case libérée est réutilisée sans masquer les entrées restantes
+        cache.mettre(a, "a2");
+        assertEquals("a2", cache.get(a));
+        assertEquals("c", cache.get(c));
+        assertEquals("d", cache.get(d));
+    }
+
+    @Test
+    void retraitDUneCleAbsente() {
+        CacheEntiers<String> cache = new CacheEntiers<>(4);
+        cache.mettre(1, "un");
+        assertNull(cache.retirer(2));
+        assertEquals(1, cache.taille());
+        assertEquals("un", cache.get(1));
+    }
+
+    @Test
+    void evictionClockAccordeUnSursisAuxEntreesLues() {
+        // capacité 3 : 8 cases, l'aiguille part de la case 0
+        CacheEntiers<String> cache = new CacheEntiers<>(3);
+        int cases = 8;
+        int k0 = cleEnCase(0, cases, 0);
+        int k1 = cleEnCase(1, cases, 0);
+        int k2 = cleEnCase(2, cases, 0);
+        int k5 = cleEnCase(5, cases, 0);
+        int k6 = cleEnCase(6, cases, 0);
+        assertNull(cache.mettre(k0, "k0"));
+        assertNull(cache.mettre(k1, "k1"));
+        assertNull(cache.mettre(k2, "k2"));
+
+        cache.get(k0);
+        // k0 lue : sursis, k1 est la première entrée non référencée
+        assertEquals("k1", cache.mettre(k5, "k5"));
+        assertEquals("k0", cache.get(k0));
+        assertNull(cache.get(k1));
+
+        // l'aiguille reprend après k1 : k2
+        assertEquals("k2", cache.mettre(k6, "k6"));
+        assertEquals(3, cache.taille());
+        assertEquals("k0", cache.get(k0));
+        assertEquals("k5", cache.get(k5));
+        assertEquals("k6", cache.get(k6));
+    }
+
+    @Test
+    void miseAJourSansEviction() {
+        CacheEntiers<String> cache = new CacheEntiers<>(2);
+        cache.mettre(1, "un");
+        cache.mettre(2, "deux");
+        assertNull(cache.mettre(1, "un bis"));
+        assertEquals("un bis", cache.get(1));
+        assertEquals(2, cache.taille());
+    }
+}
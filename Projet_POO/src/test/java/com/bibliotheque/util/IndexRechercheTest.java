@@ -0,0 +1,112 @@
+package com.bibliotheque.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexRechercheTest {
+
+    private static final class Document {
+        final String isbn;
+        final String titre;
+
+        Document(String isbn, String titre) {
+            this.isbn = isbn;
+            this.titre = titre;
+        }
+    }
+
+    private IndexRecherche<Document> index;
+
+    @BeforeEach
+    void creerIndex() {
+        index = new IndexRecherche<>(document -> document.isbn, document -> document.titre);
+        index.indexer(new Document("978-1", "Les Misérables"));
+        index.indexer(new Document("978-2", "L'Étranger"));
+        index.indexer(new Document("978-3", "Le Petit Prince"));
+        index.indexer(new Document("978-4", "Misère et grandeur"));
+    }
+
+    private List<String> isbns(String requete) {
+        List<String> isbns = new ArrayList<>();
+        for (Document document : index.rechercher(requete, 100)) {
+            isbns.add(document.isbn);
+        }
+        return isbns;
+    }
+
+    @Test
+    void prefixeFragmentEtAccents() {
+        assertEquals(List.of("978-1", "978-4"), isbns("mis"));
+        assertEquals(List.of("978-1"), isbns("rabl"));
+        assertEquals(List.of("978-2"), isbns("etran"));
+        assertEquals(List.of("978-2"), isbns("ÉTRANGER"));
+        assertEquals(List.of("978-1"), isbns("miserables"));
+        // les correspondances par préfixe d'abord, puis par fragment
+        index.indexer(new Document("978-5", "Rangements"));
+        assertEquals(List.of("978-5", "978-2", "978-4"), isbns("ran"));
+    }
+
+    @Test
+    void rechercheApresRetrait() {
+        index.retirer("978-1");
+
+        assertEquals(List.of("978-4"), isbns("mis"));
+        assertEquals(List.of(), isbns("rabl"));
+        assertEquals(List.of(), isbns("misérables"));
+        assertEquals(List.of("978-4"), isbns("m"));
+        assertEquals(List.of("978-2"), isbns("étranger"));
+        assertEquals(3, index.taille());
+    }
+
+    @Test
+    void rechercheApresRemplacement() {
+        index.indexer(new Document("978-2", "La Peste"));
+
+        assertEquals(List.of(), isbns("etranger"));
+        assertEquals(List.of("978-2"), isbns("pest"));
+        assertEquals(List.of("978-2"), isbns("est"));
+        assertEquals(4, index.taille());
+    }
+
+    @Test
+    void rechercheApresCompaction() {
+        List<Document> remplissage = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            remplissage.add(new Document("rem-" + i, "Volume " + i));
+        }
+        index.indexerTous(remplissage);
+        index.retirer("978-1");
+        // plus de la moitié des numéros supprimés : la reconstruction a lieu pendant ces retraits
+        for (int i = 0; i < 1000; i++) {
+            index.retirer("rem-" + i);
+        }
+        assertEquals(103, index.taille());
+
+        assertEquals(List.of("978-4"), isbns("mis"));
+        assertEquals(List.of(), isbns("rabl"));
+        assertEquals(List.of("978-2"), isbns("ÉTRAN"));
+        assertEquals(List.of("978-2"), isbns("rang"));
+        assertEquals(List.of("978-3"), isbns("petit prin"));
+        assertEquals(List.of("rem-1050"), isbns("volume 1050"));
+        assertTrue(isbns("volume 5").isEmpty());
+
+        // l'index reconstruit accepte de nouveaux documents
+        index.indexer(new Document("978-5", "Les Misérables, tome II"));
+        assertEquals(List.of("978-5"), isbns("rabl"));
+        assertEquals(List.of("978-4", "978-5"), isbns("mis"));
+    }
+
+    @Test
+    void rechercheParCle() {
+        index.indexer(new Document("978-2-07-036822-8", "Vol de nuit"));
+
+        assertEquals(List.of("978-2-07-036822-8"), isbns("9782070"));
+        assertEquals(List.of("978-2-07-036822-8"), isbns("978-2-07"));
+    }
+}
@@ -0,0 +1,216 @@
+package com.bibliotheque.util;
+
+import com.bibliotheque.BaseH2;
+import com.bibliotheque.util.TransactionManager.Propagation;
+import com.bibliotheque.util.TransactionManager.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionManagerTest {
+
+    @BeforeEach
+    void preparer() throws Exception {
+        BaseH2.recreer();
+    }
+
+    @AfterEach
+    void verifierPileVide() {
+        assertFalse(TransactionManager.estActive());
+        assertNull(TransactionManager.connexionLiee());
+    }
+
+    // Insère un livre par la connexion de l'application (celle de la transaction courante, s'il y en a une).
+    private static void inserer(String isbn) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO livres (isbn, titre, auteur, annee_publication) VALUES (?, 'Titre', 'Auteur', 2000)")) {
+            stmt.setString(1, isbn);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static long livresValides() throws SQLException {
+        return BaseH2.entier("SELECT COUNT(*) FROM livres");
+    }
+
+    @Test
+    void requiredRejointLaTransactionCourante() throws Exception {
+        try (Transaction externe = TransactionManager.debuter()) {
+            Connection liee = TransactionManager.connexionLiee();
+            try (Transaction interne = TransactionManager.debuter()) {
+                assertFalse(interne.estNouvelle());
+                assertSame(liee, TransactionManager.connexionLiee());
+                inserer("1");
+                interne.valider();
+            }
+            // Rien n'est validé avant le commit de la transaction propriétaire
+            assertEquals(0, livresValides());
+            externe.valider();
+        }
+        assertEquals(1, livresValides());
+    }
+
+    @Test
+    void participantEnEchecAnnuleLaTransactionEnglobante() throws Exception {
+        try (Transaction externe = TransactionManager.debuter()) {
+            inserer("1");
+            try (Transaction interne = TransactionManager.debuter()) {
+                inserer("2");
+                // fermée sans validation
+            }
+            assertThrows(SQLException.class, externe::valider);
+        }
+        assertEquals(0, livresValides());
+    }
+
+    @Test
+    void annulationImbriqueeConserveLeTravailExterne() throws Exception {
+        try (Transaction externe = TransactionManager.debuter()) {
+            inserer("1");
+            try (Transaction imbriquee = TransactionManager.debuter(Propagation.NESTED)) {
+                assertFalse(imbriquee.estNouvelle());
+                inserer("2");
+                imbriquee.annuler();
+            }
+            try (Transaction imbriquee = TransactionManager.debuter(Propagation.NESTED)) {
+                inserer("3");
+                imbriquee.valider();
+            }
+            externe.valider();
+        }
+        assertEquals(2, livresValides());
+        assertEquals(0, BaseH2.entier("SELECT COUNT(*) FROM livres WHERE isbn = '2'"));
+    }
+
+    @Test
+    void requiresNewEstIndependante() throws Exception {
+        try (Transaction externe = TransactionManager.debuter()) {
+            Connection liee = TransactionManager.connexionLiee();
+            inserer("1");
+            try (Transaction nouvelle = TransactionManager.debuter(Propagation.REQUIRES_NEW)) {
+                assertTrue(nouvelle.estNouvelle());
+                assertNotSame(liee, TransactionManager.connexionLiee());
+                inserer("2");
+                nouvelle.valider();
+            }
+            // La transaction suspendue reprend sa connexion
+            assertSame(liee, TransactionManager.connexionLiee());
+            assertEquals(1, livresValides());
+            externe.annuler();
+        }
+        assertEquals(1, BaseH2.entier("SELECT COUNT(*) FROM livres WHERE isbn = '2'"));
+        assertEquals(1, livresValides());
+    }
+
+    @Test
+    void actionsApresValidationSeulementApresLeCommit() throws Exception {
+        List<String> executees = new ArrayList<>();
+        try (Transaction tx = TransactionManager.debuter()) {
+            TransactionManager.apresValidation(() -> executees.add("validation"));
+            TransactionManager.apresTerminaison(() -> executees.add("terminaison"));
+            tx.valider();
+            // Exécutées à la fermeture, une fois la connexion rendue
+            assertTrue(executees.isEmpty());
+        }
+        assertEquals(List.of("terminaison", "validation"), executees);
+    }
+
+    @Test
+    void actionsApresValidationAbandonneesAuRollback() throws Exception {
+        List<String> executees = new ArrayList<>();
+        try (Transaction tx = TransactionManager.debuter()) {
+            TransactionManager.apresValidation(() -> executees.add("validation"));
+            TransactionManager.apresTerminaison(() -> executees.add("terminaison"));
+            tx.annuler();
+        }
+        assertEquals(List.of("terminaison"), executees);
+    }
+
+    @Test
+    void actionsDUnPointDeSauvegardeAnnuleAbandonnees() throws Exception {
+        List<String> executees = new ArrayList<>();
+        try (Transaction externe = TransactionManager.debuter()) {
+            TransactionManager.apresValidation(() -> executees.add("externe"));
+            try (Transaction imbriquee = TransactionManager.debuter(Propagation.NESTED)) {
+                TransactionManager.apresValidation(() -> executees.add("annulee"));
+                imbriquee.annuler();
+            }
+            try (Transaction imbriquee = TransactionManager.debuter(Propagation.NESTED)) {
+                TransactionManager.apresValidation(() -> executees.add("imbriquee"));
+                imbriquee.valider();
+            }
+            externe.valider();
+        }
+        assertEquals(List.of("externe", "imbriquee"), executees);
+    }
+
+    @Test
+    void actionsExecuteesImmediatementHorsTransaction() {
+        List<String> executees = new ArrayList<>();
+        TransactionManager.apresValidation(() -> executees.add("validation"));
+        TransactionManager.apresTerminaison(() -> executees.add("terminaison"));
+        assertEquals(List.of("validation", "terminaison"), executees);
+    }
+
+    @Test
+    void connexionLibereeALaFermeture() throws Exception {
+        int libresAvant;
+        try (Connection amorce = DatabaseConnection.getInstance().getConnection()) {
+            libresAvant = DatabaseConnection.getInstance().getPool().getNombreLibres();
+        }
+        try (Transaction tx = TransactionManager.debuter()) {
+            Connection liee = TransactionManager.connexionLiee();
+            // close() de la connexion partagée sans effet, commit() réservé au gestionnaire
+            liee.close();
+            assertSame(liee, TransactionManager.connexionLiee());
+            assertThrows(SQLException.class, liee::commit);
+            tx.valider();
+        }
+        assertNull(TransactionManager.connexionLiee());
+        assertTrue(DatabaseConnection.getInstance().getPool().getNombreLibres() >= libresAvant + 1);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void executerRejoueUnInterblocageAuPremierNiveauSeulement() throws Exception {
+        AtomicInteger tentatives = new AtomicInteger();
+        String resultat = TransactionManager.executer(() -> {
+            if (tentatives.incrementAndGet() == 1) {
+                throw new SQLException("Deadlock found", "40001", 1213);
+            }
+            inserer("1");
+            return "ok";
+        });
+        assertEquals("ok", resultat);
+        assertEquals(2, tentatives.get());
+        assertEquals(1, livresValides());
+
+        // Dans une transaction englobante, c'est à son propriétaire de rejouer le tout
+        tentatives.set(0);
+        try (Transaction externe = TransactionManager.debuter()) {
+            assertThrows(SQLException.class, () -> TransactionManager.executer(() -> {
+                tentatives.incrementAndGet();
+                throw new SQLException("Deadlock found", "40001", 1213);
+            }));
+            assertEquals(1, tentatives.get());
+        }
+    }
+}